@@ -0,0 +1,101 @@
+package com.weathertrack;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.weathertrack.data.local.dao.WeatherDao;
+import com.weathertrack.data.local.database.WeatherDatabase;
+import com.weathertrack.data.local.entity.WeatherEntity;
+import com.weathertrack.data.repository.RetentionEngine;
+import com.weathertrack.data.repository.RetentionResult;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs a retention pass against an in-memory database and checks that only
+ * rows past each tier's cutoff are removed, in chunks, with rollups intact.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RetentionEngineTest {
+    
+    private static final long HOUR = 60L * 60 * 1000;
+    private static final long NOW = 1_700_000_000_000L;
+    
+    private WeatherDatabase database;
+    private WeatherDao dao;
+    private ExecutorService writeExecutor;
+    
+    @Before
+    public void createDatabase() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class)
+            .addCallback(WeatherDatabase.LOAD_CITY_DICTIONARY)
+            .build();
+        dao = database.weatherDao();
+        writeExecutor = Executors.newSingleThreadExecutor();
+    }
+    
+    @After
+    public void closeDatabase() {
+        writeExecutor.shutdownNow();
+        database.close();
+    }
+    
+    @Test
+    public void run_deletesExpiredRowsInChunksAndKeepsDailyRollups() throws Exception {
+        // 100 hourly readings ending now; the oldest 60 are past the raw cutoff
+        List<WeatherEntity> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(new WeatherEntity(60 + i % 10, 50, "Sunny", NOW - i * HOUR, "New York"));
+        }
+        dao.insertAllWithRollups(rows);
+        
+        RetentionEngine engine = new RetentionEngine(database, dao, writeExecutor, 25);
+        RetentionResult result = engine.run(NOW - 39 * HOUR - 1, NOW - 79 * HOUR - 1).get();
+        
+        assertEquals(60, result.getRawRowsDeleted());
+        assertEquals(20, result.getHourlyRowsDeleted());
+        // 25 + 25 + 10 raw, then 20 hourly
+        assertEquals(4, result.getChunkCount());
+        assertEquals(40, dao.getRecordCount());
+        
+        // Nov 10 through Nov 14 UTC, all still present
+        assertEquals(5, count("weather_daily_rollups"));
+        assertEquals(80, count("weather_hourly_rollups"));
+    }
+    
+    @Test
+    public void run_withNothingExpiredDeletesNothing() throws Exception {
+        List<WeatherEntity> rows = new ArrayList<>();
+        rows.add(new WeatherEntity(70, 50, "Sunny", NOW, "New York"));
+        dao.insertAllWithRollups(rows);
+        
+        RetentionResult result = new RetentionEngine(database, dao, writeExecutor, 25)
+            .run(NOW - HOUR, NOW - HOUR).get();
+        
+        assertEquals(0, result.getRawRowsDeleted());
+        assertEquals(0, result.getHourlyRowsDeleted());
+        assertEquals(1, dao.getRecordCount());
+    }
+    
+    private long count(String table) {
+        try (Cursor cursor = database.query("SELECT COUNT(*) FROM " + table, null)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+}
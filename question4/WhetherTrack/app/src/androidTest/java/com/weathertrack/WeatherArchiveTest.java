@@ -0,0 +1,144 @@
+package com.weathertrack;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.weathertrack.data.local.dao.WeatherDao;
+import com.weathertrack.data.local.database.WeatherDatabase;
+import com.weathertrack.data.local.entity.WeatherEntity;
+import com.weathertrack.data.repository.WeatherArchiver;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Archives two years of synthetic hourly readings and compares database size
+ * and full-range scan time before and after. Results are logged under the
+ * WeatherArchiveTest tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WeatherArchiveTest {
+    
+    private static final String TAG = "WeatherArchiveTest";
+    private static final String CITY = "New York";
+    private static final long HOUR = 60L * 60 * 1000;
+    // 2021-01-01T00:00:00Z
+    private static final long START = 1_609_459_200_000L;
+    private static final int READINGS = 2 * 365 * 24;
+    private static final String[] CONDITIONS = {"Sunny", "Cloudy", "Rainy", "Partly Cloudy"};
+    
+    private WeatherDatabase database;
+    private WeatherDao dao;
+    private ExecutorService writeExecutor;
+    
+    @Before
+    public void createDatabase() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class)
+            .addCallback(WeatherDatabase.LOAD_CITY_DICTIONARY)
+            .build();
+        dao = database.weatherDao();
+        writeExecutor = Executors.newSingleThreadExecutor();
+    }
+    
+    @After
+    public void closeDatabase() {
+        writeExecutor.shutdownNow();
+        database.close();
+    }
+    
+    @Test
+    public void archive_shrinksStorageAndKeepsRangeReadsIntact() throws Exception {
+        Random random = new Random(7);
+        List<WeatherEntity> batch = new ArrayList<>();
+        double temperature = 55;
+        for (int i = 0; i < READINGS; i++) {
+            temperature += random.nextGaussian();
+            batch.add(new WeatherEntity(temperature, 30 + random.nextInt(70),
+                CONDITIONS[random.nextInt(CONDITIONS.length)], START + i * HOUR, CITY));
+            if (batch.size() == 1000) {
+                dao.insertWeather(batch);
+                batch.clear();
+            }
+        }
+        dao.insertWeather(batch);
+        long end = START + READINGS * HOUR;
+        
+        WeatherArchiver archiver = new WeatherArchiver(database, dao, writeExecutor);
+        long rawBytes = recordBytes();
+        long rawScanNanos = timeScan(() -> dao.loadWeatherForCityBetween(CITY, START, end).size());
+        
+        int[] archived = archiver.archiveBefore(end + HOUR).get();
+        exec("VACUUM");
+        long archivedBytes = recordBytes();
+        long archivedScanNanos = timeScan(() -> archiver.loadBetween(CITY, START, end).size());
+        
+        Log.i(TAG, "raw " + rawBytes + " bytes, scan " + rawScanNanos / 1000 + " us; archived "
+            + archivedBytes + " bytes, scan " + archivedScanNanos / 1000 + " us; "
+            + archived[1] + " segments");
+        
+        assertEquals(READINGS, archived[0]);
+        assertEquals(0, dao.getRecordCount());
+        assertEquals(READINGS, archiver.loadBetween(CITY, START, end).size());
+        assertTrue("raw " + rawBytes + " vs archived " + archivedBytes, archivedBytes * 3 < rawBytes);
+    }
+    
+    @Test
+    public void lateRow_forArchivedMonth_isMergedNotLost() throws Exception {
+        WeatherArchiver archiver = new WeatherArchiver(database, dao, writeExecutor);
+        dao.insertWeather(new WeatherEntity(50, 40, "Sunny", START, CITY));
+        archiver.archiveBefore(START + 40 * 24 * HOUR).get();
+        
+        dao.insertWeather(new WeatherEntity(51, 41, "Cloudy", START + HOUR, CITY));
+        archiver.archiveBefore(START + 40 * 24 * HOUR).get();
+        
+        assertEquals(0, dao.getRecordCount());
+        assertEquals(2, archiver.loadBetween(CITY, START, START + 24 * HOUR).size());
+    }
+    
+    private interface Scan {
+        int run();
+    }
+    
+    private static long timeScan(Scan scan) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            assertEquals(READINGS, scan.run());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+    
+    // Bytes in use across the database, excluding free pages
+    private long recordBytes() {
+        return pragma("PRAGMA page_count") * pragma("PRAGMA page_size")
+            - pragma("PRAGMA freelist_count") * pragma("PRAGMA page_size");
+    }
+    
+    private long pragma(String sql) {
+        try (Cursor cursor = database.query(sql, null)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+    
+    private void exec(String sql) {
+        database.getOpenHelper().getWritableDatabase().execSQL(sql);
+    }
+}
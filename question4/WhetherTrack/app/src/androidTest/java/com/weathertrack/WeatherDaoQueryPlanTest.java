@@ -0,0 +1,98 @@
+package com.weathertrack;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.weathertrack.data.local.dao.WeatherDao;
+import com.weathertrack.data.local.database.WeatherDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks with EXPLAIN QUERY PLAN that the city-scoped DAO queries are served by
+ * the (city, timestamp) index rather than a full scan plus sort.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WeatherDaoQueryPlanTest {
+    
+    private static final String CITY_INDEX = "index_weather_records_cityId_timestamp";
+    private static final String TIMESTAMP_INDEX = "index_weather_records_timestamp";
+    
+    private WeatherDatabase database;
+    
+    @Before
+    public void createDatabase() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, WeatherDatabase.class)
+            .addCallback(WeatherDatabase.LOAD_CITY_DICTIONARY)
+            .build();
+    }
+    
+    @After
+    public void closeDatabase() {
+        database.close();
+    }
+    
+    @Test
+    public void latestForCity_usesCityTimestampIndex() {
+        assertServedByCityIndex(WeatherDao.LATEST_FOR_CITY, "New York");
+    }
+    
+    @Test
+    public void citySince_usesCityTimestampIndex() {
+        assertServedByCityIndex(WeatherDao.CITY_SINCE, "New York", 0L);
+    }
+    
+    @Test
+    public void cityBetween_usesCityTimestampIndex() {
+        assertServedByCityIndex(WeatherDao.CITY_BETWEEN, "New York", 0L, Long.MAX_VALUE);
+    }
+    
+    @Test
+    public void historyFirstPage_usesTimestampIndex() {
+        assertServedByIndex(TIMESTAMP_INDEX, WeatherDao.HISTORY_FIRST_PAGE, 50);
+    }
+    
+    @Test
+    public void historyOlderThan_usesTimestampIndex() {
+        assertServedByIndex(TIMESTAMP_INDEX, WeatherDao.HISTORY_OLDER_THAN, 1000L, 1000L, 7, 50);
+    }
+    
+    @Test
+    public void historyNewerThan_usesTimestampIndex() {
+        assertServedByIndex(TIMESTAMP_INDEX, WeatherDao.HISTORY_NEWER_THAN, 1000L, 1000L, 7, 50);
+    }
+    
+    private void assertServedByCityIndex(String sql, Object... args) {
+        assertServedByIndex(CITY_INDEX, sql, args);
+    }
+    
+    private void assertServedByIndex(String index, String sql, Object... args) {
+        String plan = explain(sql, args);
+        assertTrue("Expected " + index + " in plan: " + plan, plan.contains(index));
+        assertFalse("Unexpected sort in plan: " + plan, plan.contains("TEMP B-TREE"));
+    }
+    
+    private String explain(String sql, Object[] args) {
+        // Room named parameters become positional bind arguments
+        String positional = sql.replaceAll(":\\w+", "?");
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = database.getOpenHelper().getReadableDatabase()
+                .query("EXPLAIN QUERY PLAN " + positional, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -1,8 +1,12 @@
 package com.weathertrack;
 
 import android.app.Application;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
 
+import com.weathertrack.background.WeatherSyncScheduler;
+
 public class WeatherTrackApplication extends Application {
     
     private static final String TAG = "WeatherTrackApp";
@@ -11,5 +15,12 @@ public class WeatherTrackApplication extends Application {
     public void onCreate() {
         super.onCreate();
         Log.d(TAG, "WeatherTrack Application started");
+        WeatherSyncScheduler.scheduleRetention(this);
+    }
+    
+    // Startup timings are measured from process start, which includes
+    // zygote fork and Application creation, not just activity launch
+    public static long millisSinceProcessStart() {
+        return SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
     }
 }
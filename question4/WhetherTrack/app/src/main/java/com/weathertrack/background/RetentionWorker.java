@@ -0,0 +1,40 @@
+package com.weathertrack.background;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.weathertrack.data.repository.RetentionResult;
+import com.weathertrack.data.repository.WeatherRepository;
+
+public class RetentionWorker extends Worker {
+    
+    private static final String TAG = "RetentionWorker";
+    private static final int MAX_RETRIES = 3;
+    
+    public RetentionWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        long startTime = System.nanoTime();
+        return WorkerMetrics.record("retention", startTime, runRetention());
+    }
+
+    private Result runRetention() {
+        try {
+            WeatherRepository repository = WeatherRepository.getInstance(getApplicationContext());
+            RetentionResult result = repository.runRetention().get();
+            Log.d(TAG, "Retention pass " + result);
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Retention pass failed", e);
+            return getRunAttemptCount() < MAX_RETRIES ? Result.retry() : Result.failure();
+        }
+    }
+}
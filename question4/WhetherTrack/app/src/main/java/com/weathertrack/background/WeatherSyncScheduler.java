@@ -1,6 +1,8 @@
 package com.weathertrack.background;
 
 import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
 import android.util.Log;
 
 import androidx.work.Constraints;
@@ -10,16 +12,60 @@ import androidx.work.NetworkType;
 import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 
 public class WeatherSyncScheduler {
     
     private static final String TAG = "WeatherSyncScheduler";
     private static final String WORK_NAME = "weather_sync_work";
-    private static final long SYNC_INTERVAL_HOURS = 6;
+    private static final String RETENTION_WORK_NAME = "weather_retention_work";
+    private static final long RETENTION_INTERVAL_HOURS = 24;
+    private static final int SYNC_MAX_CONCURRENCY = 4;
+    // Older cities stop being synced once this many others were set since
+    private static final int MAX_TRACKED_CITIES = 8;
     
+    private static final String PREFS_NAME = "weather_sync_scheduler";
+    // Unordered set written by earlier versions; read once, then replaced
+    private static final String PREF_TRACKED_CITIES = "tracked_cities";
+    // Newline-separated, most recently set first
+    private static final String PREF_RECENT_CITIES = "recent_cities";
+    private static final String PREF_INTERVAL_MINUTES = "interval_minutes";
+    private static final String PREF_SCHEDULE_SIGNATURE = "schedule_signature";
+    
+    // Moves the city to the front of the tracked list, dropping the least recent
+    // past MAX_TRACKED_CITIES; one periodic job syncs every tracked city. The
+    // existing schedule is kept when neither the cities nor the interval changed.
     public static void scheduleWeatherSync(Context context, String city) {
-        Log.d(TAG, "Scheduling weather sync every " + SYNC_INTERVAL_HOURS + " hours");
+        String[] cities = trackCity(context, city);
+        schedulePeriodicSync(context, cities, getSyncIntervalMinutes(context));
+    }
+    
+    // Called by the worker after it re-evaluates how volatile recent readings are
+    public static void updateSyncInterval(Context context, long intervalMinutes) {
+        String[] cities = getTrackedCities(context).toArray(new String[0]);
+        if (cities.length == 0) {
+            return;
+        }
+        schedulePeriodicSync(context, cities, intervalMinutes);
+    }
+    
+    public static long getSyncIntervalMinutes(Context context) {
+        return prefs(context).getLong(PREF_INTERVAL_MINUTES, SyncIntervalPolicy.DEFAULT_INTERVAL_MINUTES);
+    }
+    
+    private static void schedulePeriodicSync(Context context, String[] cities, long intervalMinutes) {
+        SharedPreferences prefs = prefs(context);
+        String signature = intervalMinutes + "|" + TextUtils.join(",", cities);
+        boolean unchanged = signature.equals(prefs.getString(PREF_SCHEDULE_SIGNATURE, null));
+        
+        Log.d(TAG, "Scheduling weather sync for " + cities.length + " cities every "
+            + intervalMinutes + " minutes" + (unchanged ? " (unchanged)" : ""));
         
         // Create constraints - only run when connected to network
         Constraints constraints = new Constraints.Builder()
@@ -28,27 +74,35 @@ public class WeatherSyncScheduler {
         
         // Create input data
         Data inputData = new Data.Builder()
-            .putString("city", city)
+            .putStringArray(WeatherSyncWorker.KEY_CITIES, cities)
+            .putInt(WeatherSyncWorker.KEY_MAX_CONCURRENCY, SYNC_MAX_CONCURRENCY)
+            .putBoolean(WeatherSyncWorker.KEY_PERIODIC, true)
             .build();
         
         // Create periodic work request
         PeriodicWorkRequest weatherSyncWork = new PeriodicWorkRequest.Builder(
                 WeatherSyncWorker.class,
-                SYNC_INTERVAL_HOURS,
-                TimeUnit.HOURS
+                intervalMinutes,
+                TimeUnit.MINUTES
             )
             .setConstraints(constraints)
             .setInputData(inputData)
             .build();
         
-        // Enqueue the work, replacing any existing work with the same name
+        // KEEP leaves a matching schedule (and its next run time) alone; UPDATE
+        // changes the spec without restarting the period
         WorkManager.getInstance(context)
             .enqueueUniquePeriodicWork(
                 WORK_NAME,
-                ExistingPeriodicWorkPolicy.REPLACE,
+                unchanged ? ExistingPeriodicWorkPolicy.KEEP : ExistingPeriodicWorkPolicy.UPDATE,
                 weatherSyncWork
             );
         
+        prefs.edit()
+            .putLong(PREF_INTERVAL_MINUTES, intervalMinutes)
+            .putString(PREF_SCHEDULE_SIGNATURE, signature)
+            .apply();
+        
         Log.d(TAG, "Weather sync scheduled successfully");
     }
     
@@ -65,7 +119,7 @@ public class WeatherSyncScheduler {
             .build();
         
         Data inputData = new Data.Builder()
-            .putString("city", city)
+            .putStringArray(WeatherSyncWorker.KEY_CITIES, new String[] {city})
             .build();
         
         androidx.work.OneTimeWorkRequest oneTimeWork = 
@@ -76,4 +130,56 @@ public class WeatherSyncScheduler {
         
         WorkManager.getInstance(context).enqueue(oneTimeWork);
     }
+    
+    // Daily retention pass, run while charging so its deletes stay out of the
+    // way of foreground use. KEEP leaves an existing schedule untouched.
+    public static void scheduleRetention(Context context) {
+        Constraints constraints = new Constraints.Builder()
+            .setRequiresBatteryNotLow(true)
+            .setRequiresCharging(true)
+            .build();
+        
+        PeriodicWorkRequest retentionWork = new PeriodicWorkRequest.Builder(
+                RetentionWorker.class,
+                RETENTION_INTERVAL_HOURS,
+                TimeUnit.HOURS
+            )
+            .setConstraints(constraints)
+            .build();
+        
+        WorkManager.getInstance(context)
+            .enqueueUniquePeriodicWork(RETENTION_WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, retentionWork);
+    }
+    
+    // Sorted, so the schedule signature does not change with recency alone
+    public static Set<String> getTrackedCities(Context context) {
+        return new TreeSet<>(recentCities(prefs(context)));
+    }
+    
+    private static String[] trackCity(Context context, String city) {
+        SharedPreferences prefs = prefs(context);
+        List<String> recent = recentCities(prefs);
+        recent.remove(city);
+        recent.add(0, city);
+        while (recent.size() > MAX_TRACKED_CITIES) {
+            recent.remove(recent.size() - 1);
+        }
+        prefs.edit()
+            .putString(PREF_RECENT_CITIES, TextUtils.join("\n", recent))
+            .remove(PREF_TRACKED_CITIES)
+            .apply();
+        return new TreeSet<>(recent).toArray(new String[0]);
+    }
+    
+    private static List<String> recentCities(SharedPreferences prefs) {
+        String recent = prefs.getString(PREF_RECENT_CITIES, null);
+        if (recent == null) {
+            return new ArrayList<>(new TreeSet<>(prefs.getStringSet(PREF_TRACKED_CITIES, new HashSet<>())));
+        }
+        return recent.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(TextUtils.split(recent, "\n")));
+    }
+    
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
 }
@@ -1,18 +1,42 @@
 package com.weathertrack.background;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
+import com.weathertrack.data.local.entity.WeatherEntity;
+import com.weathertrack.data.repository.CitySyncResult;
 import com.weathertrack.data.repository.WeatherRepository;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 public class WeatherSyncWorker extends Worker {
     
     private static final String TAG = "WeatherSyncWorker";
     private static final String DEFAULT_CITY = "New York";
+    private static final int DEFAULT_MAX_CONCURRENCY = 4;
+    private static final int MAX_RETRIES = 3;
+    
+    public static final String KEY_CITY = "city";
+    public static final String KEY_CITIES = "cities";
+    public static final String KEY_MAX_CONCURRENCY = "max_concurrency";
+    // Periodic runs skip fresh cities and adapt the schedule; manual syncs always fetch
+    public static final String KEY_PERIODIC = "periodic";
+    
+    private static final long VOLATILITY_WINDOW_MS = TimeUnit.HOURS.toMillis(24);
+    
+    // Cities that failed on the previous attempt, keyed by work id
+    private static final String PREFS_NAME = "weather_sync_worker";
+    private static final String PREF_PENDING_PREFIX = "pending_cities_";
     
     public WeatherSyncWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
         super(context, workerParams);
@@ -21,33 +45,130 @@ public class WeatherSyncWorker extends Worker {
     @NonNull
     @Override
     public Result doWork() {
+        long startTime = System.nanoTime();
+        return WorkerMetrics.record("sync", startTime, sync());
+    }
+
+    private Result sync() {
         Log.d(TAG, "Starting weather sync work");
         
+        SharedPreferences prefs = getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String pendingKey = PREF_PENDING_PREFIX + getId();
+        
         try {
-            WeatherRepository repository = new WeatherRepository(getApplicationContext());
-            String city = getInputData().getString("city");
-            if (city == null || city.isEmpty()) {
-                city = DEFAULT_CITY;
+            WeatherRepository repository = WeatherRepository.getInstance(getApplicationContext());
+            List<String> cities = resolveCities(prefs, pendingKey);
+            int maxConcurrency = getInputData().getInt(KEY_MAX_CONCURRENCY, DEFAULT_MAX_CONCURRENCY);
+            boolean periodic = getInputData().getBoolean(KEY_PERIODIC, false);
+            
+            if (periodic) {
+                cities = dropFreshCities(repository, cities);
+                if (cities.isEmpty()) {
+                    Log.d(TAG, "All cities have fresh readings, skipping this run");
+                    adaptSyncInterval(repository);
+                    return Result.success();
+                }
             }
             
-            // Fetch weather synchronously for background work
-            repository.fetchAndSaveWeather(city)
+            // Fetch synchronously for background work; every reading of the run
+            // commits in one transaction, or the get() throws and the run retries
+            CitySyncResult result = repository.syncCities(cities, maxConcurrency)
                 .get(); // This blocks until completion
             
-            Log.d(TAG, "Weather sync completed successfully");
-            return Result.success();
+            Log.d(TAG, "Synced " + result.getSucceededCities().size() + "/" + cities.size()
+                + " cities in " + result.getElapsedMillis() + " ms, saved " + result.getSavedCount()
+                + " rows, " + repository.getExecutors().describe()
+                + ", coalesced fetches " + repository.getCoalescedFetchCount()
+                + "/" + repository.getFetchRequestCount());
+            
+            if (!result.hasFailures()) {
+                prefs.edit().remove(pendingKey).apply();
+                if (periodic) {
+                    adaptSyncInterval(repository);
+                }
+                Log.d(TAG, "Weather sync completed successfully");
+                return Result.success();
+            }
+            
+            Log.w(TAG, "Weather sync failed for " + result.getFailedCities());
+            return retryOrFail(prefs, pendingKey, new HashSet<>(result.getFailedCities()));
             
         } catch (Exception e) {
             Log.e(TAG, "Weather sync failed", e);
-            
-            // Retry on failure, but limit retries
-            if (getRunAttemptCount() < 3) {
-                Log.d(TAG, "Retrying weather sync, attempt: " + (getRunAttemptCount() + 1));
-                return Result.retry();
-            } else {
-                Log.e(TAG, "Weather sync failed after 3 attempts, giving up");
-                return Result.failure();
+            return retryOrFail(prefs, pendingKey, null);
+        }
+    }
+
+    // A retry only fetches the cities that failed on the previous attempt
+    private List<String> resolveCities(SharedPreferences prefs, String pendingKey) {
+        if (getRunAttemptCount() > 0) {
+            Set<String> pending = prefs.getStringSet(pendingKey, null);
+            if (pending != null && !pending.isEmpty()) {
+                return new ArrayList<>(pending);
+            }
+        }
+        
+        String[] cities = getInputData().getStringArray(KEY_CITIES);
+        if (cities != null && cities.length > 0) {
+            return Arrays.asList(cities);
+        }
+        String city = getInputData().getString(KEY_CITY);
+        if (city == null || city.isEmpty()) {
+            city = DEFAULT_CITY;
+        }
+        return Arrays.asList(city);
+    }
+
+    private List<String> dropFreshCities(WeatherRepository repository, List<String> cities) {
+        long intervalMinutes = WeatherSyncScheduler.getSyncIntervalMinutes(getApplicationContext());
+        long freshnessMillis = TimeUnit.MINUTES.toMillis(SyncIntervalPolicy.freshnessWindowMinutes(intervalMinutes));
+        long now = System.currentTimeMillis();
+        
+        List<String> due = new ArrayList<>(cities.size());
+        for (String city : cities) {
+            if (now - repository.getLatestReadingTimestamp(city) >= freshnessMillis) {
+                due.add(city);
+            }
+        }
+        return due;
+    }
+
+    // Polls as often as the most volatile tracked city needs
+    private void adaptSyncInterval(WeatherRepository repository) {
+        long now = System.currentTimeMillis();
+        double maxVolatility = Double.NaN;
+        for (String city : WeatherSyncScheduler.getTrackedCities(getApplicationContext())) {
+            List<WeatherEntity> readings = repository.loadWeatherBetween(city, now - VOLATILITY_WINDOW_MS, now);
+            long[] timestamps = new long[readings.size()];
+            double[] temperatures = new double[readings.size()];
+            for (int i = 0; i < readings.size(); i++) {
+                timestamps[i] = readings.get(i).getTimestamp();
+                temperatures[i] = readings.get(i).getTemperature();
+            }
+            double volatility = SyncIntervalPolicy.volatilityPerHour(timestamps, temperatures, readings.size());
+            if (!Double.isNaN(volatility) && (Double.isNaN(maxVolatility) || volatility > maxVolatility)) {
+                maxVolatility = volatility;
+            }
+        }
+        
+        long intervalMinutes = SyncIntervalPolicy.intervalMinutes(maxVolatility);
+        Log.d(TAG, "Recent volatility " + maxVolatility + " F/h, next interval " + intervalMinutes + " minutes");
+        WeatherSyncScheduler.updateSyncInterval(getApplicationContext(), intervalMinutes);
+    }
+
+    // failedCities == null keeps whatever was pending (the whole attempt failed)
+    private Result retryOrFail(SharedPreferences prefs, String pendingKey, Set<String> failedCities) {
+        // Retry on failure, but limit retries
+        if (getRunAttemptCount() < MAX_RETRIES) {
+            if (failedCities != null) {
+                prefs.edit().putStringSet(pendingKey, failedCities).apply();
             }
+            Log.d(TAG, "Retrying weather sync, attempt: " + (getRunAttemptCount() + 1));
+            return Result.retry();
+        } else {
+            prefs.edit().remove(pendingKey).apply();
+            Log.e(TAG, "Weather sync failed after " + MAX_RETRIES + " attempts, giving up");
+            return Result.failure();
         }
     }
 }
@@ -0,0 +1,28 @@
+package com.weathertrack.background;
+
+import androidx.work.ListenableWorker.Result;
+
+import com.weathertrack.data.metrics.MetricsRegistry;
+
+// Records a worker run as "worker.<name>.run" plus an outcome counter.
+// Result's subclasses are library-internal, hence equals (no output data here).
+final class WorkerMetrics {
+    
+    private WorkerMetrics() {
+    }
+
+    static Result record(String worker, long startNanos, Result result) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.recordSince("worker." + worker + ".run", startNanos);
+        String outcome;
+        if (Result.success().equals(result)) {
+            outcome = "success";
+        } else if (Result.retry().equals(result)) {
+            outcome = "retry";
+        } else {
+            outcome = "failure";
+        }
+        metrics.increment("worker." + worker + "." + outcome);
+        return result;
+    }
+}
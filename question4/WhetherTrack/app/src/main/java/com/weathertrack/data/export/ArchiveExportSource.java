@@ -0,0 +1,83 @@
+package com.weathertrack.data.export;
+
+import android.database.Cursor;
+
+import com.weathertrack.data.local.CityDictionary;
+import com.weathertrack.data.local.archive.WeatherSegment;
+import com.weathertrack.data.local.archive.WeatherSegmentCodec;
+import com.weathertrack.domain.model.WeatherCondition;
+
+// Archived readings within [startTime, endTime), decoding one segment at a
+// time off a cursor of (city, data) rows, so at most one month is in memory.
+public class ArchiveExportSource implements ExportSource {
+
+    private final Cursor cursor;
+    private final long startTime;
+    private final long endTime;
+    private WeatherSegment segment;
+    private int cityId;
+    private int index;
+    private int end;
+    // Segment conditions are shared strings, so consecutive rows usually hit this
+    private String lastCondition;
+    private int lastConditionCode;
+
+    public ArchiveExportSource(Cursor cursor, long startTime, long endTime) {
+        this.cursor = cursor;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    @Override
+    public boolean moveToNext() {
+        while (segment == null || ++index >= end) {
+            if (!cursor.moveToNext()) {
+                segment = null;
+                return false;
+            }
+            cityId = CityDictionary.idOf(cursor.getString(0));
+            segment = WeatherSegmentCodec.decode(cursor.getBlob(1));
+            index = segment.lowerBound(startTime);
+            end = segment.lowerBound(endTime);
+            if (index < end) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long getTimestamp() {
+        return segment.getTimestamp(index);
+    }
+
+    @Override
+    public int getCityId() {
+        return cityId;
+    }
+
+    @Override
+    public double getTemperature() {
+        return segment.getTemperature(index);
+    }
+
+    @Override
+    public int getHumidity() {
+        return segment.getHumidity(index);
+    }
+
+    @Override
+    public int getConditionCode() {
+        String condition = segment.getCondition(index);
+        if (condition != lastCondition) {
+            lastCondition = condition;
+            lastConditionCode = WeatherCondition.fromLabel(condition).getCode();
+        }
+        return lastConditionCode;
+    }
+
+    @Override
+    public void close() {
+        cursor.close();
+    }
+}
@@ -0,0 +1,49 @@
+package com.weathertrack.data.export;
+
+import android.database.Cursor;
+
+// Raw weather_records rows straight off a Room cursor. The query must select
+// timestamp, cityId, temperature, humidity, conditionCode in that order.
+public class CursorExportSource implements ExportSource {
+
+    private final Cursor cursor;
+
+    public CursorExportSource(Cursor cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public boolean moveToNext() {
+        return cursor.moveToNext();
+    }
+
+    @Override
+    public long getTimestamp() {
+        return cursor.getLong(0);
+    }
+
+    @Override
+    public int getCityId() {
+        return cursor.getInt(1);
+    }
+
+    @Override
+    public double getTemperature() {
+        return cursor.getDouble(2);
+    }
+
+    @Override
+    public int getHumidity() {
+        return cursor.getInt(3);
+    }
+
+    @Override
+    public int getConditionCode() {
+        return cursor.getInt(4);
+    }
+
+    @Override
+    public void close() {
+        cursor.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.weathertrack.data.local.dao;
+
+import androidx.lifecycle.LiveData;
+
+import com.weathertrack.data.metrics.MetricsRegistry;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+// Wraps a WeatherDao so every blocking call records its latency in a
+// "dao.<method>" histogram. LiveData queries are not timed here: the call only
+// builds them, and they run later on the read lane. Calls a @Transaction method
+// makes internally count toward that method.
+public final class TimedWeatherDao {
+
+    private TimedWeatherDao() {
+    }
+
+    public static WeatherDao wrap(WeatherDao dao, MetricsRegistry metrics) {
+        return (WeatherDao) Proxy.newProxyInstance(WeatherDao.class.getClassLoader(),
+            new Class<?>[] {WeatherDao.class}, (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class
+                        || LiveData.class.isAssignableFrom(method.getReturnType())) {
+                    return invoke(dao, method, args);
+                }
+                long startTime = System.nanoTime();
+                try {
+                    return invoke(dao, method, args);
+                } finally {
+                    metrics.recordSince("dao." + method.getName(), startTime);
+                }
+            });
+    }
+
+    private static Object invoke(WeatherDao dao, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(dao, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
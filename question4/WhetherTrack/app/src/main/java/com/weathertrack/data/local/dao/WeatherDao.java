@@ -1,25 +1,217 @@
 package com.weathertrack.data.local.dao;
 
+import android.database.Cursor;
+
 import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
+import com.weathertrack.data.local.CityDictionary;
+import com.weathertrack.data.local.entity.ArchiveSegmentEntity;
+import com.weathertrack.data.local.entity.CityEntity;
+import com.weathertrack.data.local.entity.DailyRollupEntity;
+import com.weathertrack.data.local.entity.HourlyRollupEntity;
+import com.weathertrack.data.local.entity.IngestCheckpointEntity;
 import com.weathertrack.data.local.entity.WeatherEntity;
+import com.weathertrack.domain.model.QuantileSketch;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Dao
 public interface WeatherDao {
     
+    // Rows refer to cities by id; the name is looked up once per statement
+    String CITY_ID = "(SELECT id FROM cities WHERE name = :city)";
+    
+    // City-scoped queries are served by index_weather_records_cityId_timestamp;
+    // the SQL is shared with the query-plan tests.
+    String LATEST_FOR_CITY =
+        "SELECT * FROM weather_records WHERE cityId = " + CITY_ID + " ORDER BY timestamp DESC LIMIT 1";
+    String CITY_SINCE =
+        "SELECT * FROM weather_records WHERE cityId = " + CITY_ID + " AND timestamp >= :startTime ORDER BY timestamp DESC";
+    String CITY_BETWEEN =
+        "SELECT * FROM weather_records WHERE cityId = " + CITY_ID + " AND timestamp >= :startTime AND timestamp <= :endTime ORDER BY timestamp ASC";
+    
+    // Keyset pagination over (timestamp, id), served by index_weather_records_timestamp
+    // (SQLite appends the rowid to every index entry). Row-value comparisons need
+    // SQLite 3.15, newer than minSdk 24 ships, hence the expanded predicates.
+    String HISTORY_FIRST_PAGE =
+        "SELECT * FROM weather_records ORDER BY timestamp DESC, id DESC LIMIT :limit";
+    String HISTORY_OLDER_THAN =
+        "SELECT * FROM weather_records WHERE timestamp <= :timestamp " +
+        "AND (timestamp < :timestamp OR id < :id) " +
+        "ORDER BY timestamp DESC, id DESC LIMIT :limit";
+    String HISTORY_NEWER_THAN =
+        "SELECT * FROM weather_records WHERE timestamp >= :timestamp " +
+        "AND (timestamp > :timestamp OR id > :id) " +
+        "ORDER BY timestamp ASC, id ASC LIMIT :limit";
+    
+    // Welford's step; SET sees old values, so with n = sampleCount, d = t - mean:
+    // mean += d / (n + 1), M2 += d^2 * n / (n + 1). A null M2 stays null.
+    String WELFORD_UPDATE =
+        "temperatureMean = temperatureMean + (:temperature - temperatureMean) / (sampleCount + 1.0), " +
+        "temperatureM2 = temperatureM2 + (:temperature - temperatureMean) * (:temperature - temperatureMean) " +
+        "* sampleCount / (sampleCount + 1.0), ";
+    
     @Insert
-    void insertWeather(WeatherEntity weather);
+    long insertRecord(WeatherEntity weather);
+    
+    @Insert
+    long[] insertRecords(List<WeatherEntity> weather);
+    
+    // Assigns city ids, adding unseen cities to the table, then inserts. New
+    // cities reach CityDictionary only once the caller's transaction commits.
+    @Transaction
+    default void insertWeather(WeatherEntity weather) {
+        resolveCityId(weather);
+        weather.setId((int) insertRecord(weather));
+    }
+    
+    @Transaction
+    default void insertWeather(List<WeatherEntity> weather) {
+        for (WeatherEntity entity : weather) {
+            resolveCityId(entity);
+        }
+        // Ids are set so written rows can be handed on without re-reading them
+        long[] ids = insertRecords(weather);
+        for (int i = 0; i < ids.length; i++) {
+            weather.get(i).setId((int) ids[i]);
+        }
+    }
+    
+    default void resolveCityId(WeatherEntity weather) {
+        if (weather.getCityId() != CityDictionary.UNRESOLVED) {
+            return;
+        }
+        String name = weather.getCity() != null ? weather.getCity() : "";
+        int id = CityDictionary.idOf(name);
+        if (id == CityDictionary.UNRESOLVED) {
+            // Not published here: a rollback would leave the id behind in the
+            // dictionary, and AUTOINCREMENT could later give it to another city
+            CityEntity city = new CityEntity();
+            city.setName(name);
+            insertCity(city);
+            id = getCityId(name);
+        }
+        weather.setCityId(id);
+    }
+    
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertCity(CityEntity city);
+    
+    @Query("SELECT id FROM cities WHERE name = :name")
+    int getCityId(String name);
+    
+    @Query("SELECT * FROM cities")
+    List<CityEntity> getAllCities();
+    
+    // Inserts the raw row and folds it into the hourly and daily rollups atomically
+    @Transaction
+    default void insertWeatherWithRollups(WeatherEntity weather) {
+        insertWeather(weather);
+        addToRollups(weather);
+        addToDailySketches(Collections.singletonList(weather));
+    }
+    
+    // Batch variant: the whole batch commits in a single transaction
+    @Transaction
+    default void insertAllWithRollups(List<WeatherEntity> weather) {
+        insertWeather(weather);
+        for (WeatherEntity entity : weather) {
+            addToRollups(entity);
+        }
+        addToDailySketches(weather);
+    }
+    
+    // Drains journaled rows: the rows, their rollups and the journal's new
+    // checkpoint commit together
+    @Transaction
+    default void insertJournaled(List<WeatherEntity> weather, String journal, long nextSequence) {
+        insertAllWithRollups(weather);
+        setIngestCheckpoint(new IngestCheckpointEntity(journal, nextSequence));
+    }
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void setIngestCheckpoint(IngestCheckpointEntity checkpoint);
+    
+    @Query("SELECT sequence FROM ingest_checkpoints WHERE journal = :journal")
+    Long getIngestCheckpoint(String journal);
+    
+    default void addToRollups(WeatherEntity weather) {
+        String city = weather.getCity() != null ? weather.getCity() : "";
+        double temperature = weather.getTemperature();
+        int humidity = weather.getHumidity();
+        
+        long hourStart = HourlyRollupEntity.bucketStart(weather.getTimestamp());
+        seedHourlyRollup(city, hourStart, temperature, humidity);
+        accumulateHourlyRollup(city, hourStart, temperature, humidity);
+        
+        long dayStart = DailyRollupEntity.bucketStart(weather.getTimestamp());
+        seedDailyRollup(city, dayStart, temperature, humidity);
+        accumulateDailyRollup(city, dayStart, temperature, humidity);
+    }
+    
+    // Folds readings into their days' stored sketches with one read and one
+    // write per (city, day) rather than per reading. Runs after addToRollups,
+    // so each day row exists and its sampleCount already includes the batch.
+    default void addToDailySketches(List<WeatherEntity> weather) {
+        Map<String, Map<Long, List<WeatherEntity>>> byCityAndDay = new LinkedHashMap<>();
+        for (WeatherEntity entity : weather) {
+            String city = entity.getCity() != null ? entity.getCity() : "";
+            Map<Long, List<WeatherEntity>> byDay = byCityAndDay.get(city);
+            if (byDay == null) {
+                byDay = new LinkedHashMap<>();
+                byCityAndDay.put(city, byDay);
+            }
+            long dayStart = DailyRollupEntity.bucketStart(entity.getTimestamp());
+            List<WeatherEntity> readings = byDay.get(dayStart);
+            if (readings == null) {
+                readings = new ArrayList<>();
+                byDay.put(dayStart, readings);
+            }
+            readings.add(entity);
+        }
+        
+        QuantileSketch temperatures = QuantileSketch.forTemperature();
+        QuantileSketch humidities = QuantileSketch.forHumidity();
+        for (Map.Entry<String, Map<Long, List<WeatherEntity>>> city : byCityAndDay.entrySet()) {
+            for (Map.Entry<Long, List<WeatherEntity>> day : city.getValue().entrySet()) {
+                List<WeatherEntity> readings = day.getValue();
+                DailySketch stored = loadDailySketch(city.getKey(), day.getKey());
+                if (stored == null) {
+                    continue;
+                }
+                temperatures.clear();
+                humidities.clear();
+                if (stored.temperatureSketch != null && stored.humiditySketch != null) {
+                    temperatures.merge(stored.temperatureSketch);
+                    humidities.merge(stored.humiditySketch);
+                } else if (stored.sampleCount != readings.size()) {
+                    // Earlier samples of this day were never sketched; a partial
+                    // sketch would misreport the day, so it stays unknown
+                    continue;
+                }
+                for (int i = 0, size = readings.size(); i < size; i++) {
+                    temperatures.add(readings.get(i).getTemperature());
+                    humidities.add(readings.get(i).getHumidity());
+                }
+                updateDailySketch(city.getKey(), day.getKey(), temperatures.encode(), humidities.encode());
+            }
+        }
+    }
     
     @Query("SELECT * FROM weather_records ORDER BY timestamp DESC LIMIT 1")
     LiveData<WeatherEntity> getLatestWeather();
     
-    @Query("SELECT * FROM weather_records WHERE timestamp >= :startTime ORDER BY timestamp DESC")
-    LiveData<List<WeatherEntity>> getWeatherSince(long startTime);
+    @Query("SELECT * FROM weather_records WHERE timestamp >= :startTime ORDER BY timestamp ASC, id ASC")
+    List<WeatherEntity> loadWeatherSince(long startTime);
     
     @Query("SELECT * FROM weather_records WHERE timestamp >= :startTime AND timestamp <= :endTime ORDER BY timestamp ASC")
     LiveData<List<WeatherEntity>> getWeatherBetween(long startTime, long endTime);
@@ -27,32 +219,200 @@ public interface WeatherDao {
     @Query("SELECT * FROM weather_records ORDER BY timestamp DESC")
     LiveData<List<WeatherEntity>> getAllWeather();
     
-    @Query("DELETE FROM weather_records WHERE timestamp < :cutoffTime")
-    void deleteOldRecords(long cutoffTime);
+    @Query(LATEST_FOR_CITY)
+    LiveData<WeatherEntity> getLatestWeatherForCity(String city);
+    
+    @Query(CITY_SINCE)
+    LiveData<List<WeatherEntity>> getWeatherForCitySince(String city, long startTime);
+    
+    @Query(CITY_BETWEEN)
+    LiveData<List<WeatherEntity>> getWeatherForCityBetween(String city, long startTime, long endTime);
+    
+    // Synchronous variants for background work
+    @Query("SELECT MAX(timestamp) FROM weather_records WHERE cityId = " + CITY_ID)
+    Long getLatestTimestampForCity(String city);
+    
+    @Query(CITY_BETWEEN)
+    List<WeatherEntity> loadWeatherForCityBetween(String city, long startTime, long endTime);
+    
+    @Query(HISTORY_FIRST_PAGE)
+    List<WeatherEntity> getHistoryFirstPage(int limit);
+    
+    @Query(HISTORY_OLDER_THAN)
+    List<WeatherEntity> getHistoryOlderThan(long timestamp, int id, int limit);
+    
+    // Returned oldest first
+    @Query(HISTORY_NEWER_THAN)
+    List<WeatherEntity> getHistoryNewerThan(long timestamp, int id, int limit);
+    
+    // Deletes at most `limit` of the oldest rows before the cutoff, so each
+    // statement holds the write lock only briefly. Returns rows deleted.
+    @Query("DELETE FROM weather_records WHERE id IN " +
+           "(SELECT id FROM weather_records WHERE timestamp < :cutoffTime ORDER BY timestamp LIMIT :limit)")
+    int deleteOldRecords(long cutoffTime, int limit);
+    
+    @Query("DELETE FROM weather_hourly_rollups WHERE rowid IN " +
+           "(SELECT rowid FROM weather_hourly_rollups WHERE bucketStart < :cutoffTime LIMIT :limit)")
+    int deleteOldHourlyRollups(long cutoffTime, int limit);
     
     @Query("SELECT COUNT(*) FROM weather_records")
     int getRecordCount();
     
-    // Get daily averages for the past week
-    @Query("SELECT AVG(temperature) as avgTemp, " +
-           "AVG(humidity) as avgHumidity, " +
-           "DATE(timestamp/1000, 'unixepoch') as date " +
-           "FROM weather_records " +
-           "WHERE timestamp >= :weekAgo " +
-           "GROUP BY DATE(timestamp/1000, 'unixepoch') " +
-           "ORDER BY date ASC")
-    LiveData<List<DailyWeatherSummary>> getDailyAveragesForWeek(long weekAgo);
-    
-    // Inner class for daily summary
-    class DailyWeatherSummary {
-        public double avgTemp;
-        public double avgHumidity;
-        public String date;
+    // Archive segments: closed months moved out of weather_records
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertArchiveSegment(ArchiveSegmentEntity segment);
+    
+    @Query("SELECT * FROM weather_archive_segments WHERE city = :city AND segmentStart = :segmentStart")
+    ArchiveSegmentEntity getArchiveSegment(String city, long segmentStart);
+    
+    @Query("SELECT * FROM weather_archive_segments WHERE city = :city " +
+           "AND lastTimestamp >= :startTime AND firstTimestamp <= :endTime ORDER BY segmentStart ASC")
+    List<ArchiveSegmentEntity> loadArchiveSegments(String city, long startTime, long endTime);
+    
+    // Export streams these cursors row by row; the caller closes them.
+    // Column order is what CursorExportSource and ArchiveExportSource read.
+    @Query("SELECT timestamp, cityId, temperature, humidity, conditionCode FROM weather_records " +
+           "WHERE timestamp >= :startTime AND timestamp < :endTime ORDER BY timestamp ASC, id ASC")
+    Cursor exportWeatherBetween(long startTime, long endTime);
+
+    @Query("SELECT timestamp, cityId, temperature, humidity, conditionCode FROM weather_records " +
+           "WHERE cityId = " + CITY_ID + " AND timestamp >= :startTime AND timestamp < :endTime ORDER BY timestamp ASC, id ASC")
+    Cursor exportWeatherForCityBetween(String city, long startTime, long endTime);
+
+    @Query("SELECT city, data FROM weather_archive_segments " +
+           "WHERE lastTimestamp >= :startTime AND firstTimestamp < :endTime ORDER BY segmentStart ASC, city ASC")
+    Cursor exportArchiveSegmentsBetween(long startTime, long endTime);
+
+    @Query("SELECT city, data FROM weather_archive_segments " +
+           "WHERE city = :city AND lastTimestamp >= :startTime AND firstTimestamp < :endTime ORDER BY segmentStart ASC")
+    Cursor exportArchiveSegmentsForCityBetween(String city, long startTime, long endTime);
+
+    @Query("SELECT COUNT(*) FROM weather_records WHERE timestamp >= :startTime AND timestamp < :endTime")
+    long countWeatherBetween(long startTime, long endTime);
+
+    @Query("SELECT COUNT(*) FROM weather_records " +
+           "WHERE cityId = " + CITY_ID + " AND timestamp >= :startTime AND timestamp < :endTime")
+    long countWeatherForCityBetween(String city, long startTime, long endTime);
+
+    // Whole segments, so an upper bound when the range cuts a month
+    @Query("SELECT COALESCE(SUM(sampleCount), 0) FROM weather_archive_segments " +
+           "WHERE lastTimestamp >= :startTime AND firstTimestamp < :endTime AND (:city IS NULL OR city = :city)")
+    long countArchivedBetween(String city, long startTime, long endTime);
+
+    @Query("SELECT name FROM cities WHERE id IN (SELECT cityId FROM weather_records WHERE timestamp < :before)")
+    List<String> getCitiesWithRecordsBefore(long before);
+    
+    @Query("SELECT MIN(timestamp) FROM weather_records WHERE cityId = " + CITY_ID)
+    Long getOldestTimestampForCity(String city);
+    
+    @Query("DELETE FROM weather_records WHERE cityId = " + CITY_ID + " AND timestamp >= :startTime AND timestamp < :endTime")
+    int deleteWeatherForCityBetween(String city, long startTime, long endTime);
+    
+    // Swaps a month's raw rows for its (re-)encoded segment in one transaction
+    @Transaction
+    default int replaceWithArchiveSegment(ArchiveSegmentEntity segment) {
+        insertArchiveSegment(segment);
+        return deleteWeatherForCityBetween(segment.getCity(), segment.getSegmentStart(), segment.getSegmentEnd());
+    }
+    
+    // Rollup maintenance. SQLite on minSdk 24 has no UPSERT, so each bucket is
+    // seeded with an empty row first and then accumulated into.
+    @Query("INSERT OR IGNORE INTO weather_hourly_rollups " +
+           "(city, bucketStart, sampleCount, temperatureSum, temperatureMin, temperatureMax, " +
+           "temperatureMean, temperatureM2, humiditySum, humidityMin, humidityMax) " +
+           "VALUES (:city, :bucketStart, 0, 0, :temperature, :temperature, 0, 0, 0, :humidity, :humidity)")
+    void seedHourlyRollup(String city, long bucketStart, double temperature, int humidity);
+    
+    @Query("UPDATE weather_hourly_rollups SET " +
+           "sampleCount = sampleCount + 1, " +
+           "temperatureSum = temperatureSum + :temperature, " +
+           WELFORD_UPDATE +
+           "temperatureMin = MIN(temperatureMin, :temperature), " +
+           "temperatureMax = MAX(temperatureMax, :temperature), " +
+           "humiditySum = humiditySum + :humidity, " +
+           "humidityMin = MIN(humidityMin, :humidity), " +
+           "humidityMax = MAX(humidityMax, :humidity) " +
+           "WHERE city = :city AND bucketStart = :bucketStart")
+    void accumulateHourlyRollup(String city, long bucketStart, double temperature, int humidity);
+    
+    @Query("INSERT OR IGNORE INTO weather_daily_rollups " +
+           "(city, bucketStart, sampleCount, temperatureSum, temperatureMin, temperatureMax, " +
+           "temperatureMean, temperatureM2, humiditySum, humidityMin, humidityMax) " +
+           "VALUES (:city, :bucketStart, 0, 0, :temperature, :temperature, 0, 0, 0, :humidity, :humidity)")
+    void seedDailyRollup(String city, long bucketStart, double temperature, int humidity);
+    
+    @Query("UPDATE weather_daily_rollups SET " +
+           "sampleCount = sampleCount + 1, " +
+           "temperatureSum = temperatureSum + :temperature, " +
+           WELFORD_UPDATE +
+           "temperatureMin = MIN(temperatureMin, :temperature), " +
+           "temperatureMax = MAX(temperatureMax, :temperature), " +
+           "humiditySum = humiditySum + :humidity, " +
+           "humidityMin = MIN(humidityMin, :humidity), " +
+           "humidityMax = MAX(humidityMax, :humidity) " +
+           "WHERE city = :city AND bucketStart = :bucketStart")
+    void accumulateDailyRollup(String city, long bucketStart, double temperature, int humidity);
+    
+    // Per-city day buckets from startTime on, for summaries that merge cities in code
+    @Query("SELECT * FROM weather_daily_rollups WHERE bucketStart >= :startTime ORDER BY bucketStart ASC")
+    LiveData<List<DailyRollupEntity>> getDailyRollupsSince(long startTime);
+    
+    @Query("SELECT * FROM weather_hourly_rollups WHERE bucketStart >= :startTime ORDER BY bucketStart ASC")
+    LiveData<List<HourlyRollupEntity>> getHourlyRollupsSince(long startTime);
+    
+    // One primary-key read, whatever the day's sample count
+    @Query("SELECT * FROM weather_daily_rollups WHERE city = :city AND bucketStart = :bucketStart")
+    DailyRollupEntity loadDailyRollup(String city, long bucketStart);
+    
+    @Query("SELECT bucketStart, sampleCount, temperatureSketch, humiditySketch FROM weather_daily_rollups " +
+           "WHERE city = :city AND bucketStart = :bucketStart")
+    DailySketch loadDailySketch(String city, long bucketStart);
+    
+    @Query("UPDATE weather_daily_rollups SET temperatureSketch = :temperatureSketch, humiditySketch = :humiditySketch " +
+           "WHERE city = :city AND bucketStart = :bucketStart")
+    void updateDailySketch(String city, long bucketStart, byte[] temperatureSketch, byte[] humiditySketch);
+    
+    // Every city's sketches per day from startTime on, for percentile bands.
+    // Only the few hundred bytes per city-day are read, whatever the sample count.
+    @Query("SELECT bucketStart, sampleCount, temperatureSketch, humiditySketch FROM weather_daily_rollups " +
+           "WHERE bucketStart >= :startTime ORDER BY bucketStart ASC")
+    LiveData<List<DailySketch>> getDailySketchesSince(long startTime);
+    
+    // One averaged point per hour across cities, read from the hourly rollups
+    @Query("SELECT bucketStart AS time, SUM(temperatureSum) / SUM(sampleCount) AS temperature " +
+           "FROM weather_hourly_rollups WHERE bucketStart >= :startTime " +
+           "GROUP BY bucketStart ORDER BY bucketStart ASC")
+    LiveData<List<TemperaturePoint>> getHourlyTemperaturesSince(long startTime);
+    
+    // One averaged point per day across cities, read from the daily rollups
+    @Query("SELECT bucketStart AS time, SUM(temperatureSum) / SUM(sampleCount) AS temperature " +
+           "FROM weather_daily_rollups WHERE bucketStart >= :startTime " +
+           "GROUP BY bucketStart ORDER BY bucketStart ASC")
+    LiveData<List<TemperaturePoint>> getDailyTemperaturesSince(long startTime);
+    
+    // A day's encoded QuantileSketches; either may be null for days that predate them
+    class DailySketch {
+        public long bucketStart;
+        public int sampleCount;
+        public byte[] temperatureSketch;
+        public byte[] humiditySketch;
+        
+        public DailySketch(long bucketStart, int sampleCount, byte[] temperatureSketch, byte[] humiditySketch) {
+            this.bucketStart = bucketStart;
+            this.sampleCount = sampleCount;
+            this.temperatureSketch = temperatureSketch;
+            this.humiditySketch = humiditySketch;
+        }
+    }
+    
+    // A single (time, temperature) chart point
+    class TemperaturePoint {
+        public long time;
+        public double temperature;
         
-        public DailyWeatherSummary(double avgTemp, double avgHumidity, String date) {
-            this.avgTemp = avgTemp;
-            this.avgHumidity = avgHumidity;
-            this.date = date;
+        public TemperaturePoint(long time, double temperature) {
+            this.time = time;
+            this.temperature = temperature;
         }
     }
 }
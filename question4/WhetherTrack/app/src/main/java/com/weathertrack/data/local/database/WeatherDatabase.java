@@ -1,23 +1,223 @@
 package com.weathertrack.data.local.database;
 
 import android.content.Context;
+import android.database.Cursor;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
+import com.weathertrack.data.executor.AppExecutors;
+import com.weathertrack.data.local.CityDictionary;
+import com.weathertrack.data.local.archive.WeatherSegment;
+import com.weathertrack.data.local.archive.WeatherSegmentCodec;
 import com.weathertrack.data.local.dao.WeatherDao;
+import com.weathertrack.data.local.entity.ArchiveSegmentEntity;
+import com.weathertrack.data.local.entity.CityEntity;
+import com.weathertrack.data.local.entity.DailyRollupEntity;
+import com.weathertrack.data.local.entity.HourlyRollupEntity;
+import com.weathertrack.data.local.entity.IngestCheckpointEntity;
 import com.weathertrack.data.local.entity.WeatherEntity;
+import com.weathertrack.data.metrics.MetricsRegistry;
+import com.weathertrack.domain.model.QuantileSketch;
+import com.weathertrack.domain.model.RunningStats;
+import com.weathertrack.domain.model.WeatherCondition;
+
+import java.util.List;
+import java.util.Locale;
 
 @Database(
-    entities = {WeatherEntity.class},
-    version = 1,
+    entities = {
+        WeatherEntity.class, CityEntity.class, HourlyRollupEntity.class,
+        DailyRollupEntity.class, ArchiveSegmentEntity.class, IngestCheckpointEntity.class
+    },
+    version = 9,
     exportSchema = false
 )
 public abstract class WeatherDatabase extends RoomDatabase {
     
     private static volatile WeatherDatabase INSTANCE;
     
+    // Adds the hourly/daily rollup tables and backfills them from existing rows
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            createRollupTable(db, "weather_hourly_rollups");
+            createRollupTable(db, "weather_daily_rollups");
+            backfillRollupTable(db, "weather_hourly_rollups", HourlyRollupEntity.BUCKET_MILLIS);
+            backfillRollupTable(db, "weather_daily_rollups", DailyRollupEntity.BUCKET_MILLIS);
+        }
+    };
+    
+    // Adds the (city, timestamp) index behind the city-scoped DAO queries
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_weather_records_city_timestamp` " +
+                "ON `weather_records` (`city`, `timestamp`)");
+        }
+    };
+    
+    // Adds the timestamp index used for keyset-paginated history
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_weather_records_timestamp` " +
+                "ON `weather_records` (`timestamp`)");
+        }
+    };
+    
+    // Adds the table holding delta-encoded monthly archive segments
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `weather_archive_segments` (" +
+                "`city` TEXT NOT NULL, " +
+                "`segmentStart` INTEGER NOT NULL, " +
+                "`segmentEnd` INTEGER NOT NULL, " +
+                "`firstTimestamp` INTEGER NOT NULL, " +
+                "`lastTimestamp` INTEGER NOT NULL, " +
+                "`sampleCount` INTEGER NOT NULL, " +
+                "`data` BLOB NOT NULL, " +
+                "PRIMARY KEY(`city`, `segmentStart`))");
+        }
+    };
+    
+    // Replaces weather_records' city and condition TEXT columns with a cityId
+    // into the new cities table and a WeatherCondition code
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `cities` (" +
+                "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                "`name` TEXT NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_cities_name` ON `cities` (`name`)");
+            db.execSQL("INSERT OR IGNORE INTO cities (name) " +
+                "SELECT DISTINCT COALESCE(city, '') FROM weather_records");
+            
+            db.execSQL("CREATE TABLE IF NOT EXISTS `weather_records_new` (" +
+                "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                "`temperature` REAL NOT NULL, " +
+                "`humidity` INTEGER NOT NULL, " +
+                "`conditionCode` INTEGER NOT NULL, " +
+                "`timestamp` INTEGER NOT NULL, " +
+                "`cityId` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO weather_records_new " +
+                "(id, temperature, humidity, conditionCode, timestamp, cityId) " +
+                "SELECT r.id, r.temperature, r.humidity, " + conditionCodeCase("r.condition") + ", " +
+                "r.timestamp, c.id " +
+                "FROM weather_records r JOIN cities c ON c.name = COALESCE(r.city, '')");
+            db.execSQL("DROP TABLE weather_records");
+            db.execSQL("ALTER TABLE weather_records_new RENAME TO weather_records");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_weather_records_cityId_timestamp` " +
+                "ON `weather_records` (`cityId`, `timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_weather_records_timestamp` " +
+                "ON `weather_records` (`timestamp`)");
+        }
+    };
+    
+    // Adds Welford mean/M2 columns and backfills M2 from raw rows and archive
+    // segments merged in (city, time) order; incomplete buckets keep a null M2.
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            addWelfordColumns(db, "weather_hourly_rollups");
+            addWelfordColumns(db, "weather_daily_rollups");
+            
+            WelfordBackfill hourly = new WelfordBackfill(db, "weather_hourly_rollups", HourlyRollupEntity.BUCKET_MILLIS);
+            WelfordBackfill daily = new WelfordBackfill(db, "weather_daily_rollups", DailyRollupEntity.BUCKET_MILLIS);
+            try (Cursor raw = db.query("SELECT c.name, r.timestamp, r.temperature " +
+                    "FROM weather_records r JOIN cities c ON c.id = r.cityId ORDER BY c.name, r.timestamp");
+                 Cursor segments = db.query("SELECT city, data FROM weather_archive_segments " +
+                    "ORDER BY city, segmentStart")) {
+                ArchivedReadings archived = new ArchivedReadings(segments);
+                boolean hasRaw = raw.moveToNext();
+                boolean hasArchived = archived.moveToNext();
+                while (hasRaw || hasArchived) {
+                    boolean takeRaw = hasRaw && (!hasArchived
+                        || compareReadings(raw.getString(0), raw.getLong(1), archived.city, archived.timestamp) <= 0);
+                    if (takeRaw) {
+                        hourly.add(raw.getString(0), raw.getLong(1), raw.getDouble(2));
+                        daily.add(raw.getString(0), raw.getLong(1), raw.getDouble(2));
+                        hasRaw = raw.moveToNext();
+                    } else {
+                        hourly.add(archived.city, archived.timestamp, archived.temperature);
+                        daily.add(archived.city, archived.timestamp, archived.temperature);
+                        hasArchived = archived.moveToNext();
+                    }
+                }
+            }
+            hourly.flush();
+            daily.flush();
+        }
+    };
+    
+    // Adds per-day quantile sketch columns and builds them from raw rows and
+    // archive segments. As with M2, a day is only sketched when every one of
+    // its samples is still available; the others stay null.
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `weather_daily_rollups` ADD COLUMN `temperatureSketch` BLOB");
+            db.execSQL("ALTER TABLE `weather_daily_rollups` ADD COLUMN `humiditySketch` BLOB");
+            
+            SketchBackfill backfill = new SketchBackfill(db);
+            try (Cursor cursor = db.query("SELECT c.name, r.timestamp, r.temperature, r.humidity " +
+                    "FROM weather_records r JOIN cities c ON c.id = r.cityId ORDER BY r.cityId, r.timestamp")) {
+                while (cursor.moveToNext()) {
+                    backfill.add(cursor.getString(0), cursor.getLong(1), cursor.getDouble(2), cursor.getInt(3));
+                }
+            }
+            backfill.flush();
+            try (Cursor cursor = db.query("SELECT city, data FROM weather_archive_segments ORDER BY city, segmentStart")) {
+                while (cursor.moveToNext()) {
+                    String city = cursor.getString(0);
+                    WeatherSegment segment = WeatherSegmentCodec.decode(cursor.getBlob(1));
+                    for (int i = 0; i < segment.size(); i++) {
+                        backfill.add(city, segment.getTimestamp(i), segment.getTemperature(i), segment.getHumidity(i));
+                    }
+                }
+            }
+            backfill.flush();
+        }
+    };
+    
+    // Adds the table recording how far the ingest journal has been drained
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `ingest_checkpoints` (" +
+                "`journal` TEXT NOT NULL, " +
+                "`sequence` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`journal`))");
+        }
+    };
+    
+    // Mirrors the cities table into CityDictionary whenever a database opens
+    public static final RoomDatabase.Callback LOAD_CITY_DICTIONARY = new RoomDatabase.Callback() {
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            CityDictionary.clear();
+            try (Cursor cursor = db.query("SELECT id, name FROM cities")) {
+                while (cursor.moveToNext()) {
+                    CityDictionary.put(cursor.getInt(0), cursor.getString(1));
+                }
+            }
+        }
+    };
+    
+    // Counts every statement Room issues by kind. Timing is recorded per task
+    // by the executor lanes, since Room reports statements before they run.
+    static final RoomDatabase.QueryCallback COUNT_STATEMENTS = new RoomDatabase.QueryCallback() {
+        @Override
+        public void onQuery(@NonNull String sqlQuery, @NonNull List<Object> bindArgs) {
+            MetricsRegistry.getInstance().increment(statementCounter(sqlQuery));
+        }
+    };
+    
     public abstract WeatherDao weatherDao();
     
     public static WeatherDatabase getDatabase(final Context context) {
@@ -28,10 +228,192 @@ public abstract class WeatherDatabase extends RoomDatabase {
                             context.getApplicationContext(),
                             WeatherDatabase.class,
                             "weather_database"
-                    ).build();
+                    )
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6,
+                        MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9)
+                    .addCallback(LOAD_CITY_DICTIONARY)
+                    // LiveData queries share the app's bounded read lane
+                    .setQueryExecutor(AppExecutors.getInstance().dbRead())
+                    // Counting is cheap enough to run inline on the querying thread
+                    .setQueryCallback(COUNT_STATEMENTS, Runnable::run)
+                    .build();
                 }
             }
         }
         return INSTANCE;
     }
+    
+    private static void createRollupTable(SupportSQLiteDatabase db, String table) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS `" + table + "` (" +
+            "`city` TEXT NOT NULL, " +
+            "`bucketStart` INTEGER NOT NULL, " +
+            "`sampleCount` INTEGER NOT NULL, " +
+            "`temperatureSum` REAL NOT NULL, " +
+            "`temperatureMin` REAL NOT NULL, " +
+            "`temperatureMax` REAL NOT NULL, " +
+            "`humiditySum` INTEGER NOT NULL, " +
+            "`humidityMin` INTEGER NOT NULL, " +
+            "`humidityMax` INTEGER NOT NULL, " +
+            "PRIMARY KEY(`city`, `bucketStart`))");
+    }
+    
+    private static void backfillRollupTable(SupportSQLiteDatabase db, String table, long bucketMillis) {
+        db.execSQL("INSERT INTO `" + table + "` " +
+            "(city, bucketStart, sampleCount, temperatureSum, temperatureMin, temperatureMax, " +
+            "humiditySum, humidityMin, humidityMax) " +
+            "SELECT COALESCE(city, ''), timestamp - (timestamp % " + bucketMillis + "), " +
+            "COUNT(*), SUM(temperature), MIN(temperature), MAX(temperature), " +
+            "SUM(humidity), MIN(humidity), MAX(humidity) " +
+            "FROM weather_records " +
+            "GROUP BY 1, 2");
+    }
+    
+    private static void addWelfordColumns(SupportSQLiteDatabase db, String table) {
+        db.execSQL("ALTER TABLE `" + table + "` ADD COLUMN `temperatureMean` REAL NOT NULL DEFAULT 0");
+        db.execSQL("ALTER TABLE `" + table + "` ADD COLUMN `temperatureM2` REAL");
+        db.execSQL("UPDATE `" + table + "` SET temperatureMean = temperatureSum / sampleCount " +
+            "WHERE sampleCount > 0");
+    }
+    
+    // If the two orders ever disagree (e.g. names SQLite and Java sort apart),
+    // a bucket is seen in pieces and the sampleCount check leaves its M2 null
+    private static int compareReadings(String city, long timestamp, String otherCity, long otherTimestamp) {
+        int byCity = city.compareTo(otherCity);
+        return byCity != 0 ? byCity : Long.compare(timestamp, otherTimestamp);
+    }
+    
+    // Readings of the archive segments in cursor order, one segment decoded at a time
+    private static final class ArchivedReadings {
+        private final Cursor segments;
+        private WeatherSegment segment;
+        private int index;
+        String city;
+        long timestamp;
+        double temperature;
+        
+        ArchivedReadings(Cursor segments) {
+            this.segments = segments;
+        }
+        
+        boolean moveToNext() {
+            while (segment == null || index >= segment.size()) {
+                if (!segments.moveToNext()) {
+                    return false;
+                }
+                city = segments.getString(0);
+                segment = WeatherSegmentCodec.decode(segments.getBlob(1));
+                index = 0;
+            }
+            timestamp = segment.getTimestamp(index);
+            temperature = segment.getTemperature(index);
+            index++;
+            return true;
+        }
+    }
+    
+    // Welford's M2 for one (city, bucket) at a time from readings ordered by
+    // city then time; written only where it covers every sample of the bucket
+    private static final class WelfordBackfill {
+        private final SupportSQLiteDatabase db;
+        private final String table;
+        private final long bucketMillis;
+        private RunningStats stats = new RunningStats();
+        private String city;
+        private long bucketStart;
+        
+        WelfordBackfill(SupportSQLiteDatabase db, String table, long bucketMillis) {
+            this.db = db;
+            this.table = table;
+            this.bucketMillis = bucketMillis;
+        }
+        
+        void add(String city, long timestamp, double temperature) {
+            long bucket = timestamp - Math.floorMod(timestamp, bucketMillis);
+            if (!city.equals(this.city) || bucket != bucketStart) {
+                flush();
+                this.city = city;
+                this.bucketStart = bucket;
+            }
+            stats.add(temperature);
+        }
+        
+        void flush() {
+            if (stats.getCount() == 0) {
+                return;
+            }
+            db.execSQL("UPDATE `" + table + "` SET temperatureM2 = ? " +
+                "WHERE city = ? AND bucketStart = ? AND sampleCount = ?",
+                new Object[] {stats.getM2(), city, bucketStart, stats.getCount()});
+            stats = new RunningStats();
+        }
+    }
+    
+    // Sketches one (city, day) at a time from readings ordered by city then time,
+    // so only two sketches are held however much history is migrated
+    private static final class SketchBackfill {
+        private final SupportSQLiteDatabase db;
+        private final QuantileSketch temperatures = QuantileSketch.forTemperature();
+        private final QuantileSketch humidities = QuantileSketch.forHumidity();
+        private String city;
+        private long dayStart;
+        
+        SketchBackfill(SupportSQLiteDatabase db) {
+            this.db = db;
+        }
+        
+        void add(String city, long timestamp, double temperature, int humidity) {
+            long day = DailyRollupEntity.bucketStart(timestamp);
+            if (!city.equals(this.city) || day != dayStart) {
+                flush();
+                this.city = city;
+                this.dayStart = day;
+            }
+            temperatures.add(temperature);
+            humidities.add(humidity);
+        }
+        
+        void flush() {
+            if (temperatures.isEmpty()) {
+                return;
+            }
+            db.execSQL("UPDATE weather_daily_rollups SET temperatureSketch = ?, humiditySketch = ? " +
+                "WHERE city = ? AND bucketStart = ? AND sampleCount = ?",
+                new Object[] {temperatures.encode(), humidities.encode(), city, dayStart, temperatures.getCount()});
+            temperatures.clear();
+            humidities.clear();
+        }
+    }
+    
+    private static String conditionCodeCase(String column) {
+        StringBuilder sql = new StringBuilder("CASE LOWER(TRIM(").append(column).append("))");
+        for (WeatherCondition condition : WeatherCondition.values()) {
+            if (condition != WeatherCondition.UNKNOWN) {
+                sql.append(" WHEN '").append(condition.getLabel().toLowerCase(Locale.ROOT))
+                    .append("' THEN ").append(condition.getCode());
+            }
+        }
+        return sql.append(" ELSE ").append(WeatherCondition.UNKNOWN.getCode()).append(" END").toString();
+    }
+    
+    static String statementCounter(String sql) {
+        int start = 0;
+        while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        if (sql.regionMatches(true, start, "SELECT", 0, 6)) {
+            return "db.statement.select";
+        } else if (sql.regionMatches(true, start, "INSERT", 0, 6)) {
+            return "db.statement.insert";
+        } else if (sql.regionMatches(true, start, "UPDATE", 0, 6)) {
+            return "db.statement.update";
+        } else if (sql.regionMatches(true, start, "DELETE", 0, 6)) {
+            return "db.statement.delete";
+        } else if (sql.regionMatches(true, start, "BEGIN", 0, 5)
+                || sql.regionMatches(true, start, "END", 0, 3)
+                || sql.regionMatches(true, start, "COMMIT", 0, 6)
+                || sql.regionMatches(true, start, "ROLLBACK", 0, 8)) {
+            return "db.statement.transaction";
+        }
+        return "db.statement.other";
+    }
 }
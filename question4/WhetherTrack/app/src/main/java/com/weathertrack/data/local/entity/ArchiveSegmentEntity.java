@@ -0,0 +1,103 @@
+package com.weathertrack.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+// One closed calendar month (UTC) of a city's readings, packed by
+// WeatherSegmentCodec. Raw rows move here once the month is archived.
+@Entity(tableName = "weather_archive_segments", primaryKeys = {"city", "segmentStart"})
+public class ArchiveSegmentEntity {
+    @NonNull
+    private String city = "";
+    
+    private long segmentStart;
+    private long segmentEnd;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private int sampleCount;
+    
+    @NonNull
+    private byte[] data = new byte[0];
+
+    // Start of the UTC month containing the timestamp
+    public static long segmentStart(long timestamp) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(timestamp);
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    // Exclusive end of the month starting at segmentStart
+    public static long segmentEnd(long segmentStart) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(segmentStart);
+        calendar.add(Calendar.MONTH, 1);
+        return calendar.getTimeInMillis();
+    }
+
+    // Getters and Setters
+    @NonNull
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(@NonNull String city) {
+        this.city = city;
+    }
+
+    public long getSegmentStart() {
+        return segmentStart;
+    }
+
+    public void setSegmentStart(long segmentStart) {
+        this.segmentStart = segmentStart;
+    }
+
+    public long getSegmentEnd() {
+        return segmentEnd;
+    }
+
+    public void setSegmentEnd(long segmentEnd) {
+        this.segmentEnd = segmentEnd;
+    }
+
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public void setFirstTimestamp(long firstTimestamp) {
+        this.firstTimestamp = firstTimestamp;
+    }
+
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public void setLastTimestamp(long lastTimestamp) {
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(int sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    @NonNull
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(@NonNull byte[] data) {
+        this.data = data;
+    }
+}
@@ -0,0 +1,39 @@
+package com.weathertrack.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// Dictionary of tracked city names; weather_records refers to rows by id
+@Entity(
+    tableName = "cities",
+    indices = {
+        @Index(value = {"name"}, unique = true)
+    }
+)
+public class CityEntity {
+    @PrimaryKey(autoGenerate = true)
+    private int id;
+    
+    @NonNull
+    private String name = "";
+
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public void setName(@NonNull String name) {
+        this.name = name;
+    }
+}
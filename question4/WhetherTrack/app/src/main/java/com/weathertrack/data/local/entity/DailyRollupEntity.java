@@ -0,0 +1,40 @@
+package com.weathertrack.data.local.entity;
+
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+
+// Day buckets are UTC, matching the DATE(timestamp/1000, 'unixepoch') grouping
+// the weekly summary used before rollups existed. Each day also keeps encoded
+// QuantileSketches of its temperatures and humidities for percentile queries.
+@Entity(tableName = "weather_daily_rollups", primaryKeys = {"city", "bucketStart"})
+public class DailyRollupEntity extends RollupEntity {
+    public static final long BUCKET_MILLIS = 24L * 60 * 60 * 1000;
+
+    // Null for days whose raw rows were gone before sketches were kept
+    @Nullable
+    private byte[] temperatureSketch;
+    @Nullable
+    private byte[] humiditySketch;
+
+    public static long bucketStart(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, BUCKET_MILLIS);
+    }
+
+    @Nullable
+    public byte[] getTemperatureSketch() {
+        return temperatureSketch;
+    }
+
+    public void setTemperatureSketch(@Nullable byte[] temperatureSketch) {
+        this.temperatureSketch = temperatureSketch;
+    }
+
+    @Nullable
+    public byte[] getHumiditySketch() {
+        return humiditySketch;
+    }
+
+    public void setHumiditySketch(@Nullable byte[] humiditySketch) {
+        this.humiditySketch = humiditySketch;
+    }
+}
@@ -0,0 +1,12 @@
+package com.weathertrack.data.local.entity;
+
+import androidx.room.Entity;
+
+@Entity(tableName = "weather_hourly_rollups", primaryKeys = {"city", "bucketStart"})
+public class HourlyRollupEntity extends RollupEntity {
+    public static final long BUCKET_MILLIS = 60L * 60 * 1000;
+
+    public static long bucketStart(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, BUCKET_MILLIS);
+    }
+}
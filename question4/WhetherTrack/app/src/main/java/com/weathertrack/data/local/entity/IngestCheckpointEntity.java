@@ -0,0 +1,44 @@
+package com.weathertrack.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+// The first journal sequence not yet stored in weather_records. Written in the
+// same transaction as the rows drained from the journal, so a replay after a
+// kill between commit and journal checkpoint cannot insert them twice.
+@Entity(tableName = "ingest_checkpoints")
+public class IngestCheckpointEntity {
+    @PrimaryKey
+    @NonNull
+    private String journal = "";
+    
+    private long sequence;
+
+    public IngestCheckpointEntity() {}
+
+    @Ignore
+    public IngestCheckpointEntity(@NonNull String journal, long sequence) {
+        this.journal = journal;
+        this.sequence = sequence;
+    }
+
+    // Getters and Setters
+    @NonNull
+    public String getJournal() {
+        return journal;
+    }
+
+    public void setJournal(@NonNull String journal) {
+        this.journal = journal;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+}
@@ -0,0 +1,124 @@
+package com.weathertrack.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+
+import com.weathertrack.domain.model.RunningStats;
+
+// Shared columns of the rollup tables, keyed by (city, bucketStart) and
+// updated with each raw insert, including Welford's mean and M2.
+public abstract class RollupEntity {
+    @NonNull
+    private String city = "";
+    
+    private long bucketStart;
+    private int sampleCount;
+    private double temperatureSum;
+    private double temperatureMin;
+    private double temperatureMax;
+    @ColumnInfo(defaultValue = "0")
+    private double temperatureMean;
+    // Null for buckets whose raw rows were gone before M2 was tracked
+    @Nullable
+    private Double temperatureM2;
+    private long humiditySum;
+    private int humidityMin;
+    private int humidityMax;
+
+    // Getters and Setters
+    @NonNull
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(@NonNull String city) {
+        this.city = city;
+    }
+
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(long bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(int sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    public double getTemperatureSum() {
+        return temperatureSum;
+    }
+
+    public void setTemperatureSum(double temperatureSum) {
+        this.temperatureSum = temperatureSum;
+    }
+
+    public double getTemperatureMin() {
+        return temperatureMin;
+    }
+
+    public void setTemperatureMin(double temperatureMin) {
+        this.temperatureMin = temperatureMin;
+    }
+
+    public double getTemperatureMax() {
+        return temperatureMax;
+    }
+
+    public void setTemperatureMax(double temperatureMax) {
+        this.temperatureMax = temperatureMax;
+    }
+
+    public double getTemperatureMean() {
+        return temperatureMean;
+    }
+
+    public void setTemperatureMean(double temperatureMean) {
+        this.temperatureMean = temperatureMean;
+    }
+
+    @Nullable
+    public Double getTemperatureM2() {
+        return temperatureM2;
+    }
+
+    public void setTemperatureM2(@Nullable Double temperatureM2) {
+        this.temperatureM2 = temperatureM2;
+    }
+
+    public RunningStats toTemperatureStats() {
+        return RunningStats.of(sampleCount, temperatureMean,
+            temperatureM2 != null ? temperatureM2 : Double.NaN, temperatureMin, temperatureMax);
+    }
+
+    public long getHumiditySum() {
+        return humiditySum;
+    }
+
+    public void setHumiditySum(long humiditySum) {
+        this.humiditySum = humiditySum;
+    }
+
+    public int getHumidityMin() {
+        return humidityMin;
+    }
+
+    public void setHumidityMin(int humidityMin) {
+        this.humidityMin = humidityMin;
+    }
+
+    public int getHumidityMax() {
+        return humidityMax;
+    }
+
+    public void setHumidityMax(int humidityMax) {
+        this.humidityMax = humidityMax;
+    }
+}
@@ -2,17 +2,34 @@ package com.weathertrack.data.local.entity;
 
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "weather_records")
+import com.weathertrack.data.local.CityDictionary;
+import com.weathertrack.domain.model.WeatherCondition;
+
+// City and condition are stored as small integer codes. getCity() and
+// getCondition() resolve them to shared strings, so reading rows allocates
+// no per-row text.
+@Entity(
+    tableName = "weather_records",
+    indices = {
+        @Index(value = {"cityId", "timestamp"}),
+        @Index(value = {"timestamp"})
+    }
+)
 public class WeatherEntity {
     @PrimaryKey(autoGenerate = true)
     private int id;
     
     private double temperature;
     private int humidity;
-    private String condition;
+    private int conditionCode;
     private long timestamp;
+    private int cityId;
+    
+    // Name for rows not yet stored; cityId is assigned on insert
+    @Ignore
     private String city;
 
     public WeatherEntity() {}
@@ -21,7 +38,7 @@ public class WeatherEntity {
     public WeatherEntity(double temperature, int humidity, String condition, long timestamp, String city) {
         this.temperature = temperature;
         this.humidity = humidity;
-        this.condition = condition;
+        this.conditionCode = WeatherCondition.fromLabel(condition).getCode();
         this.timestamp = timestamp;
         this.city = city;
     }
@@ -52,11 +69,19 @@ public class WeatherEntity {
     }
 
     public String getCondition() {
-        return condition;
+        return WeatherCondition.fromCode(conditionCode).getLabel();
     }
 
     public void setCondition(String condition) {
-        this.condition = condition;
+        this.conditionCode = WeatherCondition.fromLabel(condition).getCode();
+    }
+
+    public int getConditionCode() {
+        return conditionCode;
+    }
+
+    public void setConditionCode(int conditionCode) {
+        this.conditionCode = conditionCode;
     }
 
     public long getTimestamp() {
@@ -68,10 +93,19 @@ public class WeatherEntity {
     }
 
     public String getCity() {
-        return city;
+        return city != null ? city : CityDictionary.nameOf(cityId);
     }
 
     public void setCity(String city) {
         this.city = city;
+        this.cityId = CityDictionary.UNRESOLVED;
+    }
+
+    public int getCityId() {
+        return cityId;
+    }
+
+    public void setCityId(int cityId) {
+        this.cityId = cityId;
     }
 }
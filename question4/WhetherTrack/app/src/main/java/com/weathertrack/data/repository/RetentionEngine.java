@@ -0,0 +1,88 @@
+package com.weathertrack.data.repository;
+
+import android.database.Cursor;
+
+import androidx.room.RoomDatabase;
+
+import com.weathertrack.data.local.dao.WeatherDao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Tiered retention: rows past a tier's cutoff are already rolled up, so they
+// are deleted in small chunks, each its own task on the write executor.
+public class RetentionEngine {
+    
+    private final RoomDatabase database;
+    private final WeatherDao weatherDao;
+    private final Executor writeExecutor;
+    private final int chunkSize;
+
+    private interface ChunkDelete {
+        int delete(long cutoffTime, int limit);
+    }
+
+    public RetentionEngine(RoomDatabase database, WeatherDao weatherDao, Executor writeExecutor, int chunkSize) {
+        this.database = database;
+        this.weatherDao = weatherDao;
+        this.writeExecutor = writeExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    public CompletableFuture<RetentionResult> run(long rawCutoff, long hourlyCutoff) {
+        long startTime = System.currentTimeMillis();
+        long[] freePagesBefore = new long[1];
+        int[] chunks = new int[1];
+        int[] rawDeleted = new int[1];
+        int[] hourlyDeleted = new int[1];
+        
+        return CompletableFuture
+            .runAsync(() -> freePagesBefore[0] = freelistPages(), writeExecutor)
+            .thenCompose(ignored -> deleteInChunks(weatherDao::deleteOldRecords, rawCutoff, rawDeleted, chunks))
+            .thenCompose(ignored -> deleteInChunks(weatherDao::deleteOldHourlyRollups, hourlyCutoff, hourlyDeleted, chunks))
+            .thenApplyAsync(ignored -> {
+                long freedPages = Math.max(0, freelistPages() - freePagesBefore[0]);
+                return new RetentionResult(rawDeleted[0], hourlyDeleted[0], chunks[0],
+                    freedPages * pageSize(), System.currentTimeMillis() - startTime);
+            }, writeExecutor);
+    }
+
+    private CompletableFuture<Void> deleteInChunks(ChunkDelete delete, long cutoffTime, int[] deleted, int[] chunks) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        deleteNextChunk(delete, cutoffTime, deleted, chunks, done);
+        return done;
+    }
+
+    // Each chunk re-queues the next one behind whatever writes arrived meanwhile
+    private void deleteNextChunk(ChunkDelete delete, long cutoffTime, int[] deleted, int[] chunks,
+                                 CompletableFuture<Void> done) {
+        writeExecutor.execute(() -> {
+            try {
+                int count = delete.delete(cutoffTime, chunkSize);
+                deleted[0] += count;
+                chunks[0]++;
+                if (count < chunkSize) {
+                    done.complete(null);
+                } else {
+                    deleteNextChunk(delete, cutoffTime, deleted, chunks, done);
+                }
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        });
+    }
+
+    private long freelistPages() {
+        return pragma("PRAGMA freelist_count");
+    }
+
+    private long pageSize() {
+        return pragma("PRAGMA page_size");
+    }
+
+    private long pragma(String sql) {
+        try (Cursor cursor = database.query(sql, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+}
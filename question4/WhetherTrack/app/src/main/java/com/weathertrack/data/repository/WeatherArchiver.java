@@ -0,0 +1,167 @@
+package com.weathertrack.data.repository;
+
+import androidx.room.RoomDatabase;
+
+import com.weathertrack.data.local.archive.WeatherSegment;
+import com.weathertrack.data.local.archive.WeatherSegmentCodec;
+import com.weathertrack.data.local.dao.WeatherDao;
+import com.weathertrack.data.local.entity.ArchiveSegmentEntity;
+import com.weathertrack.data.local.entity.WeatherEntity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Moves closed months of raw readings into per-city archive segments, one
+// transaction per month, and merges segments with raw rows on read. Late rows
+// for an archived month are merged into its segment on the next run.
+public class WeatherArchiver {
+    
+    private static final Comparator<WeatherEntity> BY_TIMESTAMP =
+        (a, b) -> Long.compare(a.getTimestamp(), b.getTimestamp());
+    
+    private final RoomDatabase database;
+    private final WeatherDao weatherDao;
+    private final Executor writeExecutor;
+
+    public WeatherArchiver(RoomDatabase database, WeatherDao weatherDao, Executor writeExecutor) {
+        this.database = database;
+        this.weatherDao = weatherDao;
+        this.writeExecutor = writeExecutor;
+    }
+
+    // Archives every month that ends at or before the month containing `before`.
+    // Completes with {readings archived, segments written}.
+    public CompletableFuture<int[]> archiveBefore(long before) {
+        long horizon = ArchiveSegmentEntity.segmentStart(before);
+        int[] totals = new int[2];
+        return CompletableFuture
+            .supplyAsync(() -> pendingMonths(horizon), writeExecutor)
+            .thenCompose(months -> {
+                CompletableFuture<int[]> done = new CompletableFuture<>();
+                archiveNext(months, totals, done);
+                return done;
+            });
+    }
+
+    // Blocking; call off the main thread. Archived and raw readings for the
+    // city within [startTime, endTime], oldest first. Archived readings have id 0.
+    public List<WeatherEntity> loadBetween(String city, long startTime, long endTime) {
+        return merge(loadArchived(city, startTime, endTime),
+            weatherDao.loadWeatherForCityBetween(city, startTime, endTime));
+    }
+
+    public List<WeatherEntity> loadArchived(String city, long startTime, long endTime) {
+        List<WeatherEntity> archived = new ArrayList<>();
+        for (ArchiveSegmentEntity entity : weatherDao.loadArchiveSegments(city, startTime, endTime)) {
+            WeatherSegment segment = WeatherSegmentCodec.decode(entity.getData());
+            for (int i = segment.lowerBound(startTime); i < segment.size() && segment.getTimestamp(i) <= endTime; i++) {
+                archived.add(new WeatherEntity(segment.getTemperature(i), segment.getHumidity(i),
+                    segment.getCondition(i), segment.getTimestamp(i), entity.getCity()));
+            }
+        }
+        return archived;
+    }
+
+    public static List<WeatherEntity> merge(List<WeatherEntity> archived, List<WeatherEntity> raw) {
+        if (archived.isEmpty()) {
+            return raw;
+        }
+        List<WeatherEntity> merged = new ArrayList<>(archived.size() + raw.size());
+        merged.addAll(archived);
+        merged.addAll(raw);
+        // Raw rows normally all postdate the archive; only late rows need a sort
+        if (!raw.isEmpty() && raw.get(0).getTimestamp() < archived.get(archived.size() - 1).getTimestamp()) {
+            Collections.sort(merged, BY_TIMESTAMP);
+        }
+        return merged;
+    }
+
+    private Queue<CityMonth> pendingMonths(long horizon) {
+        Queue<CityMonth> months = new ArrayDeque<>();
+        for (String city : weatherDao.getCitiesWithRecordsBefore(horizon)) {
+            Long oldest = city != null ? weatherDao.getOldestTimestampForCity(city) : null;
+            if (oldest == null) {
+                continue;
+            }
+            for (long month = ArchiveSegmentEntity.segmentStart(oldest); month < horizon;
+                    month = ArchiveSegmentEntity.segmentEnd(month)) {
+                months.add(new CityMonth(city, month));
+            }
+        }
+        return months;
+    }
+
+    private void archiveNext(Queue<CityMonth> months, int[] totals, CompletableFuture<int[]> done) {
+        CityMonth next = months.poll();
+        if (next == null) {
+            done.complete(totals);
+            return;
+        }
+        writeExecutor.execute(() -> {
+            try {
+                int archived = database.runInTransaction(() -> archiveMonth(next.city, next.segmentStart));
+                if (archived > 0) {
+                    totals[0] += archived;
+                    totals[1]++;
+                }
+                archiveNext(months, totals, done);
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        });
+    }
+
+    private int archiveMonth(String city, long segmentStart) {
+        long segmentEnd = ArchiveSegmentEntity.segmentEnd(segmentStart);
+        List<WeatherEntity> rows = weatherDao.loadWeatherForCityBetween(city, segmentStart, segmentEnd - 1);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        List<WeatherEntity> readings = rows;
+        ArchiveSegmentEntity existing = weatherDao.getArchiveSegment(city, segmentStart);
+        if (existing != null) {
+            readings = merge(loadArchived(city, segmentStart, segmentEnd - 1), rows);
+        }
+        
+        int count = readings.size();
+        long[] timestamps = new long[count];
+        double[] temperatures = new double[count];
+        int[] humidities = new int[count];
+        String[] conditions = new String[count];
+        for (int i = 0; i < count; i++) {
+            WeatherEntity reading = readings.get(i);
+            timestamps[i] = reading.getTimestamp();
+            temperatures[i] = reading.getTemperature();
+            humidities[i] = reading.getHumidity();
+            conditions[i] = reading.getCondition();
+        }
+        
+        ArchiveSegmentEntity segment = new ArchiveSegmentEntity();
+        segment.setCity(city);
+        segment.setSegmentStart(segmentStart);
+        segment.setSegmentEnd(segmentEnd);
+        segment.setFirstTimestamp(timestamps[0]);
+        segment.setLastTimestamp(timestamps[count - 1]);
+        segment.setSampleCount(count);
+        segment.setData(WeatherSegmentCodec.encode(timestamps, temperatures, humidities, conditions, count));
+        weatherDao.replaceWithArchiveSegment(segment);
+        return rows.size();
+    }
+
+    private static class CityMonth {
+        final String city;
+        final long segmentStart;
+
+        CityMonth(String city, long segmentStart) {
+            this.city = city;
+            this.segmentStart = segmentStart;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.weathertrack.data.repository;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.weathertrack.data.local.dao.WeatherDao;
+import com.weathertrack.data.local.entity.WeatherEntity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Keyset pages of weather history, newest first, at most maxPages held;
+// pages dropped off one end are re-read if the user scrolls back.
+public class WeatherHistoryPager {
+    
+    private final WeatherWindowStream recentWeather;
+    private final WeatherDao weatherDao;
+    private final Executor executor;
+    private final int pageSize;
+    private final int maxItems;
+    private final MutableLiveData<List<WeatherEntity>> items = new MutableLiveData<>();
+    
+    // Guarded by this. Queries run outside the lock; their results are applied
+    // only if the page they were keyed from is still at that end.
+    private final ArrayDeque<List<WeatherEntity>> pages = new ArrayDeque<>();
+    private int loadedCount;
+    private boolean hasOlder = true;
+    private boolean hasNewer;
+    private boolean closed;
+    
+    private final WeatherWindowStream.Listener listener = delta -> {
+        if (delta.isReset()) {
+            executor.execute(this::loadNewRecordsAtHead);
+        } else if (!delta.getAppended().isEmpty()) {
+            prependAppended(delta.getAppended());
+        }
+    };
+
+    WeatherHistoryPager(WeatherWindowStream recentWeather, WeatherDao weatherDao, Executor executor,
+                        int pageSize, int maxPages) {
+        this.recentWeather = recentWeather;
+        this.weatherDao = weatherDao;
+        this.executor = executor;
+        this.pageSize = pageSize;
+        this.maxItems = pageSize * maxPages;
+        recentWeather.addListener(listener);
+    }
+
+    public LiveData<List<WeatherEntity>> getItems() {
+        return items;
+    }
+
+    public void refresh() {
+        executor.execute(() -> {
+            if (isClosed()) {
+                return;
+            }
+            List<WeatherEntity> page = weatherDao.getHistoryFirstPage(pageSize);
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                pages.clear();
+                loadedCount = 0;
+                if (!page.isEmpty()) {
+                    pages.addLast(page);
+                    loadedCount = page.size();
+                }
+                hasOlder = page.size() == pageSize;
+                hasNewer = false;
+                publish();
+            }
+        });
+    }
+
+    // Called when the list is scrolled near its end
+    public void loadOlder() {
+        executor.execute(() -> {
+            List<WeatherEntity> lastPage;
+            synchronized (this) {
+                if (closed || !hasOlder || pages.isEmpty()) {
+                    return;
+                }
+                lastPage = pages.peekLast();
+            }
+            WeatherEntity oldest = lastPage.get(lastPage.size() - 1);
+            List<WeatherEntity> page = weatherDao.getHistoryOlderThan(
+                oldest.getTimestamp(), oldest.getId(), pageSize);
+            synchronized (this) {
+                // Another load or a prepend moved the tail; the page no longer fits
+                if (closed || pages.peekLast() != lastPage) {
+                    return;
+                }
+                hasOlder = page.size() == pageSize;
+                if (page.isEmpty()) {
+                    return;
+                }
+                pages.addLast(page);
+                loadedCount += page.size();
+                while (loadedCount > maxItems && pages.size() > 1) {
+                    loadedCount -= pages.removeFirst().size();
+                    hasNewer = true;
+                }
+                publish();
+            }
+        });
+    }
+
+    // Called when the list is scrolled near its start after newer pages were dropped
+    public void loadNewer() {
+        executor.execute(() -> {
+            List<WeatherEntity> firstPage;
+            synchronized (this) {
+                if (closed || !hasNewer || pages.isEmpty()) {
+                    return;
+                }
+                firstPage = pages.peekFirst();
+            }
+            prependNewerPage(firstPage);
+        });
+    }
+
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            pages.clear();
+            loadedCount = 0;
+        }
+        recentWeather.removeListener(listener);
+    }
+
+    // Runs on the stream's thread: no queries, only a short critical section.
+    // Rows come oldest first; only those newer than the current head are
+    // added. If newer pages were dropped they are re-read on scroll instead.
+    private void prependAppended(List<WeatherEntity> appended) {
+        synchronized (this) {
+            if (closed || hasNewer || pages.isEmpty()) {
+                if (!closed && pages.isEmpty()) {
+                    executor.execute(this::loadNewRecordsAtHead);
+                }
+                return;
+            }
+            WeatherEntity head = pages.peekFirst().get(0);
+            List<WeatherEntity> page = new ArrayList<>(appended.size());
+            for (int i = appended.size() - 1; i >= 0; i--) {
+                WeatherEntity row = appended.get(i);
+                if (row.getTimestamp() > head.getTimestamp()
+                        || (row.getTimestamp() == head.getTimestamp() && row.getId() > head.getId())) {
+                    page.add(row);
+                }
+            }
+            if (page.isEmpty()) {
+                return;
+            }
+            pages.addFirst(page);
+            loadedCount += page.size();
+            while (loadedCount > maxItems && pages.size() > 1) {
+                loadedCount -= pages.removeLast().size();
+                hasOlder = true;
+            }
+            publish();
+        }
+    }
+
+    // After a reset only the rows newer than the current head are read
+    private void loadNewRecordsAtHead() {
+        List<WeatherEntity> firstPage;
+        synchronized (this) {
+            if (closed || hasNewer) {
+                return;
+            }
+            firstPage = pages.peekFirst();
+        }
+        if (firstPage != null) {
+            prependNewerPage(firstPage);
+            return;
+        }
+        List<WeatherEntity> page = weatherDao.getHistoryFirstPage(pageSize);
+        synchronized (this) {
+            if (closed || !pages.isEmpty() || page.isEmpty()) {
+                return;
+            }
+            pages.addLast(page);
+            loadedCount = page.size();
+            hasOlder = page.size() == pageSize;
+            publish();
+        }
+    }
+
+    // Reads the rows after firstPage's head and prepends them, unless the
+    // head changed while the query ran
+    private void prependNewerPage(List<WeatherEntity> firstPage) {
+        WeatherEntity newest = firstPage.get(0);
+        List<WeatherEntity> page = new ArrayList<>(weatherDao.getHistoryNewerThan(
+            newest.getTimestamp(), newest.getId(), pageSize));
+        synchronized (this) {
+            if (closed || pages.peekFirst() != firstPage) {
+                return;
+            }
+            hasNewer = page.size() == pageSize;
+            if (page.isEmpty()) {
+                return;
+            }
+            Collections.reverse(page);
+            pages.addFirst(page);
+            loadedCount += page.size();
+            while (loadedCount > maxItems && pages.size() > 1) {
+                loadedCount -= pages.removeLast().size();
+                hasOlder = true;
+            }
+            publish();
+        }
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private void publish() {
+        List<WeatherEntity> snapshot = new ArrayList<>(loadedCount);
+        for (List<WeatherEntity> page : pages) {
+            snapshot.addAll(page);
+        }
+        items.postValue(snapshot);
+    }
+}
@@ -1,53 +1,195 @@
 package com.weathertrack.data.repository;
 
 import android.content.Context;
+import android.util.Log;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 
+import com.weathertrack.WeatherTrackApplication;
+import com.weathertrack.data.executor.AppExecutors;
+import com.weathertrack.data.executor.AppExecutors.Priority;
+import com.weathertrack.data.executor.SerialExecutor;
+import com.weathertrack.data.export.ArchiveExportSource;
+import com.weathertrack.data.export.CursorExportSource;
+import com.weathertrack.data.export.ExportFormat;
+import com.weathertrack.data.export.ExportResult;
+import com.weathertrack.data.export.ExportSource;
+import com.weathertrack.data.export.WeatherExporter;
+import com.weathertrack.data.local.CityDictionary;
+import com.weathertrack.data.local.dao.TimedWeatherDao;
 import com.weathertrack.data.local.dao.WeatherDao;
 import com.weathertrack.data.local.database.WeatherDatabase;
+import com.weathertrack.data.local.entity.ArchiveSegmentEntity;
+import com.weathertrack.data.local.entity.DailyRollupEntity;
+import com.weathertrack.data.local.entity.HourlyRollupEntity;
+import com.weathertrack.data.local.entity.IngestCheckpointEntity;
+import com.weathertrack.data.local.entity.RollupEntity;
 import com.weathertrack.data.local.entity.WeatherEntity;
+import com.weathertrack.data.local.journal.IngestJournal;
+import com.weathertrack.data.local.snapshot.LatestReadingSnapshot;
+import com.weathertrack.data.metrics.MetricsRegistry;
 import com.weathertrack.data.remote.MockWeatherApi;
+import com.weathertrack.data.remote.WeatherApi;
+import com.weathertrack.domain.model.DailyWeatherSummary;
+import com.weathertrack.domain.model.RunningStats;
 import com.weathertrack.domain.model.WeatherModel;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 public class WeatherRepository {
     
+    private static final String TAG = "WeatherRepository";
+    private static final long WRITE_FLUSH_WINDOW_MS = 250;
+    private static final int WRITE_MAX_BATCH_SIZE = 100;
+    
+    private static final int LATEST_CACHE_CAPACITY = 32;
+    private static final long LATEST_CACHE_TTL_MS = 5 * 60 * 1000;
+    
+    // Latest readings are mirrored to a small file read at startup, before Room opens.
+    // Writes are coalesced so a multi-city sync rewrites it once.
+    private static final String SNAPSHOT_FILE_NAME = "latest_readings.snapshot";
+    private static final long SNAPSHOT_WRITE_DELAY_MS = 500;
+    
+    // Fetched readings are appended to a memory-mapped journal and drained into
+    // Room in bulk, so a kill between response and insert loses nothing
+    private static final String JOURNAL_FILE_NAME = "ingest.journal";
+    private static final String JOURNAL_NAME = "ingest";
+    private static final int JOURNAL_CAPACITY = 4096;
+    
+    private static final int HISTORY_PAGE_SIZE = 50;
+    private static final int HISTORY_MAX_PAGES = 10;
+    
+    // Covers the weekly chart; newer readings reach it without a query
+    private static final long RECENT_WINDOW_MS = TimeUnit.DAYS.toMillis(7);
+    
+    // Raw rows are archived after a month and hourly rollups (the month and year
+    // charts) kept a year; daily rollups and archive segments are kept forever
+    private static final long RAW_RETENTION_MS = TimeUnit.DAYS.toMillis(30);
+    private static final long HOURLY_RETENTION_MS = TimeUnit.DAYS.toMillis(366);
+    private static final int RETENTION_CHUNK_SIZE = 500;
+    
+    private static volatile WeatherRepository INSTANCE;
+    
+    private final WeatherDatabase database;
     private final WeatherDao weatherDao;
-    private final MockWeatherApi mockApi;
-    private final ExecutorService executor;
+    private final WeatherApi weatherApi;
+    private final AppExecutors executors;
+    private final WriteBehindBuffer<WeatherEntity> writeBuffer;
+    private final SingleFlight<String, WeatherModel> fetchFlights;
+    private final LatestReadingCache<String, WeatherModel> latestReadings;
+    private final LatestReadingSnapshot snapshot;
+    private final AtomicBoolean snapshotWriteScheduled = new AtomicBoolean();
+    // Set once the startup snapshot is in latestReadings
+    private final MutableLiveData<Boolean> snapshotRestored = new MutableLiveData<>();
+    private final AtomicBoolean roomLatestReported = new AtomicBoolean();
+    private final File journalFile;
+    // Null until opened and replayed on the write lane
+    private volatile IngestJournal journal;
+    private final AtomicBoolean checkpointScheduled = new AtomicBoolean();
+    private final Object checkpointLock = new Object();
+    private final RetentionEngine retentionEngine;
+    private final WeatherArchiver archiver;
+    private final WeatherWindowStream recentWeather;
     private final MutableLiveData<String> errorLiveData;
     private final MutableLiveData<Boolean> loadingLiveData;
+    private final MetricsRegistry metrics;
+
+    private WeatherRepository(Context context) {
+        this(context, new MockWeatherApi(AppExecutors.getInstance().network(), AppExecutors.getInstance().timer()));
+    }
 
-    public WeatherRepository(Context context) {
-        WeatherDatabase database = WeatherDatabase.getDatabase(context);
-        this.weatherDao = database.weatherDao();
-        this.mockApi = new MockWeatherApi();
-        this.executor = Executors.newFixedThreadPool(4);
+    // Storage is still the app's Room database; only the API is swappable
+    WeatherRepository(Context context, WeatherApi weatherApi) {
+        this.executors = AppExecutors.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
+        this.database = WeatherDatabase.getDatabase(context);
+        this.weatherDao = TimedWeatherDao.wrap(database.weatherDao(), metrics);
+        this.weatherApi = weatherApi;
+        this.writeBuffer = new WriteBehindBuffer<>(
+            this::writeBatch,
+            executors.dbWriteScheduler(),
+            WRITE_FLUSH_WINDOW_MS,
+            WRITE_MAX_BATCH_SIZE
+        );
+        this.fetchFlights = new SingleFlight<>();
+        this.latestReadings = new LatestReadingCache<>(LATEST_CACHE_CAPACITY, LATEST_CACHE_TTL_MS);
+        this.snapshot = new LatestReadingSnapshot(
+            new File(context.getFilesDir(), SNAPSHOT_FILE_NAME), LATEST_CACHE_CAPACITY);
+        // Ahead of any snapshot write on the same lane
+        executors.dbWrite().execute(this::restoreSnapshot);
+        this.journalFile = new File(context.getFilesDir(), JOURNAL_FILE_NAME);
+        this.retentionEngine = new RetentionEngine(database, weatherDao, executors.dbWrite(), RETENTION_CHUNK_SIZE);
+        this.archiver = new WeatherArchiver(database, weatherDao, executors.dbWrite());
+        // Listener work such as the week chart rebuild stays off the writer
+        this.recentWeather = new WeatherWindowStream(weatherDao, new SerialExecutor(executors.compute()),
+            executors.dbRead(), executors.timer(), RECENT_WINDOW_MS);
         this.errorLiveData = new MutableLiveData<>();
         this.loadingLiveData = new MutableLiveData<>(false);
+        executors.dbWrite().execute(this::openJournal);
+    }
+
+    public static WeatherRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (WeatherRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new WeatherRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
     }
 
     public CompletableFuture<WeatherModel> fetchAndSaveWeather(String city) {
+        return fetchAndSaveWeather(city, Priority.UI);
+    }
+
+    // Served from the cache within its TTL; otherwise concurrent calls for a city
+    // share one API call. BACKGROUND callers yield to user-initiated fetches.
+    public CompletableFuture<WeatherModel> fetchAndSaveWeather(String city, Priority priority) {
+        long startTime = System.nanoTime();
+        String key = cacheKey(city);
+        WeatherModel fresh = latestReadings.getFresh(key);
+        if (fresh != null) {
+            metrics.increment("fetch.cache_hit");
+            metrics.recordSince("fetch.latency", startTime);
+            return CompletableFuture.completedFuture(fresh);
+        }
+        return fetchFlights.execute(key, () -> fetchRemoteAndSave(city, priority))
+            .whenComplete((weather, throwable) -> {
+                metrics.increment(weather != null ? "fetch.success" : "fetch.failure");
+                metrics.recordSince("fetch.latency", startTime);
+            });
+    }
+
+    private CompletableFuture<WeatherModel> fetchRemoteAndSave(String city, Priority priority) {
         loadingLiveData.postValue(true);
         
-        return mockApi.getCurrentWeather(city)
+        return weatherApi.getCurrentWeather(city, executors.network().at(priority))
             .thenApply(weather -> {
-                // Save to database
-                WeatherEntity entity = new WeatherEntity(
-                    weather.getTemperature(),
-                    weather.getHumidity(),
-                    weather.getCondition(),
-                    weather.getTimestamp(),
-                    weather.getCity()
-                );
+                latestReadings.put(cacheKey(city), weather);
+                scheduleSnapshotWrite();
                 
-                executor.execute(() -> weatherDao.insertWeather(entity));
+                // Journaled now, written to Room with the next checkpoint
+                enqueueReading(toEntity(weather));
                 
                 loadingLiveData.postValue(false);
                 errorLiveData.postValue(null); // Clear any previous errors
@@ -61,28 +203,226 @@ public class WeatherRepository {
             });
     }
 
+    // Fetches every city with at most maxConcurrency API calls in flight.
+    // Readings are journaled as they arrive and committed in one transaction
+    // once all fetches finish; if that fails the future fails and nothing of
+    // the sync is applied. Failed cities are reported so callers can retry just those.
+    public CompletableFuture<CitySyncResult> syncCities(List<String> cities, int maxConcurrency) {
+        long startTime = System.currentTimeMillis();
+        List<WeatherEntity> fetched = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger newReadings = new AtomicInteger();
+        
+        return CityFanOut.run(cities, maxConcurrency, city -> fetchForSync(city, fetched, newReadings))
+            .thenApplyAsync(fanOut -> {
+                List<WeatherEntity> overflow;
+                synchronized (fetched) {
+                    overflow = new ArrayList<>(fetched);
+                }
+                commitSync(overflow);
+                return new CitySyncResult(fanOut.getSucceeded(), fanOut.getFailed(),
+                    newReadings.get(), System.currentTimeMillis() - startTime);
+            }, executors.dbWrite());
+    }
+
+    // Like fetchAndSaveWeather, but journaled readings are committed by the sync
+    // rather than on a timer; readings the journal cannot take wait in `fetched`
+    private CompletableFuture<WeatherModel> fetchForSync(String city, List<WeatherEntity> fetched,
+                                                         AtomicInteger newReadings) {
+        String key = cacheKey(city);
+        WeatherModel fresh = latestReadings.getFresh(key);
+        if (fresh != null) {
+            return CompletableFuture.completedFuture(fresh);
+        }
+        return fetchFlights.execute(key, () ->
+            weatherApi.getCurrentWeather(city, executors.network().at(Priority.BACKGROUND))
+                .thenApply(weather -> {
+                    latestReadings.put(key, weather);
+                    scheduleSnapshotWrite();
+                    WeatherEntity entity = toEntity(weather);
+                    if (!journalReading(entity)) {
+                        fetched.add(entity);
+                    }
+                    newReadings.incrementAndGet();
+                    return weather;
+                })
+        );
+    }
+
+    // Bulk path for backfills; rows are committed in buffered batches
+    public void saveWeather(List<WeatherModel> readings) {
+        List<WeatherEntity> entities = new ArrayList<>(readings.size());
+        for (WeatherModel reading : readings) {
+            entities.add(toEntity(reading));
+        }
+        writeBuffer.enqueueAll(entities);
+    }
+
+    // Commits any buffered and journaled writes on the calling thread
+    public int flush() {
+        return writeBuffer.flush() + checkpointJournal();
+    }
+
     public LiveData<WeatherEntity> getLatestWeather() {
         return weatherDao.getLatestWeather();
     }
 
-    public LiveData<List<WeatherEntity>> getWeatherSince(long timestamp) {
-        return weatherDao.getWeatherSince(timestamp);
+    // Emits the cached reading once the snapshot has been restored, then
+    // whichever of the cache and Room is newer (the cache can be ahead of Room
+    // while writes are buffered)
+    public LiveData<WeatherEntity> getLatestWeather(String city) {
+        MediatorLiveData<WeatherEntity> latest = new MediatorLiveData<>();
+        latest.addSource(snapshotRestored, restored -> {
+            latest.removeSource(snapshotRestored);
+            WeatherModel cached = latestReadings.peek(cacheKey(city));
+            WeatherEntity shown = latest.getValue();
+            if (cached != null && (shown == null || cached.getTimestamp() > shown.getTimestamp())) {
+                latest.setValue(toEntity(cached));
+            }
+        });
+        latest.addSource(weatherDao.getLatestWeatherForCity(city), stored -> {
+            if (roomLatestReported.compareAndSet(false, true)) {
+                // What the first screen waited for before the snapshot existed
+                recordSinceProcessStart("startup.room_latest");
+            }
+            WeatherEntity shown = latest.getValue();
+            if (stored != null && (shown == null || stored.getTimestamp() >= shown.getTimestamp())) {
+                latest.setValue(stored);
+            } else if (shown == null) {
+                latest.setValue(null);
+            }
+        });
+        return latest;
+    }
+
+    public LiveData<List<WeatherEntity>> getWeatherSince(String city, long timestamp) {
+        return weatherDao.getWeatherForCitySince(city, timestamp);
+    }
+
+    // Raw rows as they change, with any archived months in the range decoded in
+    public LiveData<List<WeatherEntity>> getWeatherBetween(String city, long startTime, long endTime) {
+        MediatorLiveData<List<WeatherEntity>> result = new MediatorLiveData<>();
+        AtomicLong generation = new AtomicLong();
+        result.addSource(weatherDao.getWeatherForCityBetween(city, startTime, endTime), raw -> {
+            long current = generation.incrementAndGet();
+            executors.dbRead().execute(() -> {
+                List<WeatherEntity> merged = WeatherArchiver.merge(archiver.loadArchived(city, startTime, endTime), raw);
+                // Drop results overtaken by a newer emission
+                if (generation.get() == current) {
+                    result.postValue(merged);
+                }
+            });
+        });
+        return result;
+    }
+
+    // Blocking; call off the main thread. Includes readings still in the write buffer.
+    public long getLatestReadingTimestamp(String city) {
+        Long stored = weatherDao.getLatestTimestampForCity(city);
+        long latest = stored != null ? stored : 0;
+        WeatherModel cached = latestReadings.peek(cacheKey(city));
+        return cached != null ? Math.max(latest, cached.getTimestamp()) : latest;
+    }
+
+    // Blocking; call off the main thread. Includes archived months.
+    public List<WeatherEntity> loadWeatherBetween(String city, long startTime, long endTime) {
+        return archiver.loadBetween(city, startTime, endTime);
+    }
+
+    // Blocking. Streams [startTime, endTime) for one city, or all when null,
+    // archived months first; the caller owns and closes the stream.
+    public ExportResult exportWeather(String city, long startTime, long endTime, ExportFormat format,
+                                      OutputStream out, WeatherExporter.ProgressListener listener,
+                                      BooleanSupplier cancelled) throws IOException {
+        long startNanos = System.nanoTime();
+        String key = city != null ? cacheKey(city) : null;
+        long expectedRows = weatherDao.countArchivedBetween(key, startTime, endTime)
+            + (key != null ? weatherDao.countWeatherForCityBetween(key, startTime, endTime)
+                           : weatherDao.countWeatherBetween(startTime, endTime));
+        try (ExportSource archived = new ArchiveExportSource(key != null
+                 ? weatherDao.exportArchiveSegmentsForCityBetween(key, startTime, endTime)
+                 : weatherDao.exportArchiveSegmentsBetween(startTime, endTime), startTime, endTime);
+             ExportSource raw = new CursorExportSource(key != null
+                 ? weatherDao.exportWeatherForCityBetween(key, startTime, endTime)
+                 : weatherDao.exportWeatherBetween(startTime, endTime))) {
+            ExportResult result = new WeatherExporter(CityDictionary::nameOf)
+                .export(Arrays.asList(archived, raw), expectedRows, format, out, listener, cancelled);
+            metrics.add("export.rows", result.getRows());
+            metrics.recordSince("export.latency", startNanos);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            metrics.increment("export.failure");
+            throw e;
+        }
     }
 
     public LiveData<List<WeatherEntity>> getWeatherBetween(long startTime, long endTime) {
         return weatherDao.getWeatherBetween(startTime, endTime);
     }
 
+    // Bounded, keyset-paginated view of the full history; close() it when done
+    public WeatherHistoryPager createHistoryPager() {
+        return new WeatherHistoryPager(recentWeather, weatherDao, executors.dbRead(), HISTORY_PAGE_SIZE, HISTORY_MAX_PAGES);
+    }
+
+    // Last 7 days of readings as append/evict deltas
+    public WeatherWindowStream getRecentWeatherStream() {
+        return recentWeather;
+    }
+
     public LiveData<List<WeatherEntity>> getAllWeather() {
         return weatherDao.getAllWeather();
     }
 
-    public LiveData<List<WeatherDao.DailyWeatherSummary>> getDailyAveragesForWeek(long weekAgo) {
-        return weatherDao.getDailyAveragesForWeek(weekAgo);
+    // Summaries come from the rollups' running statistics, one row per city per
+    // bucket, so their cost does not depend on how many readings a day has.
+    // The day containing weekAgo is included in full.
+    public LiveData<List<DailyWeatherSummary>> getDailySummariesForWeek(long weekAgo) {
+        return Transformations.map(weatherDao.getDailyRollupsSince(DailyRollupEntity.bucketStart(weekAgo)),
+            rows -> toDomainSummaries(rows, "yyyy-MM-dd"));
+    }
+
+    public LiveData<List<DailyWeatherSummary>> getHourlySummariesSince(long startTime) {
+        return Transformations.map(weatherDao.getHourlyRollupsSince(HourlyRollupEntity.bucketStart(startTime)),
+            rows -> toDomainSummaries(rows, "yyyy-MM-dd HH:00"));
+    }
+
+    // One city's day (UTC) containing the timestamp; null if it has no readings
+    public DailyWeatherSummary loadDailySummary(String city, long timestamp) {
+        DailyRollupEntity row = weatherDao.loadDailyRollup(cacheKey(city), DailyRollupEntity.bucketStart(timestamp));
+        return row != null ? toDomainSummaries(Collections.singletonList(row), "yyyy-MM-dd").get(0) : null;
+    }
+
+    public LiveData<List<WeatherDao.TemperaturePoint>> getHourlyTemperaturesSince(long startTime) {
+        return weatherDao.getHourlyTemperaturesSince(startTime);
     }
 
-    public void cleanupOldRecords(long cutoffTime) {
-        executor.execute(() -> weatherDao.deleteOldRecords(cutoffTime));
+    public LiveData<List<WeatherDao.TemperaturePoint>> getDailyTemperaturesSince(long startTime) {
+        return weatherDao.getDailyTemperaturesSince(startTime);
+    }
+
+    // Per-city daily quantile sketches from the day containing startTime on
+    public LiveData<List<WeatherDao.DailySketch>> getDailySketchesSince(long startTime) {
+        return weatherDao.getDailySketchesSince(DailyRollupEntity.bucketStart(startTime));
+    }
+
+    // Deletes raw rows before the cutoff in chunks; rollups are left alone
+    public CompletableFuture<RetentionResult> cleanupOldRecords(long cutoffTime) {
+        // An arbitrary cutoff can reach into the recent window
+        return retentionEngine.run(cutoffTime, Long.MIN_VALUE)
+            .whenComplete((result, throwable) -> recentWeather.resync());
+    }
+
+    // Applies the tiered retention policy. Raw rows leave only by being archived,
+    // which deletes them in the same transaction; rows that land after their
+    // month was archived wait for the next run rather than being deleted here.
+    public CompletableFuture<RetentionResult> runRetention() {
+        long now = System.currentTimeMillis();
+        long startTime = System.nanoTime();
+        long archiveHorizon = ArchiveSegmentEntity.segmentStart(now - RAW_RETENTION_MS);
+        return archiver.archiveBefore(archiveHorizon)
+            .thenCompose(archived -> retentionEngine.run(Long.MIN_VALUE, now - HOURLY_RETENTION_MS)
+                .thenApply(result -> result.withArchive(archived[0], archived[1],
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime))));
     }
 
     public LiveData<String> getErrorLiveData() {
@@ -96,4 +436,305 @@ public class WeatherRepository {
     public void clearError() {
         errorLiveData.postValue(null);
     }
+
+    public long getFetchRequestCount() {
+        return fetchFlights.getCallCount();
+    }
+
+    // Fetch requests that joined an in-flight call instead of hitting the API
+    public long getCoalescedFetchCount() {
+        return fetchFlights.getCoalescedCount();
+    }
+
+    public void setLatestReadingTtl(long ttlMillis) {
+        latestReadings.setTtlMillis(ttlMillis);
+    }
+
+    public long getCacheHitCount() {
+        return latestReadings.getHitCount();
+    }
+
+    public long getCacheMissCount() {
+        return latestReadings.getMissCount();
+    }
+
+    public long getCacheEvictionCount() {
+        return latestReadings.getEvictionCount();
+    }
+
+    public AppExecutors getExecutors() {
+        return executors;
+    }
+
+    private void writeBatch(List<WeatherEntity> batch) {
+        long startTime = System.nanoTime();
+        try {
+            weatherDao.insertAllWithRollups(batch);
+            publishCities(batch);
+            metrics.add("db.rows_written", batch.size());
+            metrics.recordSince("db.write_batch", startTime);
+            recentWeather.onInserted(batch);
+        } catch (RuntimeException e) {
+            metrics.increment("db.write_batch.failure");
+            Log.e(TAG, "Failed to write " + batch.size() + " weather records", e);
+            throw e;
+        }
+    }
+
+    // Opens the journal and drains whatever a previous process left in it.
+    // Room's checkpoint wins over the journal's, since the journal header is
+    // only updated after the rows it covers have committed.
+    private void openJournal() {
+        try {
+            IngestJournal opened = IngestJournal.open(journalFile, JOURNAL_CAPACITY);
+            // Also opens the database, which loads the city ids records refer to
+            Long committed = weatherDao.getIngestCheckpoint(JOURNAL_NAME);
+            if (committed != null) {
+                opened.checkpoint(committed);
+            }
+            int pending = opened.getPendingCount();
+            journal = opened;
+            if (pending > 0) {
+                metrics.add("journal.replayed", pending);
+                Log.i(TAG, "Replaying " + pending + " journaled readings");
+                checkpointJournal();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Readings keep going through the write buffer
+            metrics.increment("journal.open.failure");
+            Log.e(TAG, "Could not open ingest journal", e);
+        }
+    }
+
+    private void enqueueReading(WeatherEntity entity) {
+        if (journalReading(entity)) {
+            scheduleCheckpoint();
+        } else {
+            writeBuffer.enqueue(entity);
+        }
+    }
+
+    // False when the reading must be held in memory instead: before the journal
+    // opens, for a city with no id yet (records store ids) and when it is full.
+    // Each case is counted, since a kill then loses the reading.
+    private boolean journalReading(WeatherEntity entity) {
+        IngestJournal current = journal;
+        if (current == null) {
+            metrics.increment("journal.bypass.not_open");
+            return false;
+        }
+        int cityId = CityDictionary.idOf(cacheKey(entity.getCity()));
+        if (cityId == CityDictionary.UNRESOLVED) {
+            metrics.increment("journal.bypass.new_city");
+            return false;
+        }
+        long startTime = System.nanoTime();
+        if (!current.append(entity.getTimestamp(), cityId, entity.getTemperature(),
+                entity.getHumidity(), entity.getConditionCode())) {
+            metrics.increment("journal.bypass.full");
+            scheduleCheckpoint();
+            return false;
+        }
+        metrics.recordSince("journal.append", startTime);
+        return true;
+    }
+
+    private void scheduleCheckpoint() {
+        if (checkpointScheduled.compareAndSet(false, true)) {
+            executors.dbWriteScheduler().schedule(this::checkpointJournal, WRITE_FLUSH_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Drains the journal into Room in batches, each committed together with
+    // the journal's new checkpoint. A failed batch stays in the journal for
+    // the next checkpoint. Returns rows written.
+    private int checkpointJournal() {
+        checkpointScheduled.set(false);
+        IngestJournal current = journal;
+        if (current == null) {
+            return 0;
+        }
+        synchronized (checkpointLock) {
+            int written = 0;
+            while (true) {
+                List<IngestJournal.Record> records = current.readPending(WRITE_MAX_BATCH_SIZE);
+                if (records.isEmpty()) {
+                    return written;
+                }
+                List<WeatherEntity> batch = new ArrayList<>(records.size());
+                for (IngestJournal.Record record : records) {
+                    batch.add(toEntity(record));
+                }
+                long next = records.get(records.size() - 1).getSequence() + 1;
+                long startTime = System.nanoTime();
+                try {
+                    weatherDao.insertJournaled(batch, JOURNAL_NAME, next);
+                } catch (RuntimeException e) {
+                    metrics.increment("journal.checkpoint.failure");
+                    Log.e(TAG, "Failed to checkpoint " + batch.size() + " journaled readings", e);
+                    return written;
+                }
+                current.checkpoint(next);
+                metrics.add("db.rows_written", batch.size());
+                metrics.recordSince("journal.checkpoint", startTime);
+                recentWeather.onInserted(batch);
+                written += batch.size();
+            }
+        }
+    }
+
+    // Commits everything pending in one transaction: buffered rows (including
+    // those of fetches the sync joined), every journaled record with the new
+    // checkpoint, and the readings the journal could not take. On failure the
+    // journal keeps its records and the rest goes back to the write buffer.
+    private int commitSync(List<WeatherEntity> overflow) {
+        checkpointScheduled.set(false);
+        synchronized (checkpointLock) {
+            IngestJournal current = journal;
+            List<IngestJournal.Record> records = current != null
+                ? current.readPending(JOURNAL_CAPACITY) : Collections.<IngestJournal.Record>emptyList();
+            List<WeatherEntity> buffered = writeBuffer.drain();
+            List<WeatherEntity> rows = new ArrayList<>(buffered.size() + records.size() + overflow.size());
+            rows.addAll(buffered);
+            for (IngestJournal.Record record : records) {
+                rows.add(toEntity(record));
+            }
+            rows.addAll(overflow);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            long next = records.isEmpty() ? -1 : records.get(records.size() - 1).getSequence() + 1;
+            long startTime = System.nanoTime();
+            try {
+                database.runInTransaction(() -> {
+                    weatherDao.insertAllWithRollups(rows);
+                    if (next > 0) {
+                        weatherDao.setIngestCheckpoint(new IngestCheckpointEntity(JOURNAL_NAME, next));
+                    }
+                });
+            } catch (RuntimeException e) {
+                metrics.increment("sync.commit.failure");
+                Log.e(TAG, "Failed to commit " + rows.size() + " synced readings", e);
+                writeBuffer.requeue(buffered);
+                writeBuffer.enqueueAll(overflow);
+                throw e;
+            }
+            if (next > 0) {
+                current.checkpoint(next);
+            }
+            publishCities(rows);
+            metrics.add("db.rows_written", rows.size());
+            metrics.recordSince("sync.commit", startTime);
+            recentWeather.onInserted(rows);
+            return rows.size();
+        }
+    }
+
+    // Runs on the write lane, off the thread building the repository.
+    // Restored readings age from their own timestamps, so one fetched just
+    // before the app was killed can still satisfy the cache TTL.
+    private void restoreSnapshot() {
+        long startTime = System.nanoTime();
+        List<WeatherModel> restored;
+        try {
+            restored = snapshot.read();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read latest-reading snapshot", e);
+            restored = Collections.emptyList();
+        }
+        for (WeatherModel reading : restored) {
+            latestReadings.putIfAbsent(cacheKey(reading.getCity()), reading, reading.getTimestamp());
+        }
+        metrics.recordSince("startup.snapshot_read", startTime);
+        metrics.add("startup.snapshot_readings", restored.size());
+        snapshotRestored.postValue(Boolean.TRUE);
+    }
+
+    private void scheduleSnapshotWrite() {
+        if (snapshotWriteScheduled.compareAndSet(false, true)) {
+            executors.dbWriteScheduler().schedule(this::writeSnapshot, SNAPSHOT_WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writeSnapshot() {
+        // Cleared first so a reading cached during the write schedules another
+        snapshotWriteScheduled.set(false);
+        long startTime = System.nanoTime();
+        try {
+            snapshot.write(latestReadings.values());
+            metrics.recordSince("snapshot.write", startTime);
+        } catch (IOException e) {
+            metrics.increment("snapshot.write.failure");
+            Log.w(TAG, "Could not write latest-reading snapshot", e);
+        }
+    }
+
+    private void recordSinceProcessStart(String name) {
+        metrics.histogram(name).recordMicros(TimeUnit.MILLISECONDS.toMicros(WeatherTrackApplication.millisSinceProcessStart()));
+    }
+
+    // New city ids enter the process-wide dictionary only after their insert
+    // committed, so a rolled-back id can never resolve to a name
+    private static void publishCities(List<WeatherEntity> rows) {
+        for (WeatherEntity row : rows) {
+            String name = cacheKey(row.getCity());
+            if (CityDictionary.idOf(name) == CityDictionary.UNRESOLVED) {
+                CityDictionary.put(row.getCityId(), name);
+            }
+        }
+    }
+
+    private static String cacheKey(String city) {
+        return city != null ? city : "";
+    }
+
+    private static WeatherEntity toEntity(WeatherModel weather) {
+        return new WeatherEntity(
+            weather.getTemperature(),
+            weather.getHumidity(),
+            weather.getCondition(),
+            weather.getTimestamp(),
+            weather.getCity()
+        );
+    }
+
+    private static WeatherEntity toEntity(IngestJournal.Record record) {
+        WeatherEntity entity = new WeatherEntity();
+        entity.setTimestamp(record.getTimestamp());
+        entity.setTemperature(record.getTemperature());
+        entity.setHumidity(record.getHumidity());
+        entity.setConditionCode(record.getConditionCode());
+        entity.setCityId(record.getCityCode());
+        return entity;
+    }
+
+    // Rows must be ordered by bucketStart; the cities sharing a bucket are
+    // merged into one summary
+    private static List<DailyWeatherSummary> toDomainSummaries(List<? extends RollupEntity> rows, String datePattern) {
+        List<DailyWeatherSummary> summaries = new ArrayList<>();
+        if (rows == null) {
+            return summaries;
+        }
+        SimpleDateFormat dateFormat = new SimpleDateFormat(datePattern, Locale.US);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        int i = 0;
+        while (i < rows.size()) {
+            long bucketStart = rows.get(i).getBucketStart();
+            RunningStats temperature = new RunningStats();
+            long humiditySum = 0;
+            for (; i < rows.size() && rows.get(i).getBucketStart() == bucketStart; i++) {
+                temperature.merge(rows.get(i).toTemperatureStats());
+                humiditySum += rows.get(i).getHumiditySum();
+            }
+            if (temperature.getCount() == 0) {
+                continue;
+            }
+            DailyWeatherSummary summary = new DailyWeatherSummary();
+            summary.setTemperatureStats(temperature);
+            summary.setAvgHumidity((double) humiditySum / temperature.getCount());
+            summary.setDate(dateFormat.format(new Date(bucketStart)));
+            summaries.add(summary);
+        }
+        return summaries;
+    }
 }
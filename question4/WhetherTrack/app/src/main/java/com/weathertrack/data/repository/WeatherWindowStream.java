@@ -0,0 +1,227 @@
+package com.weathertrack.data.repository;
+
+import com.weathertrack.data.local.dao.WeatherDao;
+import com.weathertrack.data.local.entity.WeatherEntity;
+import com.weathertrack.data.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Readings from the last windowMillis, kept in memory and reported to
+// listeners as append/evict deltas, or as a reset after a re-read. Confined
+// to a serial executor off the write lane, where listeners are called;
+// re-reads query on the read lane and expired rows are evicted on a timer.
+public class WeatherWindowStream {
+    
+    public interface Listener {
+        void onWindowChanged(WindowDelta<WeatherEntity> delta);
+    }
+    
+    // Batches evictions of readings that expire close together
+    private static final long MIN_EVICT_DELAY_MS = 60_000L;
+    
+    private static final Comparator<WeatherEntity> BY_TIME = (a, b) -> {
+        int byTime = Long.compare(a.getTimestamp(), b.getTimestamp());
+        return byTime != 0 ? byTime : Integer.compare(a.getId(), b.getId());
+    };
+    
+    private final WeatherDao weatherDao;
+    private final Executor executor;
+    private final Executor readExecutor;
+    private final ScheduledExecutorService timer;
+    private final long windowMillis;
+    private final TimeWindow<WeatherEntity> window;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    
+    // Confined to executor
+    private boolean loaded;
+    private int lastId;
+    private int reloadGeneration;
+    private boolean reloading;
+    private final List<WeatherEntity> insertedDuringReload = new ArrayList<>();
+    private ScheduledFuture<?> eviction;
+    private long evictionAt = Long.MAX_VALUE;
+    
+    WeatherWindowStream(WeatherDao weatherDao, Executor executor, Executor readExecutor,
+                        ScheduledExecutorService timer, long windowMillis) {
+        this.weatherDao = weatherDao;
+        this.executor = executor;
+        this.readExecutor = readExecutor;
+        this.timer = timer;
+        this.windowMillis = windowMillis;
+        this.window = new TimeWindow<>(windowMillis, WeatherEntity::getTimestamp);
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    // The listener first receives a reset with the current window
+    public void addListener(Listener listener) {
+        executor.execute(() -> {
+            listeners.add(listener);
+            if (reloading) {
+                // The reset at the end of the reload reaches it
+                return;
+            }
+            if (!loaded) {
+                reload();
+            } else {
+                listener.onWindowChanged(WindowDelta.reset(window.snapshot()));
+            }
+        });
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+        executor.execute(() -> {
+            // Nobody is watching; drop the rows and re-read on the next listener
+            if (listeners.isEmpty() && (loaded || reloading)) {
+                window.clear();
+                loaded = false;
+                reloading = false;
+                reloadGeneration++;
+                insertedDuringReload.clear();
+                cancelEviction();
+            }
+        });
+    }
+
+    // Only valid on the stream's executor, e.g. from a listener that needs the whole window
+    public List<WeatherEntity> snapshot() {
+        return window.snapshot();
+    }
+
+    // Re-reads the window, e.g. after rows inside it were deleted
+    public void resync() {
+        executor.execute(() -> {
+            if (loaded || reloading) {
+                reload();
+            }
+        });
+    }
+
+    // Called with each batch once it has committed, ids assigned
+    void onInserted(List<WeatherEntity> rows) {
+        List<WeatherEntity> copy = new ArrayList<>(rows);
+        executor.execute(() -> apply(copy));
+    }
+
+    private void apply(List<WeatherEntity> rows) {
+        if (reloading) {
+            // May have committed after the query read; filtered by id once it lands
+            insertedDuringReload.addAll(rows);
+            return;
+        }
+        if (!loaded) {
+            return;
+        }
+        // A reload may already have read some of these rows
+        List<WeatherEntity> fresh = new ArrayList<>(rows.size());
+        for (WeatherEntity row : rows) {
+            if (row.getId() > lastId) {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+        Collections.sort(fresh, BY_TIME);
+        for (WeatherEntity row : fresh) {
+            lastId = Math.max(lastId, row.getId());
+        }
+        
+        WindowDelta<WeatherEntity> delta = window.append(fresh, System.currentTimeMillis());
+        if (delta == null) {
+            // Backfilled rows landed inside the window
+            reload();
+            return;
+        }
+        metrics.add("window.rows_appended", delta.getAppended().size());
+        if (!delta.isEmpty()) {
+            dispatch(delta);
+        }
+        scheduleEviction();
+    }
+
+    // Queries on the read lane and applies the result back here; a newer
+    // reload or the last listener leaving discards it
+    private void reload() {
+        int generation = ++reloadGeneration;
+        reloading = true;
+        readExecutor.execute(() -> {
+            long now = System.currentTimeMillis();
+            List<WeatherEntity> rows = weatherDao.loadWeatherSince(now - windowMillis);
+            executor.execute(() -> onReloaded(generation, rows, now));
+        });
+    }
+
+    private void onReloaded(int generation, List<WeatherEntity> rows, long now) {
+        if (generation != reloadGeneration) {
+            return;
+        }
+        for (WeatherEntity row : rows) {
+            lastId = Math.max(lastId, row.getId());
+        }
+        loaded = true;
+        reloading = false;
+        metrics.increment("window.reload");
+        dispatch(window.reset(rows, now));
+        scheduleEviction();
+        
+        if (!insertedDuringReload.isEmpty()) {
+            List<WeatherEntity> pending = new ArrayList<>(insertedDuringReload);
+            insertedDuringReload.clear();
+            apply(pending);
+        }
+    }
+
+    // Arms the timer for the oldest row's expiry unless it already fires sooner
+    private void scheduleEviction() {
+        long expiry = window.nextExpiry();
+        if (expiry == Long.MAX_VALUE || expiry >= evictionAt) {
+            return;
+        }
+        cancelEviction();
+        long now = System.currentTimeMillis();
+        long delay = Math.max(expiry - now, MIN_EVICT_DELAY_MS);
+        evictionAt = now + delay;
+        eviction = timer.schedule(() -> executor.execute(this::evictExpired), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void evictExpired() {
+        eviction = null;
+        evictionAt = Long.MAX_VALUE;
+        if (!loaded || reloading) {
+            return;
+        }
+        WindowDelta<WeatherEntity> delta = window.evict(System.currentTimeMillis());
+        if (!delta.isEmpty()) {
+            metrics.add("window.rows_expired", delta.getEvicted().size());
+            dispatch(delta);
+        }
+        scheduleEviction();
+    }
+
+    private void cancelEviction() {
+        if (eviction != null) {
+            eviction.cancel(false);
+            eviction = null;
+        }
+        evictionAt = Long.MAX_VALUE;
+    }
+
+    private void dispatch(WindowDelta<WeatherEntity> delta) {
+        for (Listener listener : listeners) {
+            listener.onWindowChanged(delta);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.weathertrack.presentation;
 
 import android.os.Bundle;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
@@ -9,9 +11,15 @@ import androidx.fragment.app.FragmentTransaction;
 
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.weathertrack.R;
+import com.weathertrack.data.executor.AppExecutors;
+import com.weathertrack.data.metrics.MetricsRegistry;
 import com.weathertrack.presentation.fragment.WeatherFragment;
 import com.weathertrack.presentation.fragment.WeeklyStatsFragment;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
 public class MainActivity extends AppCompatActivity {
     
     private static final String TAG = "MainActivity";
@@ -55,4 +63,21 @@ public class MainActivity extends AppCompatActivity {
         transaction.replace(R.id.fragment_container, fragment);
         transaction.commit();
     }
+    
+    // adb shell dumpsys activity com.weathertrack/.presentation.MainActivity [--json]
+    @Override
+    public void dump(@NonNull String prefix, @Nullable FileDescriptor fd, @NonNull PrintWriter writer,
+                     @Nullable String[] args) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        if (args != null && Arrays.asList(args).contains("--json")) {
+            writer.println(metrics.dumpJson());
+            return;
+        }
+        super.dump(prefix, fd, writer, args);
+        writer.println(prefix + "Executors: " + AppExecutors.getInstance().describe());
+        writer.println(prefix + "Metrics:");
+        for (String line : metrics.dumpText().split("\n")) {
+            writer.println(prefix + "  " + line);
+        }
+    }
 }
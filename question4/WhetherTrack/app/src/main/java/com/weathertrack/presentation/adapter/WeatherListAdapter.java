@@ -5,30 +5,45 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.textview.MaterialTextView;
 import com.weathertrack.R;
-import com.weathertrack.data.local.entity.WeatherEntity;
+import com.weathertrack.presentation.model.WeatherDisplayModel;
+import com.weathertrack.presentation.model.WeatherRowView;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
-
-public class WeatherListAdapter extends RecyclerView.Adapter<WeatherListAdapter.WeatherViewHolder> {
+// Lists are diffed off the main thread by AsyncListDiffer and items arrive
+// pre-formatted; submit them with submitList().
+public class WeatherListAdapter extends ListAdapter<WeatherDisplayModel, WeatherListAdapter.WeatherViewHolder> {
+    
+    private static final DiffUtil.ItemCallback<WeatherDisplayModel> DIFF_CALLBACK = new DiffUtil.ItemCallback<WeatherDisplayModel>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull WeatherDisplayModel oldItem, @NonNull WeatherDisplayModel newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull WeatherDisplayModel oldItem, @NonNull WeatherDisplayModel newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
     
-    private List<WeatherEntity> weatherList = new ArrayList<>();
     private OnWeatherItemClickListener clickListener;
     
     public interface OnWeatherItemClickListener {
-        void onWeatherItemClick(WeatherEntity weather);
+        void onWeatherItemClick(WeatherDisplayModel weather);
     }
     
-    public void setWeatherList(List<WeatherEntity> weatherList) {
-        this.weatherList = weatherList != null ? weatherList : new ArrayList<>();
-        notifyDataSetChanged();
+    public WeatherListAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
     
     public void setOnWeatherItemClickListener(OnWeatherItemClickListener listener) {
@@ -40,33 +55,31 @@ public class WeatherListAdapter extends RecyclerView.Adapter<WeatherListAdapter.
     public WeatherViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
             .inflate(R.layout.item_weather, parent, false);
-        return new WeatherViewHolder(view);
-    }
-    
-    @Override
-    public void onBindViewHolder(@NonNull WeatherViewHolder holder, int position) {
-        WeatherEntity weather = weatherList.get(position);
-        holder.bind(weather);
+        WeatherViewHolder holder = new WeatherViewHolder(view);
         
-        holder.itemView.setOnClickListener(v -> {
-            if (clickListener != null) {
-                clickListener.onWeatherItemClick(weather);
+        // One listener per holder rather than a new lambda per bind
+        view.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (clickListener != null && position != RecyclerView.NO_POSITION) {
+                clickListener.onWeatherItemClick(getItem(position));
             }
         });
+        return holder;
     }
     
     @Override
-    public int getItemCount() {
-        return weatherList.size();
+    public void onBindViewHolder(@NonNull WeatherViewHolder holder, int position) {
+        getItem(position).bindTo(holder);
     }
     
-    static class WeatherViewHolder extends RecyclerView.ViewHolder {
+    static class WeatherViewHolder extends RecyclerView.ViewHolder implements WeatherRowView {
         private final MaterialTextView tvTemperature;
         private final MaterialTextView tvHumidity;
         private final MaterialTextView tvCondition;
         private final MaterialTextView tvDateTime;
         private final MaterialTextView tvCity;
         private final android.widget.ImageView ivWeatherIcon;
+        private int iconRes;
 
         public WeatherViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -77,34 +90,39 @@ public class WeatherListAdapter extends RecyclerView.Adapter<WeatherListAdapter.
             tvCity = itemView.findViewById(R.id.tv_city);
             ivWeatherIcon = itemView.findViewById(R.id.iv_weather_icon);
         }
-        
-        public void bind(WeatherEntity weather) {
-            tvTemperature.setText(String.format(Locale.getDefault(), "%.1f°F", weather.getTemperature()));
-            tvHumidity.setText(String.format(Locale.getDefault(), "%d%%", weather.getHumidity()));
-            tvCondition.setText(weather.getCondition());
-            tvCity.setText(weather.getCity());
 
-            // Set weather icon based on condition
-            updateWeatherIcon(weather.getCondition());
+        @Override
+        public void showTemperature(CharSequence text) {
+            tvTemperature.setText(text);
+        }
+
+        @Override
+        public void showHumidity(CharSequence text) {
+            tvHumidity.setText(text);
+        }
 
-            // Format date and time
-            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, HH:mm", Locale.getDefault());
-            String formattedDateTime = sdf.format(new Date(weather.getTimestamp()));
-            tvDateTime.setText(formattedDateTime);
+        @Override
+        public void showCondition(CharSequence text) {
+            tvCondition.setText(text);
         }
 
-        private void updateWeatherIcon(String condition) {
-            int iconRes;
+        @Override
+        public void showCity(CharSequence text) {
+            tvCity.setText(text);
+        }
 
-            if (condition.toLowerCase().contains("sunny") || condition.toLowerCase().contains("clear")) {
-                iconRes = com.weathertrack.R.drawable.ic_sunny;
-            } else if (condition.toLowerCase().contains("rain")) {
-                iconRes = com.weathertrack.R.drawable.ic_rainy;
-            } else {
-                iconRes = com.weathertrack.R.drawable.ic_cloudy;
-            }
+        @Override
+        public void showDateTime(CharSequence text) {
+            tvDateTime.setText(text);
+        }
 
-            ivWeatherIcon.setImageResource(iconRes);
+        @Override
+        public void showIcon(int iconRes) {
+            // Skip re-decoding the drawable when the recycled row already shows it
+            if (this.iconRes != iconRes) {
+                this.iconRes = iconRes;
+                ivWeatherIcon.setImageResource(iconRes);
+            }
         }
     }
 }
@@ -1,6 +1,7 @@
 package com.weathertrack.presentation.fragment;
 
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -19,15 +20,21 @@ import com.google.android.material.progressindicator.CircularProgressIndicator;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textview.MaterialTextView;
 import com.weathertrack.R;
-import com.weathertrack.data.local.entity.WeatherEntity;
+import com.weathertrack.WeatherTrackApplication;
+import com.weathertrack.data.metrics.MetricsRegistry;
+import com.weathertrack.presentation.model.WeatherDisplayModel;
 import com.weathertrack.presentation.viewmodel.WeatherViewModel;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class WeatherFragment extends Fragment {
     
+    private static final String TAG = "WeatherFragment";
+    
+    // Time to first content is reported once per process
+    private static final AtomicBoolean FIRST_CONTENT_REPORTED = new AtomicBoolean();
+    
     private WeatherViewModel viewModel;
     
     // UI Components
@@ -134,7 +141,7 @@ public class WeatherFragment extends Fragment {
     
     private void observeData() {
         // Observe latest weather data
-        viewModel.getLatestWeather().observe(getViewLifecycleOwner(), this::updateWeatherDisplay);
+        viewModel.getLatestWeatherDisplay().observe(getViewLifecycleOwner(), this::updateWeatherDisplay);
         
         // Observe loading state
         viewModel.getLoadingState().observe(getViewLifecycleOwner(), isLoading -> {
@@ -168,22 +175,19 @@ public class WeatherFragment extends Fragment {
         });
     }
     
-    private void updateWeatherDisplay(WeatherEntity weather) {
+    private void updateWeatherDisplay(WeatherDisplayModel weather) {
         if (weather != null) {
+            reportFirstContent();
             weatherCard.setVisibility(View.VISIBLE);
 
-            tvTemperature.setText(String.format(Locale.getDefault(), "%.1f°F", weather.getTemperature()));
-            tvHumidity.setText(String.format(Locale.getDefault(), "%d%%", weather.getHumidity()));
-            tvCondition.setText(weather.getCondition());
-            tvCity.setText(weather.getCity());
-
-            // Update weather background and icon based on condition
-            updateWeatherTheme(weather.getCondition());
-
-            // Format timestamp
-            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, HH:mm", Locale.getDefault());
-            String formattedDate = sdf.format(new Date(weather.getTimestamp()));
-            tvLastUpdated.setText(formattedDate);
+            // Text and theme were resolved off the main thread
+            tvTemperature.setText(weather.getTemperatureText());
+            tvHumidity.setText(weather.getHumidityText());
+            tvCondition.setText(weather.getConditionText());
+            tvCity.setText(weather.getCityText());
+            tvLastUpdated.setText(weather.getDateTimeText());
+            weatherBackground.setBackgroundResource(weather.getBackgroundRes());
+            ivWeatherIcon.setImageResource(weather.getIconRes());
 
             // Hide status card when weather is successfully loaded
             statusCard.setVisibility(View.GONE);
@@ -192,23 +196,15 @@ public class WeatherFragment extends Fragment {
         }
     }
 
-    private void updateWeatherTheme(String condition) {
-        int backgroundRes;
-        int iconRes;
-
-        if (condition.toLowerCase().contains("sunny") || condition.toLowerCase().contains("clear")) {
-            backgroundRes = R.drawable.gradient_sunny;
-            iconRes = R.drawable.ic_sunny;
-        } else if (condition.toLowerCase().contains("rain")) {
-            backgroundRes = R.drawable.gradient_rainy;
-            iconRes = R.drawable.ic_rainy;
-        } else {
-            backgroundRes = R.drawable.gradient_cloudy;
-            iconRes = R.drawable.ic_cloudy;
+    // Compare with startup.room_latest, when Room first answered; before the
+    // snapshot existed, first content had to wait for that
+    private static void reportFirstContent() {
+        if (FIRST_CONTENT_REPORTED.compareAndSet(false, true)) {
+            long millis = WeatherTrackApplication.millisSinceProcessStart();
+            MetricsRegistry.getInstance().histogram("startup.first_content")
+                .recordMicros(TimeUnit.MILLISECONDS.toMicros(millis));
+            Log.i(TAG, "First content " + millis + " ms after process start");
         }
-
-        weatherBackground.setBackgroundResource(backgroundRes);
-        ivWeatherIcon.setImageResource(iconRes);
     }
 
     private void showStatusCard(String message, boolean showProgress, boolean isError) {
@@ -1,11 +1,15 @@
 package com.weathertrack.presentation.fragment;
 
 import android.graphics.Color;
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
@@ -16,36 +20,58 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.github.mikephil.charting.charts.LineChart;
 import com.github.mikephil.charting.components.Description;
 import com.github.mikephil.charting.components.XAxis;
+import com.github.mikephil.charting.components.YAxis;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
+import com.github.mikephil.charting.formatter.ValueFormatter;
 import com.google.android.material.button.MaterialButton;
+import com.google.android.material.button.MaterialButtonToggleGroup;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.textview.MaterialTextView;
 import com.weathertrack.R;
-import com.weathertrack.data.local.entity.WeatherEntity;
+import com.weathertrack.data.export.ExportFormat;
 import com.weathertrack.presentation.adapter.WeatherListAdapter;
+import com.weathertrack.presentation.model.ChartRange;
+import com.weathertrack.presentation.model.ChartSeries;
+import com.weathertrack.presentation.model.PercentileBands;
 import com.weathertrack.presentation.viewmodel.WeeklyStatsViewModel;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 public class WeeklyStatsFragment extends Fragment {
     
+    // Rows from either end of the loaded window at which the next page is requested
+    private static final int PREFETCH_DISTANCE = 10;
+    
     private WeeklyStatsViewModel viewModel;
     
     // UI Components
     private LineChart temperatureChart;
+    private MaterialButtonToggleGroup chartRangeGroup;
+    private LineChart percentileChart;
+    private MaterialTextView tvPercentileSummary;
     private RecyclerView recyclerView;
     private WeatherListAdapter adapter;
     private MaterialTextView tvNoData;
     private MaterialButton btnRefresh;
+    private MaterialButton btnExport;
+    private Snackbar exportSnackbar;
+    
+    // Launchers must be registered before the fragment is created; CreateDocument
+    // fixes the MIME type, so there is one per format
+    private final ActivityResultLauncher<String> exportCsv = registerForActivityResult(
+        new ActivityResultContracts.CreateDocument(ExportFormat.CSV.getMimeType()),
+        uri -> onExportTarget(uri, ExportFormat.CSV));
+    private final ActivityResultLauncher<String> exportBinary = registerForActivityResult(
+        new ActivityResultContracts.CreateDocument(ExportFormat.BINARY.getMimeType()),
+        uri -> onExportTarget(uri, ExportFormat.BINARY));
     
     @Nullable
     @Override
@@ -65,11 +91,22 @@ public class WeeklyStatsFragment extends Fragment {
         observeData();
     }
     
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        // The export itself lives in the view model; only its snackbar goes with the view
+        exportSnackbar = null;
+    }
+    
     private void initViews(View view) {
         temperatureChart = view.findViewById(R.id.temperature_chart);
+        chartRangeGroup = view.findViewById(R.id.chart_range_group);
+        percentileChart = view.findViewById(R.id.percentile_chart);
+        tvPercentileSummary = view.findViewById(R.id.tv_percentile_summary);
         recyclerView = view.findViewById(R.id.recycler_view);
         tvNoData = view.findViewById(R.id.tv_no_data);
         btnRefresh = view.findViewById(R.id.btn_refresh);
+        btnExport = view.findViewById(R.id.btn_export);
     }
     
     private void initViewModel() {
@@ -80,6 +117,20 @@ public class WeeklyStatsFragment extends Fragment {
         adapter = new WeatherListAdapter();
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) rv.getLayoutManager();
+                if (layoutManager == null) {
+                    return;
+                }
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    viewModel.loadOlderHistory();
+                } else if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= PREFETCH_DISTANCE) {
+                    viewModel.loadNewerHistory();
+                }
+            }
+        });
     }
     
     private void setupChart() {
@@ -95,62 +146,120 @@ public class WeeklyStatsFragment extends Fragment {
         XAxis xAxis = temperatureChart.getXAxis();
         xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
         xAxis.setGranularity(1f);
+        
+        // Temperature on the left axis, humidity on the right
+        percentileChart.setTouchEnabled(true);
+        percentileChart.setDragEnabled(true);
+        percentileChart.setScaleEnabled(true);
+        percentileChart.setPinchZoom(true);
+        percentileChart.getDescription().setEnabled(false);
+        percentileChart.getXAxis().setPosition(XAxis.XAxisPosition.BOTTOM);
+        percentileChart.getXAxis().setLabelCount(5);
+        percentileChart.getAxisRight().setEnabled(true);
+        percentileChart.getAxisRight().setAxisMinimum(0f);
+        percentileChart.getAxisRight().setAxisMaximum(100f);
     }
     
     private void setupClickListeners() {
         btnRefresh.setOnClickListener(v -> viewModel.refreshWeeklyData());
+        btnExport.setOnClickListener(v -> chooseExportFormat());
+        chartRangeGroup.addOnButtonCheckedListener((group, checkedId, isChecked) -> {
+            if (isChecked) {
+                viewModel.setChartRange(rangeForButton(checkedId));
+            }
+        });
     }
     
     private void observeData() {
-        viewModel.getWeeklyWeatherData().observe(getViewLifecycleOwner(), weatherList -> {
-            if (weatherList != null && !weatherList.isEmpty()) {
-                tvNoData.setVisibility(View.GONE);
-                recyclerView.setVisibility(View.VISIBLE);
+        viewModel.getChartRange().observe(getViewLifecycleOwner(), range -> {
+            Description description = new Description();
+            description.setText(range.getDescription());
+            temperatureChart.setDescription(description);
+            // Keeps the toggle in sync when the view is recreated
+            chartRangeGroup.check(buttonForRange(range));
+        });
+        
+        viewModel.getChart().observe(getViewLifecycleOwner(), series -> {
+            if (series != null && !series.isEmpty()) {
                 temperatureChart.setVisibility(View.VISIBLE);
-                
-                adapter.setWeatherList(weatherList);
-                updateChart(weatherList);
+                updateChart(series);
             } else {
-                tvNoData.setVisibility(View.VISIBLE);
-                recyclerView.setVisibility(View.GONE);
                 temperatureChart.setVisibility(View.GONE);
             }
         });
-    }
-    
-    private void updateChart(List<WeatherEntity> weatherList) {
-        if (weatherList == null || weatherList.isEmpty()) {
-            return;
-        }
         
-        // Group data by day and calculate daily averages
-        Map<String, List<Double>> dailyTemperatures = new HashMap<>();
-        SimpleDateFormat dayFormat = new SimpleDateFormat("MMM dd", Locale.getDefault());
+        viewModel.getPercentileBands().observe(getViewLifecycleOwner(), bands -> {
+            if (bands != null && !bands.isEmpty()) {
+                percentileChart.setVisibility(View.VISIBLE);
+                updatePercentileChart(bands);
+            } else {
+                percentileChart.setVisibility(View.GONE);
+                tvPercentileSummary.setText("No percentile data for this range");
+            }
+        });
         
-        for (WeatherEntity weather : weatherList) {
-            String day = dayFormat.format(new Date(weather.getTimestamp()));
-            dailyTemperatures.computeIfAbsent(day, k -> new ArrayList<>()).add(weather.getTemperature());
-        }
+        // The records list pages through the full history independently of the chart window
+        viewModel.getHistory().observe(getViewLifecycleOwner(), history -> {
+            if (history != null && !history.isEmpty()) {
+                tvNoData.setVisibility(View.GONE);
+                recyclerView.setVisibility(View.VISIBLE);
+                adapter.submitList(history);
+            } else {
+                tvNoData.setVisibility(View.VISIBLE);
+                recyclerView.setVisibility(View.GONE);
+            }
+        });
         
-        // Create chart entries
-        List<Entry> entries = new ArrayList<>();
-        List<String> labels = new ArrayList<>();
-        int index = 0;
+        viewModel.getExportStatus().observe(getViewLifecycleOwner(), status -> {
+            if (exportSnackbar != null && status != null) {
+                exportSnackbar.setText(status);
+            }
+        });
         
-        // Sort by date (last 7 days)
-        Calendar calendar = Calendar.getInstance();
-        for (int i = 6; i >= 0; i--) {
-            calendar.add(Calendar.DAY_OF_YEAR, -i);
-            String day = dayFormat.format(calendar.getTime());
-            calendar.add(Calendar.DAY_OF_YEAR, i); // Reset
-            
-            if (dailyTemperatures.containsKey(day)) {
-                List<Double> temps = dailyTemperatures.get(day);
-                double avgTemp = temps.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-                entries.add(new Entry(index, (float) avgTemp));
+        viewModel.isExporting().observe(getViewLifecycleOwner(), exporting -> {
+            btnExport.setEnabled(!exporting);
+            if (exporting && exportSnackbar == null) {
+                exportSnackbar = Snackbar.make(requireView(), "Exporting…", Snackbar.LENGTH_INDEFINITE)
+                    .setAction("Cancel", v -> viewModel.cancelExport());
+                exportSnackbar.show();
+            } else if (!exporting && exportSnackbar != null) {
+                // Only an export watched by this view reports its outcome
+                exportSnackbar.dismiss();
+                exportSnackbar = null;
+                Toast.makeText(getContext(), viewModel.getExportStatus().getValue(), Toast.LENGTH_LONG).show();
             }
-            labels.add(day);
-            index++;
+        });
+    }
+    
+    // Exports the selected chart range for every city
+    private void chooseExportFormat() {
+        String[] formats = {"CSV (spreadsheets)", "Binary (compact)"};
+        new MaterialAlertDialogBuilder(requireContext())
+            .setTitle("Export history")
+            .setItems(formats, (dialog, which) -> {
+                ExportFormat format = which == 0 ? ExportFormat.CSV : ExportFormat.BINARY;
+                String name = "weather-"
+                    + new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date())
+                    + "." + format.getExtension();
+                (format == ExportFormat.CSV ? exportCsv : exportBinary).launch(name);
+            })
+            .show();
+    }
+    
+    private void onExportTarget(Uri uri, ExportFormat format) {
+        // Null when the user backed out of the picker
+        if (uri != null) {
+            viewModel.exportHistory(uri, format);
+        }
+    }
+    
+    private void updateChart(ChartSeries series) {
+        // Averages and labels arrive precomputed from the view model
+        float[] x = series.getX();
+        float[] y = series.getY();
+        List<Entry> entries = new ArrayList<>(x.length);
+        for (int i = 0; i < x.length; i++) {
+            entries.add(new Entry(x[i], y[i]));
         }
         
         if (!entries.isEmpty()) {
@@ -160,15 +269,114 @@ public class WeeklyStatsFragment extends Fragment {
             dataSet.setLineWidth(2f);
             dataSet.setCircleRadius(4f);
             dataSet.setValueTextSize(10f);
+            // Downsampled long ranges are drawn as a plain line
+            dataSet.setDrawCircles(!series.hasTimeAxis());
+            dataSet.setDrawValues(!series.hasTimeAxis());
             
             LineData lineData = new LineData(dataSet);
             temperatureChart.setData(lineData);
             
             XAxis xAxis = temperatureChart.getXAxis();
-            xAxis.setValueFormatter(new IndexAxisValueFormatter(labels));
-            xAxis.setLabelCount(labels.size());
+            if (series.hasTimeAxis()) {
+                xAxis.setValueFormatter(new TimeAxisFormatter(series));
+                xAxis.setLabelCount(5);
+            } else {
+                String[] labels = series.getLabels();
+                xAxis.setValueFormatter(new IndexAxisValueFormatter(labels));
+                xAxis.setLabelCount(labels.length);
+            }
             
+            temperatureChart.fitScreen();
             temperatureChart.invalidate(); // Refresh chart
         }
     }
+    
+    private void updatePercentileChart(PercentileBands bands) {
+        int temperatureColor = Color.BLUE;
+        int humidityColor = Color.rgb(0, 150, 136);
+        LineData lineData = new LineData();
+        String[] names = {"p10", "p50", "p90"};
+        for (int k = 0; k < PercentileBands.QUANTILES.length; k++) {
+            // The median is drawn solid, the outer percentiles as thin bounds
+            boolean median = k == 1;
+            lineData.addDataSet(bandDataSet(bands.getTemperature(k), "Temp " + names[k],
+                temperatureColor, median, YAxis.AxisDependency.LEFT));
+            lineData.addDataSet(bandDataSet(bands.getHumidity(k), "Humidity " + names[k],
+                humidityColor, median, YAxis.AxisDependency.RIGHT));
+        }
+        percentileChart.setData(lineData);
+        percentileChart.getXAxis().setValueFormatter(new TimeAxisFormatter(bands.getTemperature(1)));
+        
+        tvPercentileSummary.setText(String.format(Locale.getDefault(),
+            "Range: %.1f / %.1f / %.1f °F   %.0f / %.0f / %.0f %% humidity",
+            bands.getRangeTemperature(0), bands.getRangeTemperature(1), bands.getRangeTemperature(2),
+            bands.getRangeHumidity(0), bands.getRangeHumidity(1), bands.getRangeHumidity(2)));
+        
+        percentileChart.fitScreen();
+        percentileChart.invalidate();
+    }
+    
+    private static LineDataSet bandDataSet(ChartSeries series, String label, int color,
+                                           boolean median, YAxis.AxisDependency axis) {
+        float[] x = series.getX();
+        float[] y = series.getY();
+        List<Entry> entries = new ArrayList<>(x.length);
+        for (int i = 0; i < x.length; i++) {
+            if (!Float.isNaN(y[i])) {
+                entries.add(new Entry(x[i], y[i]));
+            }
+        }
+        LineDataSet dataSet = new LineDataSet(entries, label);
+        dataSet.setAxisDependency(axis);
+        dataSet.setColor(color, median ? 255 : 110);
+        dataSet.setLineWidth(median ? 2f : 1f);
+        if (!median) {
+            dataSet.enableDashedLine(8f, 6f, 0f);
+        }
+        dataSet.setDrawCircles(false);
+        dataSet.setDrawValues(false);
+        return dataSet;
+    }
+    
+    private static ChartRange rangeForButton(int buttonId) {
+        if (buttonId == R.id.btn_range_month) {
+            return ChartRange.MONTH;
+        } else if (buttonId == R.id.btn_range_year) {
+            return ChartRange.YEAR;
+        } else if (buttonId == R.id.btn_range_all) {
+            return ChartRange.ALL;
+        }
+        return ChartRange.WEEK;
+    }
+    
+    private static int buttonForRange(ChartRange range) {
+        switch (range) {
+            case MONTH:
+                return R.id.btn_range_month;
+            case YEAR:
+                return R.id.btn_range_year;
+            case ALL:
+                return R.id.btn_range_all;
+            default:
+                return R.id.btn_range_week;
+        }
+    }
+    
+    // Formats axis positions of a time series back into dates; only the few
+    // visible axis labels go through here, never the data points.
+    private static class TimeAxisFormatter extends ValueFormatter {
+        private final ChartSeries series;
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd ''yy", Locale.getDefault());
+        private final Date date = new Date();
+        
+        TimeAxisFormatter(ChartSeries series) {
+            this.series = series;
+        }
+        
+        @Override
+        public String getFormattedValue(float value) {
+            date.setTime(series.timeAt(value));
+            return dateFormat.format(date);
+        }
+    }
 }
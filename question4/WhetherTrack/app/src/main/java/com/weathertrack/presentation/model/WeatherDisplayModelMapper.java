@@ -0,0 +1,84 @@
+package com.weathertrack.presentation.model;
+
+import com.weathertrack.R;
+import com.weathertrack.data.local.entity.WeatherEntity;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Formats entities into display models. Call from a background thread; models
+// from the previous call are reused for unchanged rows, so re-publishing a
+// page only formats the rows that are new.
+public class WeatherDisplayModelMapper {
+    
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, HH:mm", Locale.getDefault());
+    private final Date date = new Date();
+    private Map<Integer, WeatherDisplayModel> previous = new HashMap<>();
+
+    public synchronized List<WeatherDisplayModel> mapAll(List<WeatherEntity> entities) {
+        List<WeatherDisplayModel> models = new ArrayList<>(entities.size());
+        Map<Integer, WeatherDisplayModel> current = new HashMap<>(entities.size() * 2);
+        for (WeatherEntity entity : entities) {
+            WeatherDisplayModel model = previous.get(entity.getId());
+            if (model == null || model.getTimestamp() != entity.getTimestamp()) {
+                model = format(entity);
+            }
+            models.add(model);
+            current.put(entity.getId(), model);
+        }
+        previous = current;
+        return models;
+    }
+
+    public synchronized WeatherDisplayModel map(WeatherEntity entity) {
+        return entity != null ? format(entity) : null;
+    }
+
+    private WeatherDisplayModel format(WeatherEntity entity) {
+        date.setTime(entity.getTimestamp());
+        String condition = entity.getCondition();
+        return new WeatherDisplayModel(
+            entity.getId(),
+            entity.getTimestamp(),
+            String.format(Locale.getDefault(), "%.1f°F", entity.getTemperature()),
+            String.format(Locale.getDefault(), "%d%%", entity.getHumidity()),
+            condition,
+            entity.getCity(),
+            dateFormat.format(date),
+            iconFor(condition),
+            backgroundFor(condition)
+        );
+    }
+
+    private static int iconFor(String condition) {
+        if (isSunny(condition)) {
+            return R.drawable.ic_sunny;
+        } else if (isRainy(condition)) {
+            return R.drawable.ic_rainy;
+        }
+        return R.drawable.ic_cloudy;
+    }
+
+    private static int backgroundFor(String condition) {
+        if (isSunny(condition)) {
+            return R.drawable.gradient_sunny;
+        } else if (isRainy(condition)) {
+            return R.drawable.gradient_rainy;
+        }
+        return R.drawable.gradient_cloudy;
+    }
+
+    private static boolean isSunny(String condition) {
+        String lower = condition != null ? condition.toLowerCase(Locale.ROOT) : "";
+        return lower.contains("sunny") || lower.contains("clear");
+    }
+
+    private static boolean isRainy(String condition) {
+        return condition != null && condition.toLowerCase(Locale.ROOT).contains("rain");
+    }
+}
@@ -0,0 +1,38 @@
+package com.weathertrack.presentation.viewmodel;
+
+import androidx.arch.core.util.Function;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import java.util.concurrent.Executor;
+
+// Like Transformations.map, but the mapping runs on the given executor instead
+// of the main thread. Only the result for the most recent source value is
+// posted, so a slow mapping never overwrites a newer one.
+final class BackgroundTransformations {
+
+    private BackgroundTransformations() {
+    }
+
+    static <X, Y> LiveData<Y> map(LiveData<X> source, Executor executor, Function<X, Y> mapper) {
+        MediatorLiveData<Y> result = new MediatorLiveData<>();
+        Object lock = new Object();
+        long[] generation = new long[1];
+        
+        result.addSource(source, value -> {
+            long current;
+            synchronized (lock) {
+                current = ++generation[0];
+            }
+            executor.execute(() -> {
+                Y mapped = mapper.apply(value);
+                synchronized (lock) {
+                    if (generation[0] == current) {
+                        result.postValue(mapped);
+                    }
+                }
+            });
+        });
+        return result;
+    }
+}
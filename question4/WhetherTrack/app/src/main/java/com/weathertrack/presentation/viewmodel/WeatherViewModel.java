@@ -6,11 +6,15 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 
 import com.weathertrack.background.WeatherSyncScheduler;
+import com.weathertrack.data.executor.AppExecutors;
 import com.weathertrack.data.local.entity.WeatherEntity;
 import com.weathertrack.data.repository.WeatherRepository;
 import com.weathertrack.domain.model.WeatherModel;
+import com.weathertrack.presentation.model.WeatherDisplayModel;
+import com.weathertrack.presentation.model.WeatherDisplayModelMapper;
 
 import java.util.List;
 
@@ -19,12 +23,18 @@ public class WeatherViewModel extends AndroidViewModel {
     private final WeatherRepository repository;
     private final MutableLiveData<String> currentCity;
     private final MutableLiveData<String> statusMessage;
+    private final LiveData<WeatherEntity> latestWeather;
+    private final LiveData<WeatherDisplayModel> latestWeatherDisplay;
     
     public WeatherViewModel(@NonNull Application application) {
         super(application);
-        this.repository = new WeatherRepository(application);
+        this.repository = WeatherRepository.getInstance(application);
         this.currentCity = new MutableLiveData<>("New York");
         this.statusMessage = new MutableLiveData<>();
+        this.latestWeather = Transformations.switchMap(currentCity, repository::getLatestWeather);
+        WeatherDisplayModelMapper mapper = new WeatherDisplayModelMapper();
+        this.latestWeatherDisplay = BackgroundTransformations.map(latestWeather,
+            AppExecutors.getInstance().compute(), mapper::map);
         
         // Schedule background sync when ViewModel is created
         scheduleBackgroundSync();
@@ -75,7 +85,11 @@ public class WeatherViewModel extends AndroidViewModel {
 
     // LiveData getters
     public LiveData<WeatherEntity> getLatestWeather() {
-        return repository.getLatestWeather();
+        return latestWeather;
+    }
+
+    public LiveData<WeatherDisplayModel> getLatestWeatherDisplay() {
+        return latestWeatherDisplay;
     }
 
     public LiveData<List<WeatherEntity>> getAllWeather() {
@@ -1,6 +1,9 @@
 package com.weathertrack.presentation.viewmodel;
 
 import android.app.Application;
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.provider.DocumentsContract;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
@@ -8,38 +11,130 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
 
+import com.weathertrack.data.executor.AppExecutors;
+import com.weathertrack.data.export.ExportFormat;
+import com.weathertrack.data.export.ExportResult;
 import com.weathertrack.data.local.dao.WeatherDao;
 import com.weathertrack.data.local.entity.WeatherEntity;
+import com.weathertrack.data.repository.WeatherHistoryPager;
 import com.weathertrack.data.repository.WeatherRepository;
+import com.weathertrack.data.repository.WeatherWindowStream;
+import com.weathertrack.data.repository.WindowDelta;
+import com.weathertrack.domain.model.DailyWeatherSummary;
+import com.weathertrack.presentation.model.ChartRange;
+import com.weathertrack.presentation.model.ChartSeries;
+import com.weathertrack.presentation.model.LttbDownsampler;
+import com.weathertrack.presentation.model.PercentileBandAggregator;
+import com.weathertrack.presentation.model.PercentileBands;
+import com.weathertrack.presentation.model.WeatherDisplayModel;
+import com.weathertrack.presentation.model.WeatherDisplayModelMapper;
+import com.weathertrack.presentation.model.WeeklyChartAggregator;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Calendar;
 import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class WeeklyStatsViewModel extends AndroidViewModel {
     
+    private static final int CHART_DAYS = 7;
+    // Longer ranges are downsampled to roughly what a phone-width chart can show
+    private static final int CHART_TARGET_POINTS = 400;
+    private static final long HOUR_MILLIS = 60L * 60 * 1000;
+    
     private final WeatherRepository repository;
     private final MutableLiveData<Long> weekStartTime;
+    private final WeatherHistoryPager historyPager;
+    private final LiveData<List<WeatherDisplayModel>> history;
+    private final MutableLiveData<ChartSeries> weeklyChart;
+    private final WeatherWindowStream recentWeather;
+    private final WeatherWindowStream.Listener weekListener = this::onRecentWeatherChanged;
+    // Only touched from the stream's listener callbacks, which run one at a time
+    private WeeklyChartAggregator weekAggregator;
+    private final MutableLiveData<ChartRange> chartRange;
+    private final LiveData<ChartSeries> chart;
+    private final LiveData<PercentileBands> percentileBands;
+    private final MutableLiveData<Boolean> exporting = new MutableLiveData<>(false);
+    private final MutableLiveData<String> exportStatus = new MutableLiveData<>();
+    private final AtomicBoolean exportCancelled = new AtomicBoolean();
     
     public WeeklyStatsViewModel(@NonNull Application application) {
         super(application);
-        this.repository = new WeatherRepository(application);
+        this.repository = WeatherRepository.getInstance(application);
         this.weekStartTime = new MutableLiveData<>();
         
         // Set initial week start time (7 days ago)
         Calendar calendar = Calendar.getInstance();
         calendar.add(Calendar.DAY_OF_YEAR, -7);
         weekStartTime.setValue(calendar.getTimeInMillis());
+        
+        // The weekly chart follows the recent-weather stream: each new reading
+        // updates one day's sum instead of re-reading and re-averaging the week
+        this.weeklyChart = new MutableLiveData<>();
+        this.recentWeather = repository.getRecentWeatherStream();
+        recentWeather.addListener(weekListener);
+        
+        this.chartRange = new MutableLiveData<>(ChartRange.WEEK);
+        this.chart = Transformations.switchMap(chartRange, range ->
+            range == ChartRange.WEEK ? weeklyChart : rangeChart(range)
+        );
+        // Bands merge one stored sketch per city per day, so every range reads
+        // a few hundred bytes per day rather than sorting raw rows
+        this.percentileBands = Transformations.switchMap(chartRange, range ->
+            BackgroundTransformations.map(
+                repository.getDailySketchesSince(range.startTime(System.currentTimeMillis())),
+                AppExecutors.getInstance().compute(), WeeklyStatsViewModel::aggregateBands)
+        );
+        
+        this.historyPager = repository.createHistoryPager();
+        historyPager.refresh();
+        
+        // Rows are formatted on the compute lane so the adapter only assigns text
+        WeatherDisplayModelMapper mapper = new WeatherDisplayModelMapper();
+        this.history = BackgroundTransformations.map(historyPager.getItems(),
+            AppExecutors.getInstance().compute(), mapper::mapAll);
     }
 
-    public LiveData<List<WeatherEntity>> getWeeklyWeatherData() {
-        return Transformations.switchMap(weekStartTime, startTime -> 
-            repository.getWeatherSince(startTime)
-        );
+    public LiveData<ChartSeries> getWeeklyChart() {
+        return weeklyChart;
     }
 
-    public LiveData<List<WeatherDao.DailyWeatherSummary>> getDailyAverages() {
+    public LiveData<ChartSeries> getChart() {
+        return chart;
+    }
+
+    public LiveData<PercentileBands> getPercentileBands() {
+        return percentileBands;
+    }
+
+    public LiveData<ChartRange> getChartRange() {
+        return chartRange;
+    }
+
+    public void setChartRange(ChartRange range) {
+        if (range != chartRange.getValue()) {
+            chartRange.setValue(range);
+        }
+    }
+
+    public LiveData<List<WeatherDisplayModel>> getHistory() {
+        return history;
+    }
+
+    public void loadOlderHistory() {
+        historyPager.loadOlder();
+    }
+
+    public void loadNewerHistory() {
+        historyPager.loadNewer();
+    }
+
+    public LiveData<List<DailyWeatherSummary>> getDailyAverages() {
         return Transformations.switchMap(weekStartTime, startTime ->
-            repository.getDailyAveragesForWeek(startTime)
+            repository.getDailySummariesForWeek(startTime)
         );
     }
 
@@ -53,9 +148,160 @@ public class WeeklyStatsViewModel extends AndroidViewModel {
         if (currentStartTime != null) {
             weekStartTime.setValue(currentStartTime);
         }
+        // Re-resolve the selected range so its start time moves with the clock
+        chartRange.setValue(chartRange.getValue());
+        recentWeather.resync();
+        historyPager.refresh();
     }
 
     public LiveData<Long> getWeekStartTime() {
         return weekStartTime;
     }
+
+    public LiveData<Boolean> isExporting() {
+        return exporting;
+    }
+
+    public LiveData<String> getExportStatus() {
+        return exportStatus;
+    }
+
+    // Exports the chart range on the export lane, which holds at most one
+    // reader and leaves dbRead to Room's queries; a cancelled or failed export
+    // deletes the partial document.
+    public void exportHistory(Uri uri, ExportFormat format) {
+        if (Boolean.TRUE.equals(exporting.getValue())) {
+            return;
+        }
+        exporting.setValue(true);
+        exportCancelled.set(false);
+        ChartRange range = chartRange.getValue() != null ? chartRange.getValue() : ChartRange.WEEK;
+        long now = System.currentTimeMillis();
+        long startTime = range.startTime(now);
+        ContentResolver resolver = getApplication().getContentResolver();
+        AppExecutors.getInstance().export().execute(() -> {
+            String status;
+            boolean complete = false;
+            try (OutputStream out = resolver.openOutputStream(uri, "wt")) {
+                if (out == null) {
+                    throw new IOException("Could not open " + uri);
+                }
+                ExportResult result = repository.exportWeather(null, startTime, now + 1, format, out,
+                    (rows, expectedRows) -> exportStatus.postValue(progressText(rows, expectedRows)),
+                    exportCancelled::get);
+                complete = !result.isCancelled();
+                status = complete
+                    ? String.format(Locale.getDefault(), "Exported %,d readings", result.getRows())
+                    : "Export cancelled";
+            } catch (IOException | RuntimeException e) {
+                status = "Export failed: " + e.getMessage();
+            }
+            if (!complete) {
+                deletePartialExport(resolver, uri);
+            }
+            exportStatus.postValue(status);
+            exporting.postValue(false);
+        }, AppExecutors.Priority.BACKGROUND);
+    }
+
+    public void cancelExport() {
+        exportCancelled.set(true);
+    }
+
+    private static String progressText(long rows, long expectedRows) {
+        if (expectedRows > 0) {
+            int percent = (int) Math.min(100, rows * 100 / expectedRows);
+            return String.format(Locale.getDefault(), "Exporting… %d%% (%,d readings)", percent, rows);
+        }
+        return String.format(Locale.getDefault(), "Exporting… %,d readings", rows);
+    }
+
+    private static void deletePartialExport(ContentResolver resolver, Uri uri) {
+        try {
+            DocumentsContract.deleteDocument(resolver, uri);
+        } catch (Exception ignored) {
+            // The provider may not support deletes; the partial file stays
+        }
+    }
+
+    // Month and year plot hourly, all-time daily averages across cities, so
+    // every range is one series however many cities report. All are reduced with LTTB.
+    private LiveData<ChartSeries> rangeChart(ChartRange range) {
+        long startTime = range.startTime(System.currentTimeMillis());
+        LiveData<List<WeatherDao.TemperaturePoint>> points;
+        if (range == ChartRange.MONTH || range == ChartRange.YEAR) {
+            points = repository.getHourlyTemperaturesSince(startTime);
+        } else {
+            points = repository.getDailyTemperaturesSince(startTime);
+        }
+        return BackgroundTransformations.map(points,
+            AppExecutors.getInstance().compute(), WeeklyStatsViewModel::downsample);
+    }
+
+    private static ChartSeries downsample(List<WeatherDao.TemperaturePoint> points) {
+        int count = points != null ? points.size() : 0;
+        long origin = count > 0 ? points.get(0).time : 0;
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            WeatherDao.TemperaturePoint point = points.get(i);
+            x[i] = (double) (point.time - origin) / HOUR_MILLIS;
+            y[i] = point.temperature;
+        }
+        
+        int[] keep = LttbDownsampler.select(x, y, count, CHART_TARGET_POINTS);
+        float[] chartX = new float[keep.length];
+        float[] chartY = new float[keep.length];
+        for (int i = 0; i < keep.length; i++) {
+            chartX[i] = (float) x[keep[i]];
+            chartY[i] = (float) y[keep[i]];
+        }
+        return new ChartSeries(chartX, chartY, origin, HOUR_MILLIS);
+    }
+
+    private static PercentileBands aggregateBands(List<WeatherDao.DailySketch> days) {
+        PercentileBandAggregator aggregator = new PercentileBandAggregator();
+        int count = days != null ? days.size() : 0;
+        for (int i = 0; i < count; i++) {
+            WeatherDao.DailySketch day = days.get(i);
+            aggregator.add(day.bucketStart, day.temperatureSketch, day.humiditySketch);
+        }
+        return aggregator.build();
+    }
+
+    private void onRecentWeatherChanged(WindowDelta<WeatherEntity> delta) {
+        long now = System.currentTimeMillis();
+        if (delta.isReset() || weekAggregator == null || !weekAggregator.coversDayOf(now)) {
+            // A new day shifts every bucket, so start again from the whole window
+            weekAggregator = aggregateWeek(delta.isReset() ? delta.getAppended() : recentWeather.snapshot(), now);
+        } else {
+            List<WeatherEntity> evicted = delta.getEvicted();
+            for (int i = 0, size = evicted.size(); i < size; i++) {
+                weekAggregator.remove(evicted.get(i).getTimestamp(), evicted.get(i).getTemperature());
+            }
+            List<WeatherEntity> appended = delta.getAppended();
+            for (int i = 0, size = appended.size(); i < size; i++) {
+                weekAggregator.add(appended.get(i).getTimestamp(), appended.get(i).getTemperature());
+            }
+        }
+        weeklyChart.postValue(weekAggregator.build());
+    }
+
+    private static WeeklyChartAggregator aggregateWeek(List<WeatherEntity> records, long now) {
+        WeeklyChartAggregator aggregator = new WeeklyChartAggregator(CHART_DAYS,
+            now, TimeZone.getDefault(), Locale.getDefault());
+        for (int i = 0, size = records.size(); i < size; i++) {
+            WeatherEntity record = records.get(i);
+            aggregator.add(record.getTimestamp(), record.getTemperature());
+        }
+        return aggregator;
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        recentWeather.removeListener(weekListener);
+        historyPager.close();
+        cancelExport();
+    }
 }
@@ -0,0 +1,58 @@
+package com.weathertrack.background;
+
+// Chooses the periodic sync interval from how quickly recent readings change.
+// Intervals snap to a fixed ladder so small changes in volatility do not
+// reschedule the periodic work.
+public final class SyncIntervalPolicy {
+    
+    // WorkManager's minimum periodic interval is 15 minutes
+    static final long[] INTERVAL_LADDER_MINUTES = {15, 30, 60, 120, 240, 360, 720};
+    public static final long DEFAULT_INTERVAL_MINUTES = 360;
+    
+    // Mean temperature change (°F per hour) at which we poll fastest / slowest
+    static final double HIGH_VOLATILITY_PER_HOUR = 4.0;
+    static final double LOW_VOLATILITY_PER_HOUR = 0.5;
+    
+    private static final double MILLIS_PER_HOUR = 60 * 60 * 1000.0;
+
+    private SyncIntervalPolicy() {}
+
+    // Mean absolute temperature change per hour between consecutive readings,
+    // oldest first; gaps under an hour count as an hour. NaN below two readings.
+    public static double volatilityPerHour(long[] timestamps, double[] temperatures, int count) {
+        double total = 0;
+        int pairs = 0;
+        for (int i = 1; i < count; i++) {
+            long gap = timestamps[i] - timestamps[i - 1];
+            if (gap <= 0) {
+                continue;
+            }
+            double hours = Math.max(1.0, gap / MILLIS_PER_HOUR);
+            total += Math.abs(temperatures[i] - temperatures[i - 1]) / hours;
+            pairs++;
+        }
+        return pairs > 0 ? total / pairs : Double.NaN;
+    }
+
+    public static long intervalMinutes(double volatilityPerHour) {
+        if (Double.isNaN(volatilityPerHour)) {
+            return DEFAULT_INTERVAL_MINUTES;
+        }
+        if (volatilityPerHour >= HIGH_VOLATILITY_PER_HOUR) {
+            return INTERVAL_LADDER_MINUTES[0];
+        }
+        if (volatilityPerHour <= LOW_VOLATILITY_PER_HOUR) {
+            return INTERVAL_LADDER_MINUTES[INTERVAL_LADDER_MINUTES.length - 1];
+        }
+        // Logarithmic interpolation between the two thresholds
+        double fraction = Math.log(HIGH_VOLATILITY_PER_HOUR / volatilityPerHour)
+            / Math.log(HIGH_VOLATILITY_PER_HOUR / LOW_VOLATILITY_PER_HOUR);
+        int index = (int) Math.round(fraction * (INTERVAL_LADDER_MINUTES.length - 1));
+        return INTERVAL_LADDER_MINUTES[index];
+    }
+
+    // A city whose latest reading is younger than this is skipped by a sync run
+    public static long freshnessWindowMinutes(long intervalMinutes) {
+        return intervalMinutes / 2;
+    }
+}
@@ -0,0 +1,206 @@
+package com.weathertrack.data.executor;
+
+import com.weathertrack.data.metrics.LatencyHistogram;
+import com.weathertrack.data.metrics.MetricsRegistry;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Process-wide executor lanes: dbWrite (the single SQLite writer), dbRead,
+// export (long cursor reads, one at a time, off Room's query lane), network,
+// compute and timer (delayed callbacks only). Read, network and compute run
+// queued tasks in priority order.
+public class AppExecutors {
+    
+    private static final int DB_READ_THREADS = 2;
+    private static final int EXPORT_THREADS = 1;
+    private static final int NETWORK_THREADS = 4;
+    private static final int COMPUTE_THREADS = 2;
+    
+    private static volatile AppExecutors INSTANCE;
+    
+    public enum Priority {
+        UI,
+        BACKGROUND
+    }
+    
+    private final ScheduledThreadPoolExecutor writePool;
+    private final Lane dbWrite;
+    private final Lane dbRead;
+    private final Lane export;
+    private final Lane network;
+    private final Lane compute;
+    private final ScheduledThreadPoolExecutor timer;
+
+    private AppExecutors() {
+        writePool = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("weather-db-write"));
+        dbWrite = new Lane("dbWrite", writePool);
+        dbRead = new Lane("dbRead", newPrioritizedPool("weather-db-read", DB_READ_THREADS));
+        export = new Lane("export", newPrioritizedPool("weather-export", EXPORT_THREADS));
+        network = new Lane("network", newPrioritizedPool("weather-network", NETWORK_THREADS));
+        compute = new Lane("compute", newPrioritizedPool("weather-compute", COMPUTE_THREADS));
+        timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("weather-timer"));
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public static AppExecutors getInstance() {
+        if (INSTANCE == null) {
+            synchronized (AppExecutors.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AppExecutors();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    public Lane dbWrite() {
+        return dbWrite;
+    }
+
+    // Same thread as dbWrite, for delayed work such as write-behind flushes
+    public ScheduledExecutorService dbWriteScheduler() {
+        return writePool;
+    }
+
+    public Lane dbRead() {
+        return dbRead;
+    }
+
+    public Lane export() {
+        return export;
+    }
+
+    public Lane network() {
+        return network;
+    }
+
+    public Lane compute() {
+        return compute;
+    }
+
+    public ScheduledExecutorService timer() {
+        return timer;
+    }
+
+    public String describe() {
+        return dbWrite.describe() + ", " + dbRead.describe() + ", " + export.describe()
+            + ", " + network.describe() + ", " + compute.describe();
+    }
+
+    private static ThreadPoolExecutor newPrioritizedPool(String name, int threads) {
+        return new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(),
+            new NamedThreadFactory(name)
+        );
+    }
+
+    public static class Lane implements Executor {
+        private final String name;
+        private final ThreadPoolExecutor pool;
+        private final AtomicLong sequence = new AtomicLong();
+        private final LatencyHistogram waitTime;
+        private final LatencyHistogram runTime;
+
+        Lane(String name, ThreadPoolExecutor pool) {
+            this.name = name;
+            this.pool = pool;
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            waitTime = metrics.histogram("executor." + name + ".wait");
+            runTime = metrics.histogram("executor." + name + ".run");
+        }
+
+        // Untagged work (e.g. Room LiveData refreshes) runs at UI priority
+        @Override
+        public void execute(Runnable command) {
+            execute(command, Priority.UI);
+        }
+
+        public void execute(Runnable command, Priority priority) {
+            // The write pool's delay queue ignores the ordering and stays FIFO
+            pool.execute(new PrioritizedTask(this, command, priority, sequence.getAndIncrement()));
+        }
+
+        // Executor view that submits everything at the given priority
+        public Executor at(Priority priority) {
+            return command -> execute(command, priority);
+        }
+
+        public int getQueueDepth() {
+            return pool.getQueue().size();
+        }
+
+        public int getActiveCount() {
+            return pool.getActiveCount();
+        }
+
+        public int getMaxThreads() {
+            return pool.getMaximumPoolSize();
+        }
+
+        public String describe() {
+            return name + "[active=" + getActiveCount() + "/" + getMaxThreads()
+                + ", queued=" + getQueueDepth() + "]";
+        }
+    }
+
+    // FIFO within a priority, UI ahead of BACKGROUND
+    private static class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        private final Lane lane;
+        private final Runnable command;
+        private final Priority priority;
+        private final long sequence;
+        private final long enqueuedAt = System.nanoTime();
+
+        PrioritizedTask(Lane lane, Runnable command, Priority priority, long sequence) {
+            this.lane = lane;
+            this.command = command;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            long startedAt = System.nanoTime();
+            lane.waitTime.recordNanos(startedAt - enqueuedAt);
+            try {
+                command.run();
+            } finally {
+                lane.runTime.recordNanos(System.nanoTime() - startedAt);
+            }
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
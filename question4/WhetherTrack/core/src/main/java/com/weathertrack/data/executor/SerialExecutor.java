@@ -0,0 +1,51 @@
+package com.weathertrack.data.executor;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+// Runs tasks one at a time, in submission order, on a shared lane. State
+// confined to it needs no lock and holds no thread of its own while idle.
+public final class SerialExecutor implements Executor {
+    
+    private final Executor executor;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    
+    // Guarded by tasks
+    private boolean running;
+
+    public SerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        synchronized (tasks) {
+            tasks.addLast(command);
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        executor.execute(this::runNext);
+    }
+
+    // One task per hop, so other work on the lane is not starved
+    private void runNext() {
+        Runnable task;
+        synchronized (tasks) {
+            task = tasks.pollFirst();
+        }
+        try {
+            task.run();
+        } finally {
+            boolean more;
+            synchronized (tasks) {
+                more = !tasks.isEmpty();
+                running = more;
+            }
+            if (more) {
+                executor.execute(this::runNext);
+            }
+        }
+    }
+}
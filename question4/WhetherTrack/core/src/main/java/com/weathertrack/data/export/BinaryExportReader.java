@@ -0,0 +1,100 @@
+package com.weathertrack.data.export;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// Reads WeatherExporter's BINARY format back, one row at a time, without
+// materialising the file. The stream should be buffered by the caller.
+public class BinaryExportReader {
+
+    public interface RowHandler {
+        void onRow(long timestamp, String city, double temperature, int humidity, int conditionCode);
+    }
+
+    private final InputStream in;
+    private final Map<Integer, String> cities = new HashMap<>();
+
+    public BinaryExportReader(InputStream in) {
+        this.in = in;
+    }
+
+    // Returns the row count; throws EOFException for a truncated (e.g.
+    // cancelled) export after handing over the rows it did contain
+    public long read(RowHandler handler) throws IOException {
+        int magic = (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        int version = readByte();
+        if (magic != WeatherExporter.MAGIC || version != WeatherExporter.VERSION) {
+            throw new IOException("Not a weather export");
+        }
+        long rows = 0;
+        long timestamp = 0;
+        while (true) {
+            int tag = readByte();
+            switch (tag) {
+                case WeatherExporter.TAG_CITY: {
+                    int id = (int) readVarLong();
+                    byte[] name = new byte[(int) readVarLong()];
+                    readFully(name);
+                    cities.put(id, new String(name, StandardCharsets.UTF_8));
+                    break;
+                }
+                case WeatherExporter.TAG_READING: {
+                    timestamp += unzigzag(readVarLong());
+                    int cityId = (int) readVarLong();
+                    double temperature = unzigzag(readVarLong()) / 100.0;
+                    int humidity = readByte();
+                    int conditionCode = readByte();
+                    handler.onRow(timestamp, cities.get(cityId), temperature, humidity, conditionCode);
+                    rows++;
+                    break;
+                }
+                case WeatherExporter.TAG_END:
+                    if (readVarLong() != rows) {
+                        throw new IOException("Row count mismatch");
+                    }
+                    return rows;
+                default:
+                    throw new IOException("Unknown tag " + tag);
+            }
+        }
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    private void readFully(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            int read = in.read(bytes, offset, bytes.length - offset);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            offset += read;
+        }
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,24 @@
+package com.weathertrack.data.export;
+
+// CSV for spreadsheets; BINARY is WeatherExporter's compact delta format,
+// read back by BinaryExportReader
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    BINARY("application/octet-stream", "wtx");
+
+    private final String mimeType;
+    private final String extension;
+
+    ExportFormat(String mimeType, String extension) {
+        this.mimeType = mimeType;
+        this.extension = extension;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
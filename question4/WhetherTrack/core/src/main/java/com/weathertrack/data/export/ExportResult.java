@@ -0,0 +1,36 @@
+package com.weathertrack.data.export;
+
+public class ExportResult {
+    private final long rows;
+    private final long bytes;
+    private final long elapsedMillis;
+    private final boolean cancelled;
+
+    public ExportResult(long rows, long bytes, long elapsedMillis, boolean cancelled) {
+        this.rows = rows;
+        this.bytes = bytes;
+        this.elapsedMillis = elapsedMillis;
+        this.cancelled = cancelled;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // A cancelled export stopped part-way; its output is incomplete
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis > 0 ? rows * 1000.0 / elapsedMillis : rows;
+    }
+}
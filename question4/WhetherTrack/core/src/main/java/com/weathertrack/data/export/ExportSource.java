@@ -0,0 +1,21 @@
+package com.weathertrack.data.export;
+
+import java.io.Closeable;
+
+// Forward-only rows for an export, shaped like a database cursor: the
+// getters describe the current row after moveToNext() returned true.
+// Implementations should hold no more than a window of rows at a time.
+public interface ExportSource extends Closeable {
+
+    boolean moveToNext();
+
+    long getTimestamp();
+
+    int getCityId();
+
+    double getTemperature();
+
+    int getHumidity();
+
+    int getConditionCode();
+}
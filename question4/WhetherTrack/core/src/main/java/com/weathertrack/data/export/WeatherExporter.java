@@ -0,0 +1,299 @@
+package com.weathertrack.data.export;
+
+import com.weathertrack.domain.model.WeatherCondition;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+
+// Streams rows from ExportSources into an OutputStream through one reused
+// buffer, so the heap stays flat however many rows are exported.
+//
+// CSV: a header line, then timestamp (ISO-8601 UTC), city, temperature (°F,
+// two decimals), humidity (%) and condition per line.
+//
+// BINARY: magic "WTEX", version, then tagged entries:
+//   CITY     id, name length, UTF-8 name (before the first reading of the city)
+//   READING  zigzag timestamp delta from the previous reading, city id,
+//            zigzag temperature in hundredths, humidity byte, condition byte
+//   END      row count; missing when the export was cancelled
+// All integers are varints. A minute-interval series costs about 9 bytes a row.
+public class WeatherExporter {
+
+    static final int MAGIC = 0x57544558; // "WTEX"
+    static final int VERSION = 1;
+    static final int TAG_END = 0;
+    static final int TAG_CITY = 1;
+    static final int TAG_READING = 2;
+
+    // Rows between progress reports and cancellation checks
+    private static final int PROGRESS_INTERVAL = 4096;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final byte[] EMPTY = new byte[0];
+    private static final byte[] CSV_HEADER =
+        "timestamp,city,temperature_f,humidity_pct,condition\n".getBytes(StandardCharsets.UTF_8);
+
+    public interface ProgressListener {
+        // expectedRows is -1 when unknown; it is an estimate, rows may exceed it
+        void onProgress(long rows, long expectedRows);
+    }
+
+    private final IntFunction<String> cityNames;
+    private byte[][] encodedCities = new byte[16][];
+    private final byte[][] encodedConditions = new byte[256][];
+    private byte[] buffer;
+    private int position;
+    private long bytesWritten;
+    private OutputStream out;
+    private long previousTimestamp;
+
+    public WeatherExporter(IntFunction<String> cityNames) {
+        this.cityNames = cityNames;
+    }
+
+    // Sources are exported one after the other and are not closed here.
+    // Not thread-safe; use one exporter per export.
+    public ExportResult export(List<? extends ExportSource> sources, long expectedRows, ExportFormat format,
+                               OutputStream out, ProgressListener listener, BooleanSupplier cancelled)
+            throws IOException {
+        long startTime = System.nanoTime();
+        this.out = out;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.position = 0;
+        this.bytesWritten = 0;
+        this.previousTimestamp = 0;
+        Arrays.fill(encodedCities, null);
+        Arrays.fill(encodedConditions, null);
+
+        boolean csv = format == ExportFormat.CSV;
+        if (csv) {
+            writeBytes(CSV_HEADER);
+        } else {
+            writeInt(MAGIC);
+            writeByte(VERSION);
+        }
+
+        long rows = 0;
+        boolean stopped = false;
+        for (ExportSource source : sources) {
+            while (!stopped && source.moveToNext()) {
+                if (csv) {
+                    writeCsvRow(source);
+                } else {
+                    writeBinaryRow(source);
+                }
+                if (++rows % PROGRESS_INTERVAL == 0) {
+                    if (listener != null) {
+                        listener.onProgress(rows, expectedRows);
+                    }
+                    stopped = cancelled != null && cancelled.getAsBoolean();
+                }
+            }
+        }
+        if (!stopped && !csv) {
+            writeByte(TAG_END);
+            writeVarLong(rows);
+        }
+        flushBuffer();
+        out.flush();
+        if (listener != null && !stopped) {
+            listener.onProgress(rows, expectedRows);
+        }
+
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        this.out = null;
+        this.buffer = null;
+        return new ExportResult(rows, bytesWritten, elapsedMillis, stopped);
+    }
+
+    private void writeCsvRow(ExportSource row) throws IOException {
+        writeIsoTimestamp(row.getTimestamp());
+        writeByte(',');
+        writeBytes(csvCity(row.getCityId()));
+        writeByte(',');
+        writeHundredths(Math.round(row.getTemperature() * 100));
+        writeByte(',');
+        writeDecimal(row.getHumidity());
+        writeByte(',');
+        writeBytes(condition(row.getConditionCode()));
+        writeByte('\n');
+    }
+
+    private void writeBinaryRow(ExportSource row) throws IOException {
+        int cityId = row.getCityId();
+        if (cityId >= 0 && (cityId >= encodedCities.length || encodedCities[cityId] == null)) {
+            byte[] name = cityBytes(cityId);
+            writeByte(TAG_CITY);
+            writeVarLong(cityId);
+            writeVarLong(name.length);
+            writeBytes(name);
+        }
+        long timestamp = row.getTimestamp();
+        writeByte(TAG_READING);
+        writeVarLong(zigzag(timestamp - previousTimestamp));
+        writeVarLong(cityId);
+        writeVarLong(zigzag(Math.round(row.getTemperature() * 100)));
+        writeByte(row.getHumidity());
+        writeByte(row.getConditionCode());
+        previousTimestamp = timestamp;
+    }
+
+    // Raw UTF-8 name, remembered so each city is encoded once per export
+    private byte[] cityBytes(int cityId) {
+        if (cityId >= encodedCities.length) {
+            encodedCities = Arrays.copyOf(encodedCities, Math.max(cityId + 1, encodedCities.length * 2));
+        }
+        byte[] encoded = encodedCities[cityId];
+        if (encoded == null) {
+            String name = cityNames.apply(cityId);
+            encoded = (name != null ? name : "").getBytes(StandardCharsets.UTF_8);
+            encodedCities[cityId] = encoded;
+        }
+        return encoded;
+    }
+
+    // Binary mode never quotes, so only CSV goes through here
+    private byte[] csvCity(int cityId) {
+        if (cityId < 0) {
+            return EMPTY;
+        }
+        if (cityId < encodedCities.length && encodedCities[cityId] != null) {
+            return encodedCities[cityId];
+        }
+        byte[] raw = cityBytes(cityId);
+        String name = new String(raw, StandardCharsets.UTF_8);
+        if (name.indexOf(',') >= 0 || name.indexOf('"') >= 0 || name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0) {
+            encodedCities[cityId] = ("\"" + name.replace("\"", "\"\"") + "\"").getBytes(StandardCharsets.UTF_8);
+        }
+        return encodedCities[cityId];
+    }
+
+    private byte[] condition(int code) {
+        int index = code & 0xFF;
+        byte[] encoded = encodedConditions[index];
+        if (encoded == null) {
+            encoded = WeatherCondition.fromCode(code).getLabel().getBytes(StandardCharsets.UTF_8);
+            encodedConditions[index] = encoded;
+        }
+        return encoded;
+    }
+
+    // yyyy-MM-ddTHH:mm:ss.SSSZ without a formatter: days to civil date per
+    // Hinnant's algorithm, valid for the proleptic Gregorian calendar
+    private void writeIsoTimestamp(long millis) throws IOException {
+        long days = Math.floorDiv(millis, DAY_MILLIS);
+        long millisOfDay = Math.floorMod(millis, DAY_MILLIS);
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        writePadded(year, 4);
+        writeByte('-');
+        writePadded(month, 2);
+        writeByte('-');
+        writePadded(day, 2);
+        writeByte('T');
+        writePadded(millisOfDay / 3_600_000, 2);
+        writeByte(':');
+        writePadded(millisOfDay / 60_000 % 60, 2);
+        writeByte(':');
+        writePadded(millisOfDay / 1000 % 60, 2);
+        writeByte('.');
+        writePadded(millisOfDay % 1000, 3);
+        writeByte('Z');
+    }
+
+    private void writeHundredths(long hundredths) throws IOException {
+        if (hundredths < 0) {
+            writeByte('-');
+            hundredths = -hundredths;
+        }
+        writeDecimal(hundredths / 100);
+        writeByte('.');
+        writePadded(hundredths % 100, 2);
+    }
+
+    private void writePadded(long value, int width) throws IOException {
+        ensureCapacity(width);
+        for (int i = width - 1; i >= 0; i--) {
+            buffer[position + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += width;
+    }
+
+    private void writeDecimal(long value) throws IOException {
+        if (value < 0) {
+            writeByte('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        writePadded(value, digits);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeInt(int value) throws IOException {
+        ensureCapacity(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeByte(int value) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length) {
+            flushBuffer();
+            out.write(bytes);
+            bytesWritten += bytes.length;
+            return;
+        }
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            bytesWritten += position;
+            position = 0;
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
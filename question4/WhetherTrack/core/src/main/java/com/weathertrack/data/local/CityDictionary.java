@@ -0,0 +1,42 @@
+package com.weathertrack.data.local;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory mirror of the cities table so WeatherEntity.getCity() resolves an
+// id to a shared String without a query or an allocation per row. Reloaded
+// whenever the database is opened; there is one database per process.
+public final class CityDictionary {
+    
+    public static final int UNRESOLVED = 0;
+    
+    // Indexed by city id; replaced, never mutated, when a city is added
+    private static volatile String[] names = new String[16];
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+
+    private CityDictionary() {
+    }
+
+    public static String nameOf(int id) {
+        String[] current = names;
+        return id > 0 && id < current.length ? current[id] : null;
+    }
+
+    // UNRESOLVED when the name has not been stored yet
+    public static int idOf(String name) {
+        Integer id = IDS.get(name);
+        return id != null ? id : UNRESOLVED;
+    }
+
+    public static synchronized void put(int id, String name) {
+        String[] updated = Arrays.copyOf(names, Math.max(names.length, Integer.highestOneBit(id) * 2));
+        updated[id] = name;
+        names = updated;
+        IDS.put(name, id);
+    }
+
+    public static synchronized void clear() {
+        names = new String[16];
+        IDS.clear();
+    }
+}
@@ -0,0 +1,55 @@
+package com.weathertrack.data.local.archive;
+
+// Decoded, column-oriented contents of one archive segment, ordered by time.
+// Condition strings are shared references into the segment's dictionary.
+public final class WeatherSegment {
+    private final long[] timestamps;
+    private final double[] temperatures;
+    private final int[] humidities;
+    private final String[] conditions;
+    private final int count;
+
+    public WeatherSegment(long[] timestamps, double[] temperatures, int[] humidities,
+                          String[] conditions, int count) {
+        this.timestamps = timestamps;
+        this.temperatures = temperatures;
+        this.humidities = humidities;
+        this.conditions = conditions;
+        this.count = count;
+    }
+
+    public long getTimestamp(int i) {
+        return timestamps[i];
+    }
+
+    public double getTemperature(int i) {
+        return temperatures[i];
+    }
+
+    public int getHumidity(int i) {
+        return humidities[i];
+    }
+
+    public String getCondition(int i) {
+        return conditions[i];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // First index with timestamp >= the given time, or size() if none
+    public int lowerBound(long timestamp) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,157 @@
+package com.weathertrack.data.local.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// Columnar encoding for a run of readings from one city, sorted by time:
+//   version, count, condition dictionary
+//   timestamps    first value, first delta, then delta-of-deltas (zigzag varints)
+//   temperatures  quantised to TEMPERATURE_SCALE steps, first value then deltas
+//   humidity      one byte per reading
+//   conditions    one dictionary index byte per reading
+public final class WeatherSegmentCodec {
+    
+    public static final int TEMPERATURE_SCALE = 100;
+    
+    private static final int VERSION = 1;
+    private static final int MAX_DICTIONARY_SIZE = 256;
+
+    private WeatherSegmentCodec() {
+    }
+
+    public static byte[] encode(long[] timestamps, double[] temperatures, int[] humidities,
+                                String[] conditions, int count) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + count * 4);
+        out.write(VERSION);
+        writeVarLong(out, count);
+        
+        Map<String, Integer> dictionary = new HashMap<>();
+        byte[] codes = new byte[count];
+        for (int i = 0; i < count; i++) {
+            String condition = conditions[i] != null ? conditions[i] : "";
+            Integer code = dictionary.get(condition);
+            if (code == null) {
+                if (dictionary.size() == MAX_DICTIONARY_SIZE) {
+                    throw new IllegalArgumentException("More than " + MAX_DICTIONARY_SIZE + " distinct conditions");
+                }
+                code = dictionary.size();
+                dictionary.put(condition, code);
+            }
+            codes[i] = (byte) (int) code;
+        }
+        String[] entries = new String[dictionary.size()];
+        for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+            entries[entry.getValue()] = entry.getKey();
+        }
+        writeVarLong(out, entries.length);
+        for (String entry : entries) {
+            byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && timestamps[i] < timestamps[i - 1]) {
+                throw new IllegalArgumentException("Timestamps must be ascending");
+            }
+            long delta = timestamps[i] - previous;
+            writeVarLong(out, zigzag(i == 0 ? timestamps[i] : delta - previousDelta));
+            previousDelta = i == 0 ? 0 : delta;
+            previous = timestamps[i];
+        }
+        
+        long previousQuantised = 0;
+        for (int i = 0; i < count; i++) {
+            long quantised = Math.round(temperatures[i] * TEMPERATURE_SCALE);
+            writeVarLong(out, zigzag(quantised - previousQuantised));
+            previousQuantised = quantised;
+        }
+        
+        for (int i = 0; i < count; i++) {
+            out.write(Math.max(0, Math.min(255, humidities[i])));
+        }
+        out.write(codes, 0, count);
+        return out.toByteArray();
+    }
+
+    public static WeatherSegment decode(byte[] data) {
+        int[] position = {0};
+        int version = data[position[0]++];
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported segment version " + version);
+        }
+        int count = (int) readVarLong(data, position);
+        
+        String[] entries = new String[(int) readVarLong(data, position)];
+        for (int i = 0; i < entries.length; i++) {
+            int length = (int) readVarLong(data, position);
+            entries[i] = new String(data, position[0], length, StandardCharsets.UTF_8);
+            position[0] += length;
+        }
+        
+        long[] timestamps = new long[count];
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long value = unzigzag(readVarLong(data, position));
+            if (i == 0) {
+                timestamps[i] = value;
+            } else {
+                long delta = previousDelta + value;
+                timestamps[i] = previous + delta;
+                previousDelta = delta;
+            }
+            previous = timestamps[i];
+        }
+        
+        double[] temperatures = new double[count];
+        long quantised = 0;
+        for (int i = 0; i < count; i++) {
+            quantised += unzigzag(readVarLong(data, position));
+            temperatures[i] = (double) quantised / TEMPERATURE_SCALE;
+        }
+        
+        int[] humidities = new int[count];
+        for (int i = 0; i < count; i++) {
+            humidities[i] = data[position[0]++] & 0xFF;
+        }
+        String[] conditions = new String[count];
+        for (int i = 0; i < count; i++) {
+            conditions[i] = entries[data[position[0]++] & 0xFF];
+        }
+        return new WeatherSegment(timestamps, temperatures, humidities, conditions, count);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] data, int[] position) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = data[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+    }
+}
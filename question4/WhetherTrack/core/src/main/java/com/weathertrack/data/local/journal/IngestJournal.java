@@ -0,0 +1,198 @@
+package com.weathertrack.data.local.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+// Append-only ring of fixed-size readings in a memory-mapped file:
+//   header   magic, version, capacity, record size, checkpoint sequence
+//   records  RECORD_SIZE bytes each: timestamp, temperature, city code,
+//            humidity, condition code, sequence
+// Record n lives in slot n % capacity; its sequence is written last, and
+// recovery stops at the first slot not holding the expected one.
+public final class IngestJournal implements Closeable {
+
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 32;
+
+    private static final int MAGIC = 0x57544A4C; // "WTJL"
+    private static final int VERSION = 1;
+    private static final int CHECKPOINT_OFFSET = 16;
+    private static final int SEQUENCE_OFFSET = 24;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private long checkpoint;
+    private long head;
+
+    private IngestJournal(RandomAccessFile file, MappedByteBuffer buffer, int capacity, long checkpoint) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.checkpoint = checkpoint;
+        long next = checkpoint;
+        while (next - checkpoint < capacity && buffer.getLong(offsetOf(next) + SEQUENCE_OFFSET) == next) {
+            next++;
+        }
+        this.head = next;
+    }
+
+    // An existing journal keeps the capacity it was created with
+    public static IngestJournal open(File path, int capacity) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        try {
+            int existing = 0;
+            if (file.length() >= HEADER_SIZE) {
+                file.seek(0);
+                int magic = file.readInt();
+                int version = file.readInt();
+                int storedCapacity = file.readInt();
+                int recordSize = file.readInt();
+                if (magic == MAGIC && version == VERSION && recordSize == RECORD_SIZE && storedCapacity > 0
+                        && file.length() == HEADER_SIZE + (long) storedCapacity * RECORD_SIZE) {
+                    existing = storedCapacity;
+                }
+            }
+            int slots = existing > 0 ? existing : capacity;
+            if (existing == 0) {
+                // Unreadable or new: start empty rather than replay garbage
+                file.setLength(0);
+                file.setLength(HEADER_SIZE + (long) slots * RECORD_SIZE);
+            }
+            MappedByteBuffer buffer = file.getChannel()
+                .map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * RECORD_SIZE);
+            if (existing == 0) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, slots);
+                buffer.putInt(12, RECORD_SIZE);
+                buffer.putLong(CHECKPOINT_OFFSET, 1);
+            }
+            return new IngestJournal(file, buffer, slots, buffer.getLong(CHECKPOINT_OFFSET));
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    // False when every slot holds a record not yet checkpointed
+    public synchronized boolean append(long timestamp, int cityCode, double temperature,
+                                       int humidity, int conditionCode) {
+        if (head - checkpoint >= capacity) {
+            return false;
+        }
+        int offset = offsetOf(head);
+        buffer.putLong(offset, timestamp);
+        buffer.putDouble(offset + 8, temperature);
+        buffer.putInt(offset + 16, cityCode);
+        buffer.putShort(offset + 20, (short) humidity);
+        buffer.put(offset + 22, (byte) conditionCode);
+        buffer.putLong(offset + SEQUENCE_OFFSET, head);
+        head++;
+        return true;
+    }
+
+    // Up to max pending records from the checkpoint on, oldest first
+    public synchronized List<Record> readPending(int max) {
+        int count = (int) Math.min(max, head - checkpoint);
+        List<Record> records = new ArrayList<>(count);
+        for (long sequence = checkpoint; sequence < checkpoint + count; sequence++) {
+            int offset = offsetOf(sequence);
+            records.add(new Record(sequence, buffer.getLong(offset), buffer.getInt(offset + 16),
+                buffer.getDouble(offset + 8), buffer.getShort(offset + 20), buffer.get(offset + 22) & 0xFF));
+        }
+        return records;
+    }
+
+    // Marks records below sequence as drained. A sequence past the head (journal
+    // file lost) restarts the journal there, so sequences are never reused.
+    public synchronized void checkpoint(long sequence) {
+        if (sequence <= checkpoint) {
+            return;
+        }
+        checkpoint = sequence;
+        if (sequence > head) {
+            head = sequence;
+        }
+        buffer.putLong(CHECKPOINT_OFFSET, checkpoint);
+    }
+
+    public synchronized long getCheckpoint() {
+        return checkpoint;
+    }
+
+    // Sequence the next record will get
+    public synchronized long getHead() {
+        return head;
+    }
+
+    public synchronized int getPendingCount() {
+        return (int) (head - checkpoint);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Only needed for durability beyond a process kill
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+
+    private int offsetOf(long sequence) {
+        return HEADER_SIZE + (int) (sequence % capacity) * RECORD_SIZE;
+    }
+
+    public static final class Record {
+        private final long sequence;
+        private final long timestamp;
+        private final int cityCode;
+        private final double temperature;
+        private final int humidity;
+        private final int conditionCode;
+
+        Record(long sequence, long timestamp, int cityCode, double temperature, int humidity, int conditionCode) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.cityCode = cityCode;
+            this.temperature = temperature;
+            this.humidity = humidity;
+            this.conditionCode = conditionCode;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getCityCode() {
+            return cityCode;
+        }
+
+        public double getTemperature() {
+            return temperature;
+        }
+
+        public int getHumidity() {
+            return humidity;
+        }
+
+        public int getConditionCode() {
+            return conditionCode;
+        }
+    }
+}
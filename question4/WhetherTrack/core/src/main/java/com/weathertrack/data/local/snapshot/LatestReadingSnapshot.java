@@ -0,0 +1,127 @@
+package com.weathertrack.data.local.snapshot;
+
+import com.weathertrack.domain.model.WeatherCondition;
+import com.weathertrack.domain.model.WeatherModel;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Latest reading per city in a small fixed-layout file, read before Room opens:
+//   header   magic, version, record count, CRC32 of the records
+//   records  RECORD_SIZE bytes each: timestamp, temperature, humidity,
+//            condition code, city name length, city name (UTF-8, padded)
+// Replaced atomically through a temp file; anything unreadable reads as empty.
+public final class LatestReadingSnapshot {
+
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 64;
+    public static final int MAX_CITY_BYTES = RECORD_SIZE - 20;
+
+    private static final int MAGIC = 0x57544C53; // "WTLS"
+    private static final short VERSION = 1;
+
+    private final File file;
+    private final int capacity;
+
+    public LatestReadingSnapshot(File file, int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+    }
+
+    // One small read; blocking, but cheap enough for the startup path
+    public synchronized List<WeatherModel> read() throws IOException {
+        List<WeatherModel> readings = new ArrayList<>();
+        if (!file.exists()) {
+            return readings;
+        }
+        byte[] data;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            long length = in.length();
+            if (length < HEADER_SIZE || length > HEADER_SIZE + (long) capacity * RECORD_SIZE) {
+                return readings;
+            }
+            data = new byte[(int) length];
+            in.readFully(data);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int count = buffer.getShort(6);
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION
+                || count < 0 || data.length != HEADER_SIZE + count * RECORD_SIZE) {
+            return readings;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, HEADER_SIZE, count * RECORD_SIZE);
+        if (buffer.getInt(8) != (int) crc.getValue()) {
+            return readings;
+        }
+
+        for (int i = 0; i < count; i++) {
+            int offset = HEADER_SIZE + i * RECORD_SIZE;
+            long timestamp = buffer.getLong(offset);
+            double temperature = buffer.getDouble(offset + 8);
+            int humidity = buffer.getShort(offset + 16);
+            WeatherCondition condition = WeatherCondition.fromCode(buffer.get(offset + 18) & 0xFF);
+            int cityLength = buffer.get(offset + 19) & 0xFF;
+            if (cityLength > MAX_CITY_BYTES) {
+                return new ArrayList<>();
+            }
+            String city = new String(data, offset + 20, cityLength, StandardCharsets.UTF_8);
+            readings.add(new WeatherModel(temperature, humidity, condition.getLabel(), timestamp, city));
+        }
+        return readings;
+    }
+
+    // Keeps the first `capacity` readings; cities whose UTF-8 name does not
+    // fit a record are left out rather than truncated
+    public synchronized void write(Collection<WeatherModel> readings) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + Math.min(readings.size(), capacity) * RECORD_SIZE);
+        int count = 0;
+        for (WeatherModel reading : readings) {
+            if (count == capacity) {
+                break;
+            }
+            byte[] city = (reading.getCity() != null ? reading.getCity() : "").getBytes(StandardCharsets.UTF_8);
+            if (city.length > MAX_CITY_BYTES) {
+                continue;
+            }
+            int offset = HEADER_SIZE + count * RECORD_SIZE;
+            buffer.putLong(offset, reading.getTimestamp());
+            buffer.putDouble(offset + 8, reading.getTemperature());
+            buffer.putShort(offset + 16, (short) reading.getHumidity());
+            buffer.put(offset + 18, (byte) WeatherCondition.fromLabel(reading.getCondition()).getCode());
+            buffer.put(offset + 19, (byte) city.length);
+            System.arraycopy(city, 0, buffer.array(), offset + 20, city.length);
+            count++;
+        }
+        int length = HEADER_SIZE + count * RECORD_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, count * RECORD_SIZE);
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putShort(6, (short) count);
+        buffer.putInt(8, (int) crc.getValue());
+
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temporary)) {
+            out.write(buffer.array(), 0, length);
+            out.getFD().sync();
+        }
+        if (!temporary.renameTo(file)) {
+            temporary.delete();
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
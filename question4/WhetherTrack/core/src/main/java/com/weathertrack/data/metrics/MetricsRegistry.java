@@ -0,0 +1,134 @@
+package com.weathertrack.data.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide counters and latency histograms, keyed by dotted names such as
+// "fetch.latency" or "db.statement.select". Recording is lock-free; dumps take
+// a sorted snapshot. Tests can create their own instance.
+public class MetricsRegistry {
+    
+    private static volatile MetricsRegistry INSTANCE;
+    
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry getInstance() {
+        if (INSTANCE == null) {
+            synchronized (MetricsRegistry.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MetricsRegistry();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    public void add(String name, long delta) {
+        LongAdder counter = counters.get(name);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(name, key -> new LongAdder());
+        }
+        counter.add(delta);
+    }
+
+    public long getCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    // Records the time elapsed since a System.nanoTime() reading
+    public void recordSince(String name, long startNanos) {
+        histogram(name).recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public void reset() {
+        counters.clear();
+        histograms.clear();
+    }
+
+    public String dumpText() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            out.append(entry.getKey()).append(" = ").append(entry.getValue().sum()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            out.append(entry.getKey())
+                .append(" count=").append(h.getCount())
+                .append(" mean=").append(millis(Math.round(h.getMeanMicros())))
+                .append(" p50=").append(millis(h.getPercentileMicros(50)))
+                .append(" p95=").append(millis(h.getPercentileMicros(95)))
+                .append(" p99=").append(millis(h.getPercentileMicros(99)))
+                .append(" max=").append(millis(h.getMaxMicros()))
+                .append(" ms\n");
+        }
+        return out.toString();
+    }
+
+    // {"counters":{name:value,...},"histograms":{name:{"count":n,"p50Ms":x,...},...}}
+    public String dumpJson() {
+        StringBuilder out = new StringBuilder("{\"counters\":{");
+        boolean first = true;
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            appendJsonString(out, entry.getKey());
+            out.append(':').append(entry.getValue().sum());
+        }
+        out.append("},\"histograms\":{");
+        first = true;
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            LatencyHistogram h = entry.getValue();
+            appendJsonString(out, entry.getKey());
+            out.append(":{\"count\":").append(h.getCount())
+                .append(",\"meanMs\":").append(millis(Math.round(h.getMeanMicros())))
+                .append(",\"p50Ms\":").append(millis(h.getPercentileMicros(50)))
+                .append(",\"p95Ms\":").append(millis(h.getPercentileMicros(95)))
+                .append(",\"p99Ms\":").append(millis(h.getPercentileMicros(99)))
+                .append(",\"maxMs\":").append(millis(h.getMaxMicros()))
+                .append('}');
+        }
+        return out.append("}}").toString();
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.3f", micros / 1000.0);
+    }
+
+    private static void appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
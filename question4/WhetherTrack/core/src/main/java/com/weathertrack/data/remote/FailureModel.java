@@ -0,0 +1,44 @@
+package com.weathertrack.data.remote;
+
+// How often mock API calls fail. A failure that starts a burst makes the
+// following burstLength - 1 calls fail as well, like a short outage.
+public final class FailureModel {
+    
+    private static final FailureModel NONE = new FailureModel(0, 1);
+    
+    private final double rate;
+    private final int burstLength;
+
+    private FailureModel(double rate, int burstLength) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("rate must be in [0, 1]");
+        }
+        if (burstLength < 1) {
+            throw new IllegalArgumentException("burstLength must be at least 1");
+        }
+        this.rate = rate;
+        this.burstLength = burstLength;
+    }
+
+    public static FailureModel none() {
+        return NONE;
+    }
+
+    // Each call fails independently with the given probability
+    public static FailureModel rate(double rate) {
+        return new FailureModel(rate, 1);
+    }
+
+    // Each call starts a burst of burstLength failures with the given probability
+    public static FailureModel bursts(double rate, int burstLength) {
+        return new FailureModel(rate, burstLength);
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public int getBurstLength() {
+        return burstLength;
+    }
+}
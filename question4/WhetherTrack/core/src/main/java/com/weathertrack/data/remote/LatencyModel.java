@@ -0,0 +1,37 @@
+package com.weathertrack.data.remote;
+
+import java.util.Random;
+
+// Response delay of one mock API call, drawn from the API's seeded Random
+public interface LatencyModel {
+    
+    long nextDelayMillis(Random random);
+
+    static LatencyModel fixed(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("millis must not be negative");
+        }
+        return random -> millis;
+    }
+
+    // Uniform over [minMillis, maxMillis]
+    static LatencyModel uniform(long minMillis, long maxMillis) {
+        if (minMillis < 0 || maxMillis < minMillis) {
+            throw new IllegalArgumentException("need 0 <= minMillis <= maxMillis");
+        }
+        long span = maxMillis - minMillis + 1;
+        return random -> minMillis + (long) (random.nextDouble() * span);
+    }
+
+    // Log-normal with the given median and 99th percentile: most calls are
+    // near the median, with a long tail of slow ones
+    static LatencyModel longTail(long medianMillis, long p99Millis) {
+        if (medianMillis <= 0 || p99Millis < medianMillis) {
+            throw new IllegalArgumentException("need 0 < medianMillis <= p99Millis");
+        }
+        double mu = Math.log(medianMillis);
+        // 2.326 is the standard normal's 99th percentile
+        double sigma = Math.log((double) p99Millis / medianMillis) / 2.326;
+        return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+    }
+}
@@ -0,0 +1,140 @@
+package com.weathertrack.data.remote;
+
+import com.weathertrack.domain.model.WeatherModel;
+
+import java.util.Calendar;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+// Simulated weather service on one seeded Random, so a given seed, clock and
+// call sequence always produce the same responses. The timer completes them.
+public class MockWeatherApi implements WeatherApi {
+    
+    private static final String[] CONDITIONS = {
+        "Sunny", "Cloudy", "Rainy", "Partly Cloudy", "Overcast", "Light Rain", "Heavy Rain"
+    };
+    
+    private static final String DEFAULT_CITY = "New York";
+    
+    // Matches the original mock: 1-3 s per call, 10% failures
+    private static final LatencyModel DEFAULT_LATENCY = LatencyModel.uniform(1000, 3000);
+    private static final FailureModel DEFAULT_FAILURES = FailureModel.rate(0.1);
+    
+    private final Executor executor;
+    private final ScheduledExecutorService timer;
+    private final Random random;
+    private final LatencyModel latency;
+    private final FailureModel failures;
+    private final LongSupplier clock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Failures still owed to the current burst; guarded by random
+    private int burstRemaining;
+    
+    public MockWeatherApi(Executor executor, ScheduledExecutorService timer) {
+        this(executor, timer, System.nanoTime(), DEFAULT_LATENCY, DEFAULT_FAILURES);
+    }
+    
+    // Responses are handed to executor, so dependent stages run there rather than on the timer
+    public MockWeatherApi(Executor executor, ScheduledExecutorService timer, long seed,
+                          LatencyModel latency, FailureModel failures) {
+        this(executor, timer, seed, latency, failures, System::currentTimeMillis);
+    }
+    
+    // The clock stamps readings and picks the season (UTC month)
+    public MockWeatherApi(Executor executor, ScheduledExecutorService timer, long seed,
+                          LatencyModel latency, FailureModel failures, LongSupplier clock) {
+        this.clock = clock;
+        this.executor = executor;
+        this.timer = timer;
+        this.random = new Random(seed);
+        this.latency = latency;
+        this.failures = failures;
+    }
+    
+    public CompletableFuture<WeatherModel> getCurrentWeather(String city) {
+        return getCurrentWeather(city, executor);
+    }
+    
+    @Override
+    public CompletableFuture<WeatherModel> getCurrentWeather(String city, Executor executor) {
+        String resolvedCity = city != null ? city : DEFAULT_CITY;
+        long delayMillis;
+        boolean fails;
+        double temperature;
+        int humidity;
+        String condition;
+        synchronized (random) {
+            delayMillis = Math.max(0, latency.nextDelayMillis(random));
+            fails = nextFails();
+            temperature = generateTemperature();
+            humidity = 30 + random.nextInt(70); // 30-100%
+            condition = CONDITIONS[random.nextInt(CONDITIONS.length)];
+        }
+        
+        CompletableFuture<WeatherModel> response = new CompletableFuture<>();
+        inFlight.incrementAndGet();
+        ScheduledFuture<?> completion = timer.schedule(() -> executor.execute(() -> {
+            inFlight.decrementAndGet();
+            if (fails) {
+                response.completeExceptionally(
+                    new RuntimeException("Mock API Error: Service temporarily unavailable"));
+            } else {
+                response.complete(new WeatherModel(
+                    temperature, humidity, condition, clock.getAsLong(), resolvedCity));
+            }
+        }), delayMillis, TimeUnit.MILLISECONDS);
+        
+        // A cancelled call frees its timer slot
+        response.whenComplete((weather, throwable) -> {
+            if (response.isCancelled() && completion.cancel(false)) {
+                inFlight.decrementAndGet();
+            }
+        });
+        return response;
+    }
+    
+    // Calls scheduled but not yet answered
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+    
+    private boolean nextFails() {
+        if (burstRemaining > 0) {
+            burstRemaining--;
+            return true;
+        }
+        if (failures.getRate() > 0 && random.nextDouble() < failures.getRate()) {
+            burstRemaining = failures.getBurstLength() - 1;
+            return true;
+        }
+        return false;
+    }
+    
+    private double generateTemperature() {
+        // Generate temperature based on current season (simplified)
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(clock.getAsLong());
+        int month = calendar.get(Calendar.MONTH);
+        double baseTemp;
+        
+        if (month >= 11 || month <= 2) { // Winter
+            baseTemp = 35 + random.nextInt(25); // 35-60°F
+        } else if (month >= 3 && month <= 5) { // Spring
+            baseTemp = 50 + random.nextInt(30); // 50-80°F
+        } else if (month >= 6 && month <= 8) { // Summer
+            baseTemp = 70 + random.nextInt(25); // 70-95°F
+        } else { // Fall
+            baseTemp = 45 + random.nextInt(35); // 45-80°F
+        }
+        
+        // Add some random variation
+        return baseTemp + (random.nextGaussian() * 5);
+    }
+}
@@ -0,0 +1,13 @@
+package com.weathertrack.data.remote;
+
+import com.weathertrack.domain.model.WeatherModel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Source of current readings for the repository. Implementations complete the
+// future on executor and must not block the calling thread.
+public interface WeatherApi {
+
+    CompletableFuture<WeatherModel> getCurrentWeather(String city, Executor executor);
+}
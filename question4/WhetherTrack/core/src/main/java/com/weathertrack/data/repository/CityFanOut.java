@@ -0,0 +1,79 @@
+package com.weathertrack.data.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+// Runs one fetch per city with at most maxConcurrency in flight. Each chain
+// takes the next city once its previous fetch has finished, so a slow city
+// holds up one chain rather than a whole batch. Saving is up to the fetch.
+public final class CityFanOut {
+    
+    private final Queue<String> remaining;
+    private final Function<String, ? extends CompletableFuture<?>> fetch;
+    private final List<String> succeeded = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> failed = Collections.synchronizedList(new ArrayList<>());
+
+    private CityFanOut(List<String> cities, Function<String, ? extends CompletableFuture<?>> fetch) {
+        this.remaining = new ConcurrentLinkedQueue<>(cities);
+        this.fetch = fetch;
+    }
+
+    // Completes once every city has been tried. A fetch that fails, throws or
+    // yields null counts the city as failed; the returned future never fails.
+    public static CompletableFuture<CityFanOut> run(List<String> cities, int maxConcurrency,
+                                                    Function<String, ? extends CompletableFuture<?>> fetch) {
+        CityFanOut fanOut = new CityFanOut(cities, fetch);
+        int workers = Math.max(1, Math.min(maxConcurrency, cities.size()));
+        List<CompletableFuture<Void>> chains = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            chains.add(fanOut.next());
+        }
+        return CompletableFuture.allOf(chains.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> fanOut);
+    }
+
+    // In completion order
+    public List<String> getSucceeded() {
+        synchronized (succeeded) {
+            return new ArrayList<>(succeeded);
+        }
+    }
+
+    public List<String> getFailed() {
+        synchronized (failed) {
+            return new ArrayList<>(failed);
+        }
+    }
+
+    private CompletableFuture<Void> next() {
+        String city = remaining.poll();
+        if (city == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<?> result;
+        try {
+            result = fetch.apply(city);
+        } catch (RuntimeException e) {
+            result = null;
+        }
+        if (result == null) {
+            failed.add(city);
+            return next();
+        }
+        return result
+            .handle((value, throwable) -> {
+                if (throwable == null && value != null) {
+                    succeeded.add(city);
+                } else {
+                    failed.add(city);
+                }
+                return null;
+            })
+            .thenCompose(ignored -> next());
+    }
+}
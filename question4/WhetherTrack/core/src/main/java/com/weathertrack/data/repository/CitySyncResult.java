@@ -0,0 +1,40 @@
+package com.weathertrack.data.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+public class CitySyncResult {
+    private final List<String> succeededCities;
+    private final List<String> failedCities;
+    private final int savedCount;
+    private final long elapsedMillis;
+
+    public CitySyncResult(List<String> succeededCities, List<String> failedCities,
+                          int savedCount, long elapsedMillis) {
+        this.succeededCities = Collections.unmodifiableList(succeededCities);
+        this.failedCities = Collections.unmodifiableList(failedCities);
+        this.savedCount = savedCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<String> getSucceededCities() {
+        return succeededCities;
+    }
+
+    public List<String> getFailedCities() {
+        return failedCities;
+    }
+
+    // Rows committed by this sync; cities served from the cache add none
+    public int getSavedCount() {
+        return savedCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean hasFailures() {
+        return !failedCities.isEmpty();
+    }
+}
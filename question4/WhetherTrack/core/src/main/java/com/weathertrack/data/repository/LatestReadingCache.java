@@ -0,0 +1,124 @@
+package com.weathertrack.data.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Bounded LRU of the most recent reading per key. getFresh() only returns
+// entries younger than the TTL; peek() returns whatever is cached so the UI
+// can show the last known value immediately.
+public class LatestReadingCache<K, V> {
+    
+    private final int capacity;
+    private final LongSupplier clock;
+    private volatile long ttlMillis;
+    
+    // Guarded by this
+    private final LinkedHashMap<K, Stamped<V>> entries;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public LatestReadingCache(int capacity, long ttlMillis) {
+        this(capacity, ttlMillis, System::currentTimeMillis);
+    }
+
+    public LatestReadingCache(int capacity, long ttlMillis, LongSupplier clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<K, Stamped<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Stamped<V>> eldest) {
+                if (size() > LatestReadingCache.this.capacity) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V getFresh(K key) {
+        Stamped<V> entry = entries.get(key);
+        if (entry == null || clock.getAsLong() - entry.storedAt >= ttlMillis) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    public synchronized V peek(K key) {
+        Stamped<V> entry = entries.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Stamped<>(value, clock.getAsLong()));
+    }
+
+    // For values restored from storage: their age counts from storedAt, not now
+    public synchronized void put(K key, V value, long storedAt) {
+        entries.put(key, new Stamped<>(value, storedAt));
+    }
+
+    // As put(key, value, storedAt), but never replaces a value cached since
+    public synchronized void putIfAbsent(K key, V value, long storedAt) {
+        if (!entries.containsKey(key)) {
+            entries.put(key, new Stamped<>(value, storedAt));
+        }
+    }
+
+    // Most recently used last
+    public synchronized List<V> values() {
+        List<V> values = new ArrayList<>(entries.size());
+        for (Stamped<V> entry : entries.values()) {
+            values.add(entry.value);
+        }
+        return values;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private static class Stamped<V> {
+        final V value;
+        final long storedAt;
+
+        Stamped(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.weathertrack.data.repository;
+
+public class RetentionResult {
+    private final int rawRowsDeleted;
+    private final int hourlyRowsDeleted;
+    private final int chunkCount;
+    private final long bytesReclaimed;
+    private final long elapsedMillis;
+    private final int archivedRows;
+    private final int archivedSegments;
+
+    public RetentionResult(int rawRowsDeleted, int hourlyRowsDeleted, int chunkCount,
+                           long bytesReclaimed, long elapsedMillis) {
+        this(rawRowsDeleted, hourlyRowsDeleted, chunkCount, bytesReclaimed, elapsedMillis, 0, 0);
+    }
+
+    private RetentionResult(int rawRowsDeleted, int hourlyRowsDeleted, int chunkCount,
+                            long bytesReclaimed, long elapsedMillis, int archivedRows, int archivedSegments) {
+        this.rawRowsDeleted = rawRowsDeleted;
+        this.hourlyRowsDeleted = hourlyRowsDeleted;
+        this.chunkCount = chunkCount;
+        this.bytesReclaimed = bytesReclaimed;
+        this.elapsedMillis = elapsedMillis;
+        this.archivedRows = archivedRows;
+        this.archivedSegments = archivedSegments;
+    }
+
+    // Adds the archive step's counts; elapsed time then covers the whole pass
+    public RetentionResult withArchive(int archivedRows, int archivedSegments, long totalElapsedMillis) {
+        return new RetentionResult(rawRowsDeleted, hourlyRowsDeleted, chunkCount, bytesReclaimed,
+            totalElapsedMillis, archivedRows, archivedSegments);
+    }
+
+    public int getRawRowsDeleted() {
+        return rawRowsDeleted;
+    }
+
+    public int getHourlyRowsDeleted() {
+        return hourlyRowsDeleted;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    // Pages returned to SQLite's freelist by this pass, in bytes. The file
+    // itself does not shrink; freed pages are reused by later inserts.
+    public long getBytesReclaimed() {
+        return bytesReclaimed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // Raw rows moved into archive segments before the deletes ran
+    public int getArchivedRows() {
+        return archivedRows;
+    }
+
+    public int getArchivedSegments() {
+        return archivedSegments;
+    }
+
+    @Override
+    public String toString() {
+        return "archived " + archivedRows + " rows into " + archivedSegments + " segments, deleted " + rawRowsDeleted + " raw rows and " + hourlyRowsDeleted
+            + " hourly rollups in " + chunkCount + " chunks, reclaimed " + bytesReclaimed
+            + " bytes in " + elapsedMillis + " ms";
+    }
+}
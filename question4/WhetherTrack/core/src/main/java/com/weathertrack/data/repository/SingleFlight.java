@@ -0,0 +1,60 @@
+package com.weathertrack.data.repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Coalesces concurrent calls for the same key: the first caller starts the
+// work and later callers share its result until it completes. A call arriving
+// after completion starts a new flight.
+public class SingleFlight<K, V> {
+    
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        callCount.incrementAndGet();
+        
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedCount.incrementAndGet();
+            // Dependent stage so one caller cancelling does not cancel the others
+            return existing.thenApply(value -> value);
+        }
+        
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            return flight;
+        }
+        
+        result.whenComplete((value, throwable) -> {
+            // Remove first so callers woken by completion start a fresh flight
+            inFlight.remove(key, flight);
+            if (throwable != null) {
+                flight.completeExceptionally(throwable);
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight;
+    }
+
+    public long getCallCount() {
+        return callCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
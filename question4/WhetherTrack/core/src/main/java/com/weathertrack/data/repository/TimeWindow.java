@@ -0,0 +1,89 @@
+package com.weathertrack.data.repository;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+// Rows from the last windowMillis, oldest first. Appends and evictions are
+// O(1) per row and reported as WindowDelta; evict() expires rows when
+// nothing is being appended. Not thread-safe; the owner
+// confines it to one thread.
+public class TimeWindow<T> {
+    
+    private final long windowMillis;
+    private final ToLongFunction<T> timeOf;
+    private final ArrayDeque<T> rows = new ArrayDeque<>();
+
+    public TimeWindow(long windowMillis, ToLongFunction<T> timeOf) {
+        this.windowMillis = windowMillis;
+        this.timeOf = timeOf;
+    }
+
+    // Replaces the contents; rows must be in time order
+    public WindowDelta<T> reset(List<T> sorted, long now) {
+        rows.clear();
+        long start = now - windowMillis;
+        for (T row : sorted) {
+            if (timeOf.applyAsLong(row) >= start) {
+                rows.addLast(row);
+            }
+        }
+        return WindowDelta.reset(new ArrayList<>(rows));
+    }
+
+    // Adds rows newer than everything held, then evicts expired ones. Returns
+    // null, changing nothing, if a row is older than the newest held (a gap).
+    public WindowDelta<T> append(List<T> sorted, long now) {
+        long start = now - windowMillis;
+        long newest = rows.isEmpty() ? Long.MIN_VALUE : timeOf.applyAsLong(rows.peekLast());
+        List<T> appended = new ArrayList<>(sorted.size());
+        for (T row : sorted) {
+            long time = timeOf.applyAsLong(row);
+            if (time < start) {
+                continue;
+            }
+            if (time < newest) {
+                return null;
+            }
+            appended.add(row);
+            newest = time;
+        }
+        rows.addAll(appended);
+        return WindowDelta.of(evictBefore(start), appended);
+    }
+
+    // Drops rows that have aged out without anything being appended
+    public WindowDelta<T> evict(long now) {
+        return WindowDelta.of(evictBefore(now - windowMillis), Collections.<T>emptyList());
+    }
+
+    // When the oldest row leaves the window, or Long.MAX_VALUE if empty
+    public long nextExpiry() {
+        return rows.isEmpty() ? Long.MAX_VALUE : timeOf.applyAsLong(rows.peekFirst()) + windowMillis;
+    }
+
+    private List<T> evictBefore(long start) {
+        List<T> evicted = Collections.emptyList();
+        while (!rows.isEmpty() && timeOf.applyAsLong(rows.peekFirst()) < start) {
+            if (evicted.isEmpty()) {
+                evicted = new ArrayList<>();
+            }
+            evicted.add(rows.removeFirst());
+        }
+        return evicted;
+    }
+
+    public List<T> snapshot() {
+        return new ArrayList<>(rows);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public void clear() {
+        rows.clear();
+    }
+}
@@ -0,0 +1,44 @@
+package com.weathertrack.data.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+// One change to a time window: rows evicted from its old end and rows
+// appended at its new end, both oldest first. A reset replaces the whole
+// window with getAppended(); consumers rebuild rather than patch.
+public final class WindowDelta<T> {
+    
+    private final boolean reset;
+    private final List<T> evicted;
+    private final List<T> appended;
+
+    private WindowDelta(boolean reset, List<T> evicted, List<T> appended) {
+        this.reset = reset;
+        this.evicted = Collections.unmodifiableList(evicted);
+        this.appended = Collections.unmodifiableList(appended);
+    }
+
+    public static <T> WindowDelta<T> reset(List<T> contents) {
+        return new WindowDelta<>(true, Collections.emptyList(), contents);
+    }
+
+    public static <T> WindowDelta<T> of(List<T> evicted, List<T> appended) {
+        return new WindowDelta<>(false, evicted, appended);
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public List<T> getEvicted() {
+        return evicted;
+    }
+
+    public List<T> getAppended() {
+        return appended;
+    }
+
+    public boolean isEmpty() {
+        return !reset && evicted.isEmpty() && appended.isEmpty();
+    }
+}
@@ -0,0 +1,149 @@
+package com.weathertrack.data.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Coalesces individual writes into batches. A batch is handed to the writer
+// when the flush window elapses after the first pending item, when the batch
+// reaches maxBatchSize, or when flush() is called explicitly. The writer is
+// never handed more than maxBatchSize items at once.
+public class WriteBehindBuffer<T> {
+    
+    private final Consumer<List<T>> writer;
+    private final ScheduledExecutorService scheduler;
+    private final long flushWindowMillis;
+    private final int maxBatchSize;
+    
+    private final Object pendingLock = new Object();
+    // Serialises writer calls so batches commit in enqueue order
+    private final Object writeLock = new Object();
+    private List<T> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public WriteBehindBuffer(Consumer<List<T>> writer, ScheduledExecutorService scheduler,
+                             long flushWindowMillis, int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.writer = writer;
+        this.scheduler = scheduler;
+        this.flushWindowMillis = flushWindowMillis;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void enqueue(T item) {
+        synchronized (pendingLock) {
+            pending.add(item);
+            scheduleFlushLocked();
+        }
+    }
+
+    public void enqueueAll(List<T> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        synchronized (pendingLock) {
+            pending.addAll(items);
+            scheduleFlushLocked();
+        }
+    }
+
+    // Writes everything pending on the calling thread, at most maxBatchSize
+    // items per writer call. Returns the number of items written; on failure
+    // the unwritten items are kept for the next flush.
+    public int flush() {
+        synchronized (writeLock) {
+            List<T> batch;
+            synchronized (pendingLock) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+            
+            int written = 0;
+            while (written < batch.size()) {
+                int end = Math.min(written + maxBatchSize, batch.size());
+                try {
+                    writer.accept(batch.subList(written, end));
+                } catch (RuntimeException e) {
+                    synchronized (pendingLock) {
+                        List<T> unwritten = new ArrayList<>(batch.size() - written + pending.size());
+                        unwritten.addAll(batch.subList(written, batch.size()));
+                        unwritten.addAll(pending);
+                        pending = unwritten;
+                    }
+                    throw e;
+                }
+                written = end;
+            }
+            return written;
+        }
+    }
+
+    // Removes everything pending without writing it, for a caller committing the
+    // items in a larger transaction. Hand them back with requeue() if that fails.
+    public List<T> drain() {
+        synchronized (writeLock) {
+            synchronized (pendingLock) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                List<T> drained = pending;
+                pending = new ArrayList<>();
+                return drained;
+            }
+        }
+    }
+
+    // Puts items back ahead of anything enqueued since they were drained
+    public void requeue(List<T> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        synchronized (pendingLock) {
+            List<T> restored = new ArrayList<>(items.size() + pending.size());
+            restored.addAll(items);
+            restored.addAll(pending);
+            pending = restored;
+            scheduleFlushLocked();
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (pendingLock) {
+            return pending.size();
+        }
+    }
+
+    private void scheduleFlushLocked() {
+        if (pending.size() >= maxBatchSize) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+            }
+            scheduledFlush = scheduler.schedule(this::flushQuietly, 0, TimeUnit.MILLISECONDS);
+        } else if (scheduledFlush == null) {
+            scheduledFlush = scheduler.schedule(this::flushQuietly, flushWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // The writer reports its own failures; keep the batch and retry later
+            synchronized (pendingLock) {
+                if (scheduledFlush == null && !pending.isEmpty()) {
+                    scheduledFlush = scheduler.schedule(this::flushQuietly, flushWindowMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+}
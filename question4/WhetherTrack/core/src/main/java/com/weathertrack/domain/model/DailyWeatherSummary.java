@@ -7,6 +7,7 @@ public class DailyWeatherSummary {
     private double minTemperature;
     private double maxTemperature;
     private int recordCount;
+    private double temperatureStdDev = Double.NaN;
 
     public DailyWeatherSummary() {}
 
@@ -65,6 +66,24 @@ public class DailyWeatherSummary {
         this.recordCount = recordCount;
     }
 
+    // NaN when fewer than two readings or the spread was not tracked
+    public double getTemperatureStdDev() {
+        return temperatureStdDev;
+    }
+
+    public void setTemperatureStdDev(double temperatureStdDev) {
+        this.temperatureStdDev = temperatureStdDev;
+    }
+
+    // Fills the temperature figures from a streaming accumulator
+    public void setTemperatureStats(RunningStats stats) {
+        this.avgTemperature = stats.getMean();
+        this.minTemperature = stats.getMin();
+        this.maxTemperature = stats.getMax();
+        this.temperatureStdDev = stats.getStdDev();
+        this.recordCount = (int) stats.getCount();
+    }
+
     public String getFormattedAvgTemperature() {
         return String.format("%.1f°F", avgTemperature);
     }
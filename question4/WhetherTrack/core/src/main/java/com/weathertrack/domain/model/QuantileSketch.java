@@ -0,0 +1,246 @@
+package com.weathertrack.domain.model;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+// Mergeable quantile sketch over fixed bins at origin + i * resolution, exact
+// to half a bin. Encoded sparsely:
+//   version, origin and resolution (raw doubles), bin count
+//   non-empty bin count, then (index delta, count) varint pairs
+//   min and max (raw doubles)
+public final class QuantileSketch {
+
+    // Temperatures in °F, to 0.25° from -80 to 160
+    public static final double TEMPERATURE_ORIGIN = -80;
+    public static final double TEMPERATURE_RESOLUTION = 0.25;
+    public static final int TEMPERATURE_BINS = 961;
+
+    // Humidity is whole percent, so one bin per value is exact
+    public static final double HUMIDITY_ORIGIN = 0;
+    public static final double HUMIDITY_RESOLUTION = 1;
+    public static final int HUMIDITY_BINS = 101;
+
+    private static final int VERSION = 1;
+
+    private final double origin;
+    private final double resolution;
+    private final long[] counts;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public QuantileSketch(double origin, double resolution, int bins) {
+        if (!(resolution > 0) || bins < 1) {
+            throw new IllegalArgumentException("Invalid sketch grid " + resolution + " x " + bins);
+        }
+        this.origin = origin;
+        this.resolution = resolution;
+        this.counts = new long[bins];
+    }
+
+    public static QuantileSketch forTemperature() {
+        return new QuantileSketch(TEMPERATURE_ORIGIN, TEMPERATURE_RESOLUTION, TEMPERATURE_BINS);
+    }
+
+    public static QuantileSketch forHumidity() {
+        return new QuantileSketch(HUMIDITY_ORIGIN, HUMIDITY_RESOLUTION, HUMIDITY_BINS);
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        counts[binOf(value)]++;
+        if (count++ == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        checkGrid(other.origin, other.resolution, other.counts.length);
+        if (other.count == 0) {
+            return;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        mergeExtremes(other.count, other.min, other.max);
+    }
+
+    // Adds an encoded sketch without materialising it; this is the hot path
+    // when a range merges one stored sketch per city per day
+    public void merge(byte[] encoded) {
+        int[] position = {0};
+        int version = encoded[position[0]++];
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported sketch version " + version);
+        }
+        checkGrid(readDouble(encoded, position), readDouble(encoded, position), (int) readVarLong(encoded, position));
+        int nonEmpty = (int) readVarLong(encoded, position);
+        long added = 0;
+        int index = -1;
+        for (int i = 0; i < nonEmpty; i++) {
+            index += (int) readVarLong(encoded, position) + 1;
+            long binCount = readVarLong(encoded, position);
+            counts[index] += binCount;
+            added += binCount;
+        }
+        double otherMin = readDouble(encoded, position);
+        double otherMax = readDouble(encoded, position);
+        if (added > 0) {
+            mergeExtremes(added, otherMin, otherMax);
+        }
+    }
+
+    public static QuantileSketch decode(byte[] encoded) {
+        int[] position = {1};
+        double origin = readDouble(encoded, position);
+        double resolution = readDouble(encoded, position);
+        int bins = (int) readVarLong(encoded, position);
+        QuantileSketch sketch = new QuantileSketch(origin, resolution, bins);
+        sketch.merge(encoded);
+        return sketch;
+    }
+
+    public byte[] encode() {
+        int nonEmpty = 0;
+        for (long binCount : counts) {
+            if (binCount != 0) {
+                nonEmpty++;
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(40 + nonEmpty * 3);
+        out.write(VERSION);
+        writeDouble(out, origin);
+        writeDouble(out, resolution);
+        writeVarLong(out, counts.length);
+        writeVarLong(out, nonEmpty);
+        int previous = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                writeVarLong(out, i - previous - 1);
+                writeVarLong(out, counts[i]);
+                previous = i;
+            }
+        }
+        writeDouble(out, min);
+        writeDouble(out, max);
+        return out.toByteArray();
+    }
+
+    // Nearest-rank quantile: the value of the ceil(q * n)-th smallest sample,
+    // to within half a bin. NaN when empty.
+    public double quantile(double q) {
+        double[] result = new double[1];
+        quantiles(new double[] {q}, result);
+        return result[0];
+    }
+
+    // Answers several ascending quantiles in one pass over the bins
+    public void quantiles(double[] qs, double[] out) {
+        if (count == 0) {
+            Arrays.fill(out, 0, qs.length, Double.NaN);
+            return;
+        }
+        long seen = 0;
+        int bin = -1;
+        for (int k = 0; k < qs.length; k++) {
+            long rank = Math.max(1, (long) Math.ceil(qs[k] * count));
+            while (seen < rank) {
+                seen += counts[++bin];
+            }
+            double value = origin + bin * resolution;
+            if (bin == 0 && min < value) {
+                value = min;
+            } else if (bin == counts.length - 1 && max > value) {
+                value = max;
+            }
+            out[k] = Math.max(min, Math.min(max, value));
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    private int binOf(double value) {
+        long bin = Math.round((value - origin) / resolution);
+        return (int) Math.max(0, Math.min(counts.length - 1, bin));
+    }
+
+    private void mergeExtremes(long added, double otherMin, double otherMax) {
+        if (count == 0) {
+            min = otherMin;
+            max = otherMax;
+        } else {
+            min = Math.min(min, otherMin);
+            max = Math.max(max, otherMax);
+        }
+        count += added;
+    }
+
+    private void checkGrid(double otherOrigin, double otherResolution, int otherBins) {
+        if (otherOrigin != origin || otherResolution != resolution || otherBins != counts.length) {
+            throw new IllegalArgumentException("Sketch grids differ");
+        }
+    }
+
+    private static void writeDouble(ByteArrayOutputStream out, double value) {
+        long bits = Double.doubleToLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (bits >>> shift));
+        }
+    }
+
+    private static double readDouble(byte[] data, int[] position) {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (data[position[0]++] & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] data, int[] position) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = data[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.weathertrack.domain.model;
+
+// Welford count/mean/variance/min/max, mergeable over disjoint samples
+// (Chan et al.). m2 is NaN when the spread is unknown (older rollups).
+public final class RunningStats {
+    
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public RunningStats() {
+    }
+
+    public static RunningStats of(long count, double mean, double m2, double min, double max) {
+        RunningStats stats = new RunningStats();
+        if (count > 0) {
+            stats.count = count;
+            stats.mean = mean;
+            stats.m2 = m2;
+            stats.min = min;
+            stats.max = max;
+        }
+        return stats;
+    }
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (count == 1) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    public void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        mean += delta * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    public double getM2() {
+        return m2;
+    }
+
+    // Sample variance (n - 1); NaN below two samples or when the spread is unknown
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+}
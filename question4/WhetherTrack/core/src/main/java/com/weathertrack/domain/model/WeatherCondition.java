@@ -0,0 +1,61 @@
+package com.weathertrack.domain.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Conditions as stored in weather_records.conditionCode. Codes are persisted,
+// so existing values must never be renumbered; add new ones at the end.
+// Labels the enum doesn't know are stored as UNKNOWN.
+public enum WeatherCondition {
+    UNKNOWN(0, "Unknown"),
+    SUNNY(1, "Sunny"),
+    CLOUDY(2, "Cloudy"),
+    RAINY(3, "Rainy"),
+    PARTLY_CLOUDY(4, "Partly Cloudy"),
+    OVERCAST(5, "Overcast"),
+    LIGHT_RAIN(6, "Light Rain"),
+    HEAVY_RAIN(7, "Heavy Rain"),
+    CLEAR(8, "Clear");
+
+    private static final WeatherCondition[] BY_CODE;
+    private static final Map<String, WeatherCondition> BY_LABEL = new HashMap<>();
+
+    static {
+        int maxCode = 0;
+        for (WeatherCondition condition : values()) {
+            maxCode = Math.max(maxCode, condition.code);
+            BY_LABEL.put(condition.label.toLowerCase(Locale.ROOT), condition);
+        }
+        BY_CODE = new WeatherCondition[maxCode + 1];
+        for (WeatherCondition condition : values()) {
+            BY_CODE[condition.code] = condition;
+        }
+    }
+
+    private final int code;
+    private final String label;
+
+    WeatherCondition(int code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static WeatherCondition fromCode(int code) {
+        WeatherCondition condition = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        return condition != null ? condition : UNKNOWN;
+    }
+
+    public static WeatherCondition fromLabel(String label) {
+        WeatherCondition condition = label != null ? BY_LABEL.get(label.trim().toLowerCase(Locale.ROOT)) : null;
+        return condition != null ? condition : UNKNOWN;
+    }
+}
@@ -0,0 +1,31 @@
+package com.weathertrack.presentation.model;
+
+// Time spans selectable on the Stats chart. Days of 0 means all history.
+public enum ChartRange {
+    WEEK(7, "Temperature Trends (Past 7 Days)"),
+    MONTH(30, "Temperature Trends (Past 30 Days)"),
+    YEAR(365, "Temperature Trends (Past Year)"),
+    ALL(0, "Temperature Trends (All Time)");
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final int days;
+    private final String description;
+
+    ChartRange(int days, String description) {
+        this.days = days;
+        this.description = description;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long startTime(long now) {
+        return days > 0 ? now - days * DAY_MILLIS : 0;
+    }
+}
@@ -0,0 +1,56 @@
+package com.weathertrack.presentation.model;
+
+// Ready-to-plot series: x[i]/y[i] are the populated points. Bucketed series
+// carry one axis label per bucket, including empty buckets; time series have
+// no labels and x is measured in units of unitMillis from originMillis.
+public final class ChartSeries {
+    private final float[] x;
+    private final float[] y;
+    private final String[] labels;
+    private final long originMillis;
+    private final long unitMillis;
+
+    public ChartSeries(float[] x, float[] y, String[] labels) {
+        this.x = x;
+        this.y = y;
+        this.labels = labels;
+        this.originMillis = 0;
+        this.unitMillis = 0;
+    }
+
+    public ChartSeries(float[] x, float[] y, long originMillis, long unitMillis) {
+        this.x = x;
+        this.y = y;
+        this.labels = null;
+        this.originMillis = originMillis;
+        this.unitMillis = unitMillis;
+    }
+
+    public float[] getX() {
+        return x;
+    }
+
+    public float[] getY() {
+        return y;
+    }
+
+    public String[] getLabels() {
+        return labels;
+    }
+
+    public boolean hasTimeAxis() {
+        return labels == null;
+    }
+
+    public long timeAt(float x) {
+        return originMillis + (long) (x * unitMillis);
+    }
+
+    public int getPointCount() {
+        return x.length;
+    }
+
+    public boolean isEmpty() {
+        return x.length == 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.weathertrack.presentation.model;
+
+// Largest-Triangle-Three-Buckets downsampling; keeps the peaks and troughs
+// that averaging or striding would lose. x must be ascending.
+public final class LttbDownsampler {
+
+    private LttbDownsampler() {
+    }
+
+    // Returns the indices of the points to keep, in ascending order
+    public static int[] select(double[] x, double[] y, int count, int threshold) {
+        if (threshold >= count || threshold < 3) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        
+        int[] selected = new int[threshold];
+        int kept = 0;
+        selected[kept++] = 0;
+        
+        // First and last points are always kept; the rest is split evenly
+        double bucketSize = (double) (count - 2) / (threshold - 2);
+        int a = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+            
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, count);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+            
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((x[a] - avgX) * (y[i] - y[a]) - (x[a] - x[i]) * (avgY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            selected[kept++] = maxIndex;
+            a = maxIndex;
+        }
+        
+        selected[kept] = count - 1;
+        return selected;
+    }
+}
@@ -0,0 +1,92 @@
+package com.weathertrack.presentation.model;
+
+import com.weathertrack.domain.model.QuantileSketch;
+
+import java.util.Arrays;
+
+// Folds per-city daily sketches, ordered by day, into PercentileBands using a
+// fixed set of reused sketches.
+public class PercentileBandAggregator {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final QuantileSketch dayTemperature = QuantileSketch.forTemperature();
+    private final QuantileSketch dayHumidity = QuantileSketch.forHumidity();
+    private final QuantileSketch rangeTemperature = QuantileSketch.forTemperature();
+    private final QuantileSketch rangeHumidity = QuantileSketch.forHumidity();
+    private final double[] quantiles = new double[PercentileBands.QUANTILES.length];
+
+    private long firstDay = Long.MIN_VALUE;
+    private long currentDay = Long.MIN_VALUE;
+    private int days;
+    private float[] x = new float[16];
+    private float[][] temperature = new float[PercentileBands.QUANTILES.length][16];
+    private float[][] humidity = new float[PercentileBands.QUANTILES.length][16];
+
+    // Either sketch may be null for a day whose samples predate sketching
+    public void add(long dayStart, byte[] temperatureSketch, byte[] humiditySketch) {
+        if (dayStart != currentDay) {
+            flushDay();
+            currentDay = dayStart;
+        }
+        if (temperatureSketch != null) {
+            dayTemperature.merge(temperatureSketch);
+        }
+        if (humiditySketch != null) {
+            dayHumidity.merge(humiditySketch);
+        }
+    }
+
+    public PercentileBands build() {
+        flushDay();
+        // Axis origin at UTC noon keeps each day's label on its date in most zones
+        long origin = firstDay != Long.MIN_VALUE ? firstDay + DAY_MILLIS / 2 : 0;
+        int bands = PercentileBands.QUANTILES.length;
+        ChartSeries[] temperatureSeries = new ChartSeries[bands];
+        ChartSeries[] humiditySeries = new ChartSeries[bands];
+        float[] dayX = Arrays.copyOf(x, days);
+        for (int k = 0; k < bands; k++) {
+            temperatureSeries[k] = new ChartSeries(dayX, Arrays.copyOf(temperature[k], days), origin, DAY_MILLIS);
+            humiditySeries[k] = new ChartSeries(dayX, Arrays.copyOf(humidity[k], days), origin, DAY_MILLIS);
+        }
+        double[] rangeTemperatureQuantiles = new double[bands];
+        double[] rangeHumidityQuantiles = new double[bands];
+        rangeTemperature.quantiles(PercentileBands.QUANTILES, rangeTemperatureQuantiles);
+        rangeHumidity.quantiles(PercentileBands.QUANTILES, rangeHumidityQuantiles);
+        return new PercentileBands(temperatureSeries, humiditySeries,
+            rangeTemperatureQuantiles, rangeHumidityQuantiles, rangeTemperature.getCount());
+    }
+
+    private void flushDay() {
+        if (dayTemperature.isEmpty()) {
+            dayHumidity.clear();
+            return;
+        }
+        if (firstDay == Long.MIN_VALUE) {
+            firstDay = currentDay;
+        }
+        if (days == x.length) {
+            int capacity = days * 2;
+            x = Arrays.copyOf(x, capacity);
+            for (int k = 0; k < temperature.length; k++) {
+                temperature[k] = Arrays.copyOf(temperature[k], capacity);
+                humidity[k] = Arrays.copyOf(humidity[k], capacity);
+            }
+        }
+        x[days] = (float) (currentDay - firstDay) / DAY_MILLIS;
+        dayTemperature.quantiles(PercentileBands.QUANTILES, quantiles);
+        for (int k = 0; k < quantiles.length; k++) {
+            temperature[k][days] = (float) quantiles[k];
+        }
+        dayHumidity.quantiles(PercentileBands.QUANTILES, quantiles);
+        for (int k = 0; k < quantiles.length; k++) {
+            humidity[k][days] = (float) quantiles[k];
+        }
+        days++;
+
+        rangeTemperature.merge(dayTemperature);
+        rangeHumidity.merge(dayHumidity);
+        dayTemperature.clear();
+        dayHumidity.clear();
+    }
+}
@@ -0,0 +1,48 @@
+package com.weathertrack.presentation.model;
+
+// p10/p50/p90 bands for the Stats chart: one point per day for temperature
+// and humidity, indexed like QUANTILES, plus the same quantiles over the
+// whole range. All series share a time axis measured in days.
+public final class PercentileBands {
+
+    public static final double[] QUANTILES = {0.1, 0.5, 0.9};
+
+    private final ChartSeries[] temperature;
+    private final ChartSeries[] humidity;
+    private final double[] rangeTemperature;
+    private final double[] rangeHumidity;
+    private final long sampleCount;
+
+    PercentileBands(ChartSeries[] temperature, ChartSeries[] humidity,
+                    double[] rangeTemperature, double[] rangeHumidity, long sampleCount) {
+        this.temperature = temperature;
+        this.humidity = humidity;
+        this.rangeTemperature = rangeTemperature;
+        this.rangeHumidity = rangeHumidity;
+        this.sampleCount = sampleCount;
+    }
+
+    public ChartSeries getTemperature(int quantile) {
+        return temperature[quantile];
+    }
+
+    public ChartSeries getHumidity(int quantile) {
+        return humidity[quantile];
+    }
+
+    public double getRangeTemperature(int quantile) {
+        return rangeTemperature[quantile];
+    }
+
+    public double getRangeHumidity(int quantile) {
+        return rangeHumidity[quantile];
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public boolean isEmpty() {
+        return sampleCount == 0;
+    }
+}
@@ -0,0 +1,102 @@
+package com.weathertrack.presentation.model;
+
+import java.util.Objects;
+
+// Immutable, already-formatted view of one reading. Built off the main thread
+// by WeatherDisplayModelMapper so binding is plain field assignment.
+public final class WeatherDisplayModel {
+    private final int id;
+    private final long timestamp;
+    private final String temperatureText;
+    private final String humidityText;
+    private final String conditionText;
+    private final String cityText;
+    private final String dateTimeText;
+    private final int iconRes;
+    private final int backgroundRes;
+
+    public WeatherDisplayModel(int id, long timestamp, String temperatureText, String humidityText,
+                               String conditionText, String cityText, String dateTimeText,
+                               int iconRes, int backgroundRes) {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.temperatureText = temperatureText;
+        this.humidityText = humidityText;
+        this.conditionText = conditionText;
+        this.cityText = cityText;
+        this.dateTimeText = dateTimeText;
+        this.iconRes = iconRes;
+        this.backgroundRes = backgroundRes;
+    }
+
+    public void bindTo(WeatherRowView view) {
+        view.showTemperature(temperatureText);
+        view.showHumidity(humidityText);
+        view.showCondition(conditionText);
+        view.showCity(cityText);
+        view.showDateTime(dateTimeText);
+        view.showIcon(iconRes);
+    }
+
+    // Getters
+    public int getId() {
+        return id;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getTemperatureText() {
+        return temperatureText;
+    }
+
+    public String getHumidityText() {
+        return humidityText;
+    }
+
+    public String getConditionText() {
+        return conditionText;
+    }
+
+    public String getCityText() {
+        return cityText;
+    }
+
+    public String getDateTimeText() {
+        return dateTimeText;
+    }
+
+    public int getIconRes() {
+        return iconRes;
+    }
+
+    public int getBackgroundRes() {
+        return backgroundRes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WeatherDisplayModel)) {
+            return false;
+        }
+        WeatherDisplayModel other = (WeatherDisplayModel) o;
+        return id == other.id
+            && timestamp == other.timestamp
+            && iconRes == other.iconRes
+            && backgroundRes == other.backgroundRes
+            && temperatureText.equals(other.temperatureText)
+            && humidityText.equals(other.humidityText)
+            && Objects.equals(conditionText, other.conditionText)
+            && Objects.equals(cityText, other.cityText)
+            && dateTimeText.equals(other.dateTimeText);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, timestamp, temperatureText, humidityText, conditionText, cityText, dateTimeText);
+    }
+}
@@ -0,0 +1,11 @@
+package com.weathertrack.presentation.model;
+
+// Surface a weather row binds into; implemented by the list view holder
+public interface WeatherRowView {
+    void showTemperature(CharSequence text);
+    void showHumidity(CharSequence text);
+    void showCondition(CharSequence text);
+    void showCity(CharSequence text);
+    void showDateTime(CharSequence text);
+    void showIcon(int iconRes);
+}
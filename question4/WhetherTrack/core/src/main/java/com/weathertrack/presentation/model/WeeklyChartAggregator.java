@@ -0,0 +1,91 @@
+package com.weathertrack.presentation.model;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+// Averages temperatures per local calendar day over the last N days in
+// primitive arrays by epoch day; readings can be added and removed.
+public class WeeklyChartAggregator {
+    
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    
+    private final int days;
+    private final TimeZone zone;
+    private final Locale locale;
+    private final long firstEpochDay;
+    private final double[] sums;
+    private final int[] counts;
+
+    public WeeklyChartAggregator(int days, long now, TimeZone zone, Locale locale) {
+        this.days = days;
+        this.zone = zone;
+        this.locale = locale;
+        this.firstEpochDay = localEpochDay(now) - (days - 1);
+        this.sums = new double[days];
+        this.counts = new int[days];
+    }
+
+    public void add(long timestamp, double temperature) {
+        int bucket = (int) (localEpochDay(timestamp) - firstEpochDay);
+        if (bucket >= 0 && bucket < days) {
+            sums[bucket] += temperature;
+            counts[bucket]++;
+        }
+    }
+
+    // Undoes an earlier add of the same reading
+    public void remove(long timestamp, double temperature) {
+        int bucket = (int) (localEpochDay(timestamp) - firstEpochDay);
+        if (bucket >= 0 && bucket < days && counts[bucket] > 0) {
+            counts[bucket]--;
+            sums[bucket] = counts[bucket] == 0 ? 0 : sums[bucket] - temperature;
+        }
+    }
+
+    // False once `now` has moved past the last day, i.e. the buckets need shifting
+    public boolean coversDayOf(long now) {
+        return localEpochDay(now) == firstEpochDay + days - 1;
+    }
+
+    public void add(long[] timestamps, double[] temperatures, int count) {
+        for (int i = 0; i < count; i++) {
+            add(timestamps[i], temperatures[i]);
+        }
+    }
+
+    public ChartSeries build() {
+        int populated = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                populated++;
+            }
+        }
+        
+        float[] x = new float[populated];
+        float[] y = new float[populated];
+        String[] labels = new String[days];
+        SimpleDateFormat dayFormat = new SimpleDateFormat("MMM dd", locale);
+        dayFormat.setTimeZone(zone);
+        Date date = new Date();
+        
+        int point = 0;
+        for (int i = 0; i < days; i++) {
+            // Label from local noon of the bucket's day so DST shifts can't move it a day
+            long noonUtc = (firstEpochDay + i) * DAY_MILLIS + DAY_MILLIS / 2;
+            date.setTime(noonUtc - zone.getOffset(noonUtc));
+            labels[i] = dayFormat.format(date);
+            if (counts[i] > 0) {
+                x[point] = i;
+                y[point] = (float) (sums[i] / counts[i]);
+                point++;
+            }
+        }
+        return new ChartSeries(x, y, labels);
+    }
+
+    private long localEpochDay(long timestamp) {
+        return Math.floorDiv(timestamp + zone.getOffset(timestamp), DAY_MILLIS);
+    }
+}
@@ -0,0 +1,56 @@
+package com.weathertrack.background;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SyncIntervalPolicyTest {
+    
+    private static final long HOUR = 60 * 60 * 1000L;
+    
+    @Test
+    public void volatility_isMeanChangePerHour() {
+        long[] timestamps = {0, 2 * HOUR, 3 * HOUR};
+        double[] temperatures = {60, 64, 63};
+        
+        // (4°F over 2h + 1°F over 1h) / 2 pairs
+        assertEquals(1.5, SyncIntervalPolicy.volatilityPerHour(timestamps, temperatures, 3), 1e-9);
+    }
+    
+    @Test
+    public void volatility_floorsShortGapsAtOneHour() {
+        long[] timestamps = {0, 60_000};
+        double[] temperatures = {60, 62};
+        
+        assertEquals(2.0, SyncIntervalPolicy.volatilityPerHour(timestamps, temperatures, 2), 1e-9);
+    }
+    
+    @Test
+    public void volatility_isNaNWithoutPairs() {
+        assertTrue(Double.isNaN(SyncIntervalPolicy.volatilityPerHour(new long[] {0}, new double[] {60}, 1)));
+    }
+    
+    @Test
+    public void interval_shrinksAsVolatilityGrows() {
+        assertEquals(SyncIntervalPolicy.DEFAULT_INTERVAL_MINUTES, SyncIntervalPolicy.intervalMinutes(Double.NaN));
+        assertEquals(720, SyncIntervalPolicy.intervalMinutes(0.1));
+        assertEquals(15, SyncIntervalPolicy.intervalMinutes(10));
+        
+        long previous = Long.MAX_VALUE;
+        for (double volatility = 0.5; volatility <= 4.0; volatility += 0.25) {
+            long interval = SyncIntervalPolicy.intervalMinutes(volatility);
+            assertTrue(interval <= previous);
+            previous = interval;
+        }
+    }
+    
+    @Test
+    public void interval_snapsToLadder() {
+        long interval = SyncIntervalPolicy.intervalMinutes(1.3);
+        boolean onLadder = false;
+        for (long step : SyncIntervalPolicy.INTERVAL_LADDER_MINUTES) {
+            onLadder |= step == interval;
+        }
+        assertTrue(onLadder);
+    }
+}
@@ -0,0 +1,81 @@
+package com.weathertrack.data.executor;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SerialExecutorTest {
+    
+    private final ArrayDeque<Runnable> lane = new ArrayDeque<>();
+    private final SerialExecutor serial = new SerialExecutor(lane::addLast);
+    
+    @Test
+    public void tasks_runInOrder_oneLaneTaskAtATime() {
+        List<Integer> ran = new ArrayList<>();
+        serial.execute(() -> ran.add(1));
+        serial.execute(() -> ran.add(2));
+        serial.execute(() -> ran.add(3));
+        
+        assertEquals(1, lane.size());
+        runLane();
+        assertEquals(Arrays.asList(1, 2, 3), ran);
+        assertTrue(lane.isEmpty());
+    }
+    
+    @Test
+    public void failingTask_doesNotStallTheQueue() {
+        List<Integer> ran = new ArrayList<>();
+        serial.execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+        serial.execute(() -> ran.add(2));
+        
+        try {
+            lane.pollFirst().run();
+            fail();
+        } catch (IllegalStateException expected) {
+            // Rethrown to the lane
+        }
+        runLane();
+        assertEquals(Arrays.asList(2), ran);
+    }
+    
+    @Test
+    public void sharedPool_neverRunsTwoTasksAtOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        SerialExecutor onPool = new SerialExecutor(pool);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1000);
+        for (int i = 0; i < 1000; i++) {
+            onPool.execute(() -> {
+                if (active.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                active.decrementAndGet();
+                done.countDown();
+            });
+        }
+        
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(0, overlaps.get());
+    }
+    
+    private void runLane() {
+        Runnable next;
+        while ((next = lane.pollFirst()) != null) {
+            next.run();
+        }
+    }
+}
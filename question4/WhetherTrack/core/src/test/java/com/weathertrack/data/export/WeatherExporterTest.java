@@ -0,0 +1,272 @@
+package com.weathertrack.data.export;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WeatherExporterTest {
+
+    private static final String[] CITIES = {"London", "Paris, TX", "The \"Big\" Apple", "São Paulo"};
+
+    private final WeatherExporter exporter = new WeatherExporter(id -> id < CITIES.length ? CITIES[id] : null);
+
+    @Test
+    public void csv_writesHeaderIsoTimestampsAndQuotedCities() throws IOException {
+        ArraySource source = new ArraySource(
+            new long[] {0, 1_700_000_123_456L, -86_400_001L},
+            new int[] {0, 1, 2},
+            new double[] {71.456, -3.5, 0.004},
+            new int[] {64, 100, 0},
+            new int[] {1, 6, 42});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportResult result = exporter.export(Collections.singletonList(source), 3, ExportFormat.CSV, out, null, null);
+
+        String expected = "timestamp,city,temperature_f,humidity_pct,condition\n"
+            + "1970-01-01T00:00:00.000Z,London,71.46,64,Sunny\n"
+            + "2023-11-14T22:15:23.456Z,\"Paris, TX\",-3.50,100,Light Rain\n"
+            + "1969-12-30T23:59:59.999Z,\"The \"\"Big\"\" Apple\",0.00,0,Unknown\n";
+        assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(3, result.getRows());
+        assertEquals(out.size(), result.getBytes());
+        assertFalse(result.isCancelled());
+    }
+
+    @Test
+    public void csv_datesMatchJavaTimeAcrossLeapYears() throws IOException {
+        int count = 2000;
+        long[] timestamps = new long[count];
+        for (int i = 0; i < count; i++) {
+            // Roughly 11 days apart from 1900 to 2060, with odd millis
+            timestamps[i] = -2_208_988_800_000L + i * 950_400_007L * 2 + i;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(Collections.singletonList(ArraySource.ofTimestamps(timestamps)),
+            count, ExportFormat.CSV, out, null, null);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        for (int i = 0; i < count; i++) {
+            String expected = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+                .format(java.time.Instant.ofEpochMilli(timestamps[i]).atOffset(java.time.ZoneOffset.UTC));
+            assertEquals(expected, lines[i + 1].substring(0, lines[i + 1].indexOf(',')));
+        }
+    }
+
+    @Test
+    public void binary_roundTripsThroughReader() throws IOException {
+        ArraySource first = new ArraySource(
+            new long[] {1_700_000_000_000L, 1_700_000_060_000L},
+            new int[] {0, 3},
+            new double[] {72.25, -12.75},
+            new int[] {64, 91},
+            new int[] {4, 7});
+        ArraySource second = new ArraySource(
+            new long[] {1_699_999_000_000L},
+            new int[] {0},
+            new double[] {55.5},
+            new int[] {40},
+            new int[] {8});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportResult result = exporter.export(Arrays.asList(first, second), 3, ExportFormat.BINARY, out, null, null);
+
+        List<String> rows = new ArrayList<>();
+        long count = new BinaryExportReader(new ByteArrayInputStream(out.toByteArray())).read(
+            (timestamp, city, temperature, humidity, condition) ->
+                rows.add(timestamp + "|" + city + "|" + temperature + "|" + humidity + "|" + condition));
+
+        assertEquals(3, count);
+        assertEquals(3, result.getRows());
+        assertEquals(Arrays.asList(
+            "1700000000000|London|72.25|64|4",
+            "1700000060000|São Paulo|-12.75|91|7",
+            "1699999000000|London|55.5|40|8"), rows);
+    }
+
+    @Test
+    public void binary_isCompactForRegularSeries() throws IOException {
+        int count = 10_000;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(Collections.singletonList(new SyntheticSource(count)), count, ExportFormat.BINARY,
+            out, null, null);
+
+        assertTrue("bytes per row: " + (double) out.size() / count, out.size() < count * 10);
+    }
+
+    @Test
+    public void cancel_stopsAtTheNextCheckAndLeavesBinaryUnterminated() throws IOException {
+        List<Long> progress = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportResult result = exporter.export(Collections.singletonList(new SyntheticSource(100_000)), 100_000,
+            ExportFormat.BINARY, out, (rows, expected) -> progress.add(rows), () -> progress.size() >= 2);
+
+        assertTrue(result.isCancelled());
+        assertEquals(8192, result.getRows());
+        assertEquals(Arrays.asList(4096L, 8192L), progress);
+
+        long[] seen = new long[1];
+        try {
+            new BinaryExportReader(new ByteArrayInputStream(out.toByteArray()))
+                .read((timestamp, city, temperature, humidity, condition) -> seen[0]++);
+            fail("Expected a truncated export");
+        } catch (EOFException expected) {
+            assertEquals(8192, seen[0]);
+        }
+    }
+
+    @Test
+    public void progress_reportsFinalCountOnCompletion() throws IOException {
+        List<Long> progress = new ArrayList<>();
+
+        exporter.export(Collections.singletonList(new SyntheticSource(5000)), -1, ExportFormat.CSV,
+            new ByteArrayOutputStream(), (rows, expected) -> progress.add(rows), () -> false);
+
+        assertEquals(Arrays.asList(4096L, 5000L), progress);
+    }
+
+    @Test
+    public void throughput_exceedsOneHundredThousandRowsPerSecond() throws IOException {
+        int count = 1_000_000;
+        for (ExportFormat format : ExportFormat.values()) {
+            CountingStream out = new CountingStream();
+            // Warm up once so the measurement is not dominated by the interpreter
+            exporter.export(Collections.singletonList(new SyntheticSource(count / 10)), -1, format,
+                new CountingStream(), null, null);
+
+            long start = System.nanoTime();
+            ExportResult result = exporter.export(Collections.singletonList(new SyntheticSource(count)), count,
+                format, out, null, null);
+            double rowsPerSecond = count / ((System.nanoTime() - start) / 1e9);
+
+            assertEquals(count, result.getRows());
+            assertEquals(out.count, result.getBytes());
+            assertTrue(format + " rows/s: " + rowsPerSecond, rowsPerSecond > 100_000);
+        }
+    }
+
+    private static class ArraySource implements ExportSource {
+        private final long[] timestamps;
+        private final int[] cityIds;
+        private final double[] temperatures;
+        private final int[] humidities;
+        private final int[] conditions;
+        private int index = -1;
+
+        ArraySource(long[] timestamps, int[] cityIds, double[] temperatures, int[] humidities, int[] conditions) {
+            this.timestamps = timestamps;
+            this.cityIds = cityIds;
+            this.temperatures = temperatures;
+            this.humidities = humidities;
+            this.conditions = conditions;
+        }
+
+        static ArraySource ofTimestamps(long[] timestamps) {
+            int n = timestamps.length;
+            return new ArraySource(timestamps, new int[n], new double[n], new int[n], new int[n]);
+        }
+
+        @Override
+        public boolean moveToNext() {
+            return ++index < timestamps.length;
+        }
+
+        @Override
+        public long getTimestamp() {
+            return timestamps[index];
+        }
+
+        @Override
+        public int getCityId() {
+            return cityIds[index];
+        }
+
+        @Override
+        public double getTemperature() {
+            return temperatures[index];
+        }
+
+        @Override
+        public int getHumidity() {
+            return humidities[index];
+        }
+
+        @Override
+        public int getConditionCode() {
+            return conditions[index];
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // Minute readings rotating over the test cities, generated on the fly
+    private static class SyntheticSource implements ExportSource {
+        private final int count;
+        private int index = -1;
+
+        SyntheticSource(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public boolean moveToNext() {
+            return ++index < count;
+        }
+
+        @Override
+        public long getTimestamp() {
+            return 1_700_000_000_000L + index * 60_000L;
+        }
+
+        @Override
+        public int getCityId() {
+            return index % CITIES.length;
+        }
+
+        @Override
+        public double getTemperature() {
+            return 40 + (index % 600) / 10.0;
+        }
+
+        @Override
+        public int getHumidity() {
+            return index % 101;
+        }
+
+        @Override
+        public int getConditionCode() {
+            return index % 9;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class CountingStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.weathertrack.data.local;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CityDictionaryTest {
+    
+    @After
+    public void clear() {
+        CityDictionary.clear();
+    }
+    
+    @Test
+    public void put_resolvesBothWaysWithSharedInstances() {
+        String name = new String("New York");
+        CityDictionary.put(3, name);
+        
+        assertSame(name, CityDictionary.nameOf(3));
+        assertEquals(3, CityDictionary.idOf("New York"));
+    }
+    
+    @Test
+    public void unknownIdsAndNamesAreUnresolved() {
+        CityDictionary.put(1, "London");
+        
+        assertNull(CityDictionary.nameOf(2));
+        assertNull(CityDictionary.nameOf(CityDictionary.UNRESOLVED));
+        assertNull(CityDictionary.nameOf(-1));
+        assertEquals(CityDictionary.UNRESOLVED, CityDictionary.idOf("Paris"));
+    }
+    
+    @Test
+    public void put_growsForLargeIds() {
+        CityDictionary.put(1000, "Tokyo");
+        
+        assertEquals("Tokyo", CityDictionary.nameOf(1000));
+    }
+}
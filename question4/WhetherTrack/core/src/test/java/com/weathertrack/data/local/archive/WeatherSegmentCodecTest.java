@@ -0,0 +1,129 @@
+package com.weathertrack.data.local.archive;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WeatherSegmentCodecTest {
+    
+    private static final long HOUR = 60L * 60 * 1000;
+    private static final long START = 1_600_000_000_000L;
+    private static final String[] CONDITIONS = {
+        "Sunny", "Cloudy", "Rainy", "Partly Cloudy", "Overcast", "Light Rain", "Heavy Rain"
+    };
+    
+    @Test
+    public void roundTrip_preservesReadingsWithinQuantisation() {
+        long[] timestamps = { START, START + HOUR, START + 2 * HOUR, START + 2 * HOUR + 17, START + 5 * HOUR };
+        double[] temperatures = { 72.456, 71.2, -3.1, 104.999, 0 };
+        int[] humidities = { 30, 99, 100, 0, 65 };
+        String[] conditions = { "Sunny", "Rainy", "Sunny", "Partly Cloudy", "Sunny" };
+        
+        WeatherSegment segment = WeatherSegmentCodec.decode(
+            WeatherSegmentCodec.encode(timestamps, temperatures, humidities, conditions, 5));
+        
+        assertEquals(5, segment.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(timestamps[i], segment.getTimestamp(i));
+            assertEquals(temperatures[i], segment.getTemperature(i), 0.5 / WeatherSegmentCodec.TEMPERATURE_SCALE);
+            assertEquals(humidities[i], segment.getHumidity(i));
+            assertEquals(conditions[i], segment.getCondition(i));
+        }
+    }
+    
+    @Test
+    public void roundTrip_emptySegment() {
+        WeatherSegment segment = WeatherSegmentCodec.decode(
+            WeatherSegmentCodec.encode(new long[0], new double[0], new int[0], new String[0], 0));
+        
+        assertEquals(0, segment.size());
+    }
+    
+    @Test
+    public void lowerBound_findsFirstReadingAtOrAfter() {
+        long[] timestamps = { 10, 20, 20, 30 };
+        WeatherSegment segment = new WeatherSegment(timestamps, new double[4], new int[4], new String[4], 4);
+        
+        assertEquals(0, segment.lowerBound(5));
+        assertEquals(1, segment.lowerBound(20));
+        assertEquals(3, segment.lowerBound(21));
+        assertEquals(4, segment.lowerBound(31));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_rejectsDescendingTimestamps() {
+        WeatherSegmentCodec.encode(new long[] { 2, 1 }, new double[2], new int[2], new String[] { "a", "a" }, 2);
+    }
+    
+    // Three years of hourly readings for one city, packed a month at a time, against
+    // the bytes the same rows occupy in SQLite's record format (row plus both indexes,
+    // before page overhead), which is a lower bound for the raw table. The seeded
+    // data packs about 14.5x.
+    @Test
+    public void multiYearDataset_compressesAtLeastTenfold() {
+        int monthReadings = 30 * 24;
+        int months = 36;
+        Random random = new Random(42);
+        byte[][] segments = new byte[months][];
+        long rawBytes = 0;
+        long archivedBytes = 0;
+        double temperatureSum = 0;
+        
+        long timestamp = START;
+        double temperature = 60;
+        long[] timestamps = new long[monthReadings];
+        double[] temperatures = new double[monthReadings];
+        int[] humidities = new int[monthReadings];
+        String[] conditions = new String[monthReadings];
+        for (int m = 0; m < months; m++) {
+            for (int i = 0; i < monthReadings; i++) {
+                // Sync jitter of a few seconds around the hour
+                timestamp += HOUR + random.nextInt(5000) - 2500;
+                temperature += random.nextGaussian();
+                timestamps[i] = timestamp;
+                temperatures[i] = temperature;
+                humidities[i] = 30 + random.nextInt(70);
+                conditions[i] = CONDITIONS[random.nextInt(CONDITIONS.length)];
+                rawBytes += sqliteRowBytes(conditions[i], "New York", m * monthReadings + i + 1);
+                temperatureSum += temperature;
+            }
+            segments[m] = WeatherSegmentCodec.encode(timestamps, temperatures, humidities, conditions, monthReadings);
+            archivedBytes += segments[m].length;
+        }
+        
+        int total = months * monthReadings;
+        double ratio = (double) rawBytes / archivedBytes;
+        assertTrue("compression ratio " + ratio, ratio >= 10);
+        assertEquals(temperatureSum, decodeAll(segments), total * 0.5 / WeatherSegmentCodec.TEMPERATURE_SCALE);
+    }
+    
+    private static double decodeAll(byte[][] segments) {
+        double sum = 0;
+        for (byte[] data : segments) {
+            WeatherSegment segment = WeatherSegmentCodec.decode(data);
+            for (int i = 0; i < segment.size(); i++) {
+                sum += segment.getTemperature(i);
+            }
+        }
+        return sum;
+    }
+    
+    // Record bytes for one weather_records row and its two index entries
+    private static long sqliteRowBytes(String condition, String city, long rowid) {
+        int conditionBytes = condition.getBytes(StandardCharsets.UTF_8).length;
+        int cityBytes = city.getBytes(StandardCharsets.UTF_8).length;
+        int rowidBytes = rowid < 128 ? 1 : rowid < 16384 ? 2 : 3;
+        // Table cell: payload length and rowid varints, a 7-byte header (six
+        // serial types) and columns id (aliased to the rowid, stored as NULL),
+        // REAL temperature, 1-byte humidity, condition, 6-byte timestamp, city
+        long row = 1 + rowidBytes + 7 + 8 + 1 + conditionBytes + 6 + cityBytes;
+        // Index cells: (city, timestamp, rowid) and (timestamp, rowid)
+        long cityIndex = 1 + 4 + cityBytes + 6 + rowidBytes;
+        long timestampIndex = 1 + 3 + 6 + rowidBytes;
+        // Each cell also takes a 2-byte pointer in its page
+        return row + cityIndex + timestampIndex + 3 * 2;
+    }
+}
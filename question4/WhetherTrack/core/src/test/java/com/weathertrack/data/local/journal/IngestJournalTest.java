@@ -0,0 +1,160 @@
+package com.weathertrack.data.local.journal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IngestJournalTest {
+
+    private File directory;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal").toFile();
+        file = new File(directory, "ingest.journal");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                child.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void append_thenReadPending_returnsRecordsInOrder() throws IOException {
+        try (IngestJournal journal = IngestJournal.open(file, 8)) {
+            assertTrue(journal.append(1000, 3, 71.5, 64, 4));
+            assertTrue(journal.append(2000, 5, -2.25, 90, 7));
+
+            List<IngestJournal.Record> records = journal.readPending(10);
+
+            assertEquals(2, records.size());
+            IngestJournal.Record first = records.get(0);
+            assertEquals(1, first.getSequence());
+            assertEquals(1000, first.getTimestamp());
+            assertEquals(3, first.getCityCode());
+            assertEquals(71.5, first.getTemperature(), 0);
+            assertEquals(64, first.getHumidity());
+            assertEquals(4, first.getConditionCode());
+            assertEquals(2, records.get(1).getSequence());
+            assertEquals(-2.25, records.get(1).getTemperature(), 0);
+        }
+    }
+
+    @Test
+    public void reopen_replaysOnlyRecordsPastTheCheckpoint() throws IOException {
+        try (IngestJournal journal = IngestJournal.open(file, 8)) {
+            for (int i = 0; i < 5; i++) {
+                journal.append(1000 + i, 1, 60 + i, 50, 1);
+            }
+            journal.checkpoint(4);
+        }
+
+        try (IngestJournal reopened = IngestJournal.open(file, 8)) {
+            List<IngestJournal.Record> pending = reopened.readPending(10);
+
+            assertEquals(2, pending.size());
+            assertEquals(4, pending.get(0).getSequence());
+            assertEquals(1003, pending.get(0).getTimestamp());
+            assertEquals(6, reopened.getHead());
+        }
+    }
+
+    @Test
+    public void append_refusesWhenEverySlotIsPending() throws IOException {
+        try (IngestJournal journal = IngestJournal.open(file, 4)) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(journal.append(i, 1, 60, 50, 1));
+            }
+            assertFalse(journal.append(4, 1, 60, 50, 1));
+
+            journal.checkpoint(3);
+            assertTrue(journal.append(4, 1, 60, 50, 1));
+            assertTrue(journal.append(5, 1, 60, 50, 1));
+            assertFalse(journal.append(6, 1, 60, 50, 1));
+        }
+    }
+
+    @Test
+    public void wrappingAround_recoversTheLiveLapOnly() throws IOException {
+        try (IngestJournal journal = IngestJournal.open(file, 4)) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(journal.append(i, 1, i, 50, 1));
+                journal.checkpoint(journal.getHead() - 1);
+            }
+        }
+
+        try (IngestJournal reopened = IngestJournal.open(file, 4)) {
+            List<IngestJournal.Record> pending = reopened.readPending(10);
+
+            assertEquals(1, pending.size());
+            assertEquals(10, pending.get(0).getSequence());
+            assertEquals(9, pending.get(0).getTimestamp());
+        }
+    }
+
+    @Test
+    public void tornRecord_isDroppedOnReopen() throws IOException {
+        try (IngestJournal journal = IngestJournal.open(file, 8)) {
+            journal.append(1000, 1, 60, 50, 1);
+            journal.append(2000, 1, 61, 50, 1);
+        }
+        // A kill before the second record's sequence was written
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(IngestJournal.HEADER_SIZE + 2 * IngestJournal.RECORD_SIZE + 24);
+            raw.writeLong(0);
+        }
+
+        try (IngestJournal reopened = IngestJournal.open(file, 8)) {
+            assertEquals(1, reopened.getPendingCount());
+            assertTrue(reopened.append(3000, 1, 62, 50, 1));
+            assertEquals(3000, reopened.readPending(10).get(1).getTimestamp());
+        }
+    }
+
+    @Test
+    public void checkpoint_pastTheHeadRestartsThereAndNeverMovesBack() throws IOException {
+        try (IngestJournal journal = IngestJournal.open(file, 8)) {
+            journal.checkpoint(500);
+            journal.checkpoint(100);
+
+            assertEquals(500, journal.getCheckpoint());
+            assertEquals(0, journal.getPendingCount());
+            journal.append(1000, 1, 60, 50, 1);
+            assertEquals(500, journal.readPending(1).get(0).getSequence());
+        }
+    }
+
+    @Test
+    public void open_keepsExistingCapacityAndResetsUnreadableFiles() throws IOException {
+        try (IngestJournal journal = IngestJournal.open(file, 4)) {
+            journal.append(1000, 1, 60, 50, 1);
+        }
+        try (IngestJournal reopened = IngestJournal.open(file, 16)) {
+            assertEquals(4, reopened.getCapacity());
+            assertEquals(1, reopened.getPendingCount());
+        }
+
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.writeInt(0);
+        }
+        try (IngestJournal reset = IngestJournal.open(file, 16)) {
+            assertEquals(16, reset.getCapacity());
+            assertEquals(0, reset.getPendingCount());
+        }
+    }
+}
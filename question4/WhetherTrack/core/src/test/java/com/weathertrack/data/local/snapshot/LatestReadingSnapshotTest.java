@@ -0,0 +1,130 @@
+package com.weathertrack.data.local.snapshot;
+
+import com.weathertrack.domain.model.WeatherModel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LatestReadingSnapshotTest {
+
+    private File directory;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot").toFile();
+        file = new File(directory, "latest.snapshot");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                child.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void write_thenRead_roundTripsEveryField() throws IOException {
+        LatestReadingSnapshot snapshot = new LatestReadingSnapshot(file, 8);
+        snapshot.write(Arrays.asList(
+            new WeatherModel(72.25, 64, "Partly Cloudy", 1_700_000_000_000L, "New York"),
+            new WeatherModel(-3.5, 91, "Light Rain", 1_700_000_060_000L, "São Paulo")));
+
+        List<WeatherModel> readings = new LatestReadingSnapshot(file, 8).read();
+
+        assertEquals(2, readings.size());
+        assertEquals(LatestReadingSnapshot.HEADER_SIZE + 2 * LatestReadingSnapshot.RECORD_SIZE, file.length());
+        WeatherModel first = readings.get(0);
+        assertEquals(72.25, first.getTemperature(), 0);
+        assertEquals(64, first.getHumidity());
+        assertEquals("Partly Cloudy", first.getCondition());
+        assertEquals(1_700_000_000_000L, first.getTimestamp());
+        assertEquals("New York", first.getCity());
+        assertEquals("São Paulo", readings.get(1).getCity());
+        assertEquals("Light Rain", readings.get(1).getCondition());
+    }
+
+    @Test
+    public void read_missingFileIsEmpty() throws IOException {
+        assertTrue(new LatestReadingSnapshot(file, 8).read().isEmpty());
+    }
+
+    @Test
+    public void read_corruptRecordIsEmpty() throws IOException {
+        LatestReadingSnapshot snapshot = new LatestReadingSnapshot(file, 8);
+        snapshot.write(Collections.singletonList(new WeatherModel(70, 50, "Sunny", 1000, "London")));
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(LatestReadingSnapshot.HEADER_SIZE + 9);
+            out.write(0x7F);
+        }
+
+        assertTrue(snapshot.read().isEmpty());
+    }
+
+    @Test
+    public void read_truncatedFileIsEmpty() throws IOException {
+        LatestReadingSnapshot snapshot = new LatestReadingSnapshot(file, 8);
+        snapshot.write(Collections.singletonList(new WeatherModel(70, 50, "Sunny", 1000, "London")));
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(file.length() - 1);
+        }
+
+        assertTrue(snapshot.read().isEmpty());
+    }
+
+    @Test
+    public void write_replacesPreviousSnapshotWithoutLeavingTemporaryFile() throws IOException {
+        LatestReadingSnapshot snapshot = new LatestReadingSnapshot(file, 8);
+        snapshot.write(Arrays.asList(
+            new WeatherModel(70, 50, "Sunny", 1000, "London"),
+            new WeatherModel(71, 51, "Sunny", 1000, "Paris")));
+        snapshot.write(Collections.singletonList(new WeatherModel(60, 40, "Cloudy", 2000, "London")));
+
+        List<WeatherModel> readings = snapshot.read();
+
+        assertEquals(1, readings.size());
+        assertEquals(60, readings.get(0).getTemperature(), 0);
+        assertArrayEquals(new String[] {"latest.snapshot"}, directory.list());
+    }
+
+    @Test
+    public void write_keepsCapacityAndSkipsNamesThatDoNotFit() throws IOException {
+        LatestReadingSnapshot snapshot = new LatestReadingSnapshot(file, 2);
+        char[] longName = new char[LatestReadingSnapshot.MAX_CITY_BYTES + 1];
+        Arrays.fill(longName, 'x');
+        snapshot.write(Arrays.asList(
+            new WeatherModel(70, 50, "Sunny", 1000, new String(longName)),
+            new WeatherModel(71, 51, "Sunny", 1000, "A"),
+            new WeatherModel(72, 52, "Sunny", 1000, "B"),
+            new WeatherModel(73, 53, "Sunny", 1000, "C")));
+
+        List<WeatherModel> readings = snapshot.read();
+
+        assertEquals(2, readings.size());
+        assertEquals("A", readings.get(0).getCity());
+        assertEquals("B", readings.get(1).getCity());
+    }
+
+    @Test
+    public void unknownCondition_readsBackAsUnknown() throws IOException {
+        LatestReadingSnapshot snapshot = new LatestReadingSnapshot(file, 8);
+        snapshot.write(Collections.singletonList(new WeatherModel(70, 50, "Hail", 1000, "London")));
+
+        assertEquals("Unknown", snapshot.read().get(0).getCondition());
+    }
+}
@@ -0,0 +1,110 @@
+package com.weathertrack.data.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MetricsRegistryTest {
+    
+    @Test
+    public void countersAccumulateAcrossThreads() throws InterruptedException {
+        MetricsRegistry metrics = new MetricsRegistry();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.increment("fetch.success");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(40_000, metrics.getCount("fetch.success"));
+        assertEquals(0, metrics.getCount("fetch.failure"));
+    }
+    
+    @Test
+    public void percentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1 ms .. 1000 ms, uniformly
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordMicros(i * 1000L);
+        }
+        
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMaxMicros());
+        assertWithin(500_000, histogram.getPercentileMicros(50), 0.04);
+        assertWithin(950_000, histogram.getPercentileMicros(95), 0.04);
+        assertWithin(990_000, histogram.getPercentileMicros(99), 0.04);
+        assertEquals(500_500, histogram.getMeanMicros(), 0.5);
+    }
+    
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 10; i++) {
+            histogram.recordMicros(7);
+        }
+        
+        assertEquals(7, histogram.getPercentileMicros(50));
+        assertEquals(7, histogram.getPercentileMicros(99));
+    }
+    
+    @Test
+    public void bucketsCoverTheirLowerBounds() {
+        for (long value : new long[] {0, 31, 32, 33, 63, 64, 1000, 123_456, 1L << 39, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketFor(value);
+            assertTrue("value " + value, LatencyHistogram.lowerBound(bucket) <= value);
+        }
+        assertTrue(LatencyHistogram.bucketFor(64) > LatencyHistogram.bucketFor(63));
+    }
+    
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        
+        assertEquals(0, histogram.getPercentileMicros(99));
+        assertEquals(0, histogram.getMeanMicros(), 0);
+    }
+    
+    @Test
+    public void dumpsListEveryMetricInNameOrder() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.add("db.rows_written", 3);
+        metrics.increment("db.statement.select");
+        metrics.histogram("fetch.latency").recordMicros(2_000);
+        
+        String text = metrics.dumpText();
+        assertTrue(text.indexOf("db.rows_written = 3") < text.indexOf("db.statement.select = 1"));
+        assertTrue(text.contains("fetch.latency count=1"));
+        
+        String json = metrics.dumpJson();
+        assertTrue(json.startsWith("{\"counters\":{\"db.rows_written\":3,\"db.statement.select\":1}"));
+        assertTrue(json.contains("\"fetch.latency\":{\"count\":1,"));
+        assertTrue(json.endsWith("}}"));
+    }
+    
+    @Test
+    public void resetClearsEverything() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.increment("fetch.success");
+        metrics.histogram("fetch.latency").recordMicros(10);
+        
+        metrics.reset();
+        
+        assertEquals(0, metrics.getCount("fetch.success"));
+        assertEquals("{\"counters\":{},\"histograms\":{}}", metrics.dumpJson());
+    }
+    
+    private static void assertWithin(long expected, long actual, double tolerance) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+            Math.abs(actual - expected) <= expected * tolerance);
+    }
+}
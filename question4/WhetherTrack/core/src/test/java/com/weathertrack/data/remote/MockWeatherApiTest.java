@@ -0,0 +1,181 @@
+package com.weathertrack.data.remote;
+
+import com.weathertrack.domain.model.WeatherModel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.Assert.*;
+
+public class MockWeatherApiTest {
+    
+    private ScheduledExecutorService timer;
+    
+    @Before
+    public void setUp() {
+        timer = Executors.newSingleThreadScheduledExecutor();
+    }
+    
+    @After
+    public void tearDown() {
+        timer.shutdownNow();
+    }
+    
+    @Test
+    public void sameSeed_producesSameResponses() {
+        List<String> first = describeResponses(newApi(7, LatencyModel.uniform(0, 5), FailureModel.rate(0.2)), 200);
+        List<String> second = describeResponses(newApi(7, LatencyModel.uniform(0, 5), FailureModel.rate(0.2)), 200);
+        List<String> other = describeResponses(newApi(8, LatencyModel.uniform(0, 5), FailureModel.rate(0.2)), 200);
+        
+        assertEquals(first, second);
+        assertFalse(first.equals(other));
+    }
+    
+    @Test
+    public void sameSeedAndClock_produceSameReadingsWhateverTheDate() {
+        long july = 1_751_328_000_000L; // 2025-07-01T00:00:00Z
+        long january = 1_735_689_600_000L; // 2025-01-01T00:00:00Z
+        List<String> first = describeResponses(newApi(7, LatencyModel.fixed(0), FailureModel.none(), () -> july), 50);
+        List<String> second = describeResponses(newApi(7, LatencyModel.fixed(0), FailureModel.none(), () -> july), 50);
+        List<String> winter = describeResponses(newApi(7, LatencyModel.fixed(0), FailureModel.none(), () -> january), 50);
+        
+        assertEquals(first, second);
+        assertFalse(first.equals(winter));
+        assertEquals(july, newApi(7, LatencyModel.fixed(0), FailureModel.none(), () -> july)
+            .getCurrentWeather("London").join().getTimestamp());
+    }
+    
+    @Test
+    public void thousandsOfConcurrentFetches_completeWithoutBlockingThreads() throws Exception {
+        // One timer thread and an inline executor serve every call
+        MockWeatherApi api = newApi(1, LatencyModel.uniform(200, 400), FailureModel.none());
+        int calls = 5000;
+        long start = System.nanoTime();
+        
+        List<CompletableFuture<WeatherModel>> responses = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++) {
+            responses.add(api.getCurrentWeather("City " + (i % 100)));
+        }
+        assertTrue(api.getInFlightCount() > 0);
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        // Sleeping one thread per call would take calls * 300 ms on this pool
+        assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 5000);
+        assertEquals(0, api.getInFlightCount());
+        assertEquals("City 42", responses.get(42).get().getCity());
+    }
+    
+    @Test
+    public void failureRate_isRespected() {
+        boolean[] failed = outcomes(newApi(3, LatencyModel.fixed(0), FailureModel.rate(0.2)), 10_000);
+        
+        int failures = 0;
+        for (boolean f : failed) {
+            failures += f ? 1 : 0;
+        }
+        assertTrue("failures " + failures, failures > 1800 && failures < 2200);
+    }
+    
+    @Test
+    public void failureBursts_failConsecutiveCalls() {
+        boolean[] failed = outcomes(newApi(5, LatencyModel.fixed(0), FailureModel.bursts(0.02, 5)), 10_000);
+        
+        int bursts = 0;
+        int run = 0;
+        for (int i = 0; i < failed.length; i++) {
+            if (failed[i]) {
+                run++;
+            } else if (run > 0) {
+                assertTrue("run of " + run + " ending at " + i, run >= 5);
+                bursts++;
+                run = 0;
+            }
+        }
+        assertTrue("bursts " + bursts, bursts > 50);
+    }
+    
+    @Test
+    public void cancelledCall_leavesNothingInFlight() {
+        MockWeatherApi api = newApi(1, LatencyModel.fixed(60_000), FailureModel.none());
+        
+        CompletableFuture<WeatherModel> response = api.getCurrentWeather("London");
+        assertEquals(1, api.getInFlightCount());
+        response.cancel(false);
+        
+        assertEquals(0, api.getInFlightCount());
+    }
+    
+    @Test
+    public void latencyModels_matchTheirParameters() {
+        Random random = new Random(11);
+        assertEquals(250, LatencyModel.fixed(250).nextDelayMillis(random));
+        
+        LatencyModel uniform = LatencyModel.uniform(100, 200);
+        for (int i = 0; i < 10_000; i++) {
+            long delay = uniform.nextDelayMillis(random);
+            assertTrue(delay >= 100 && delay <= 200);
+        }
+        
+        long[] delays = new long[100_000];
+        LatencyModel longTail = LatencyModel.longTail(200, 2000);
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = longTail.nextDelayMillis(random);
+        }
+        Arrays.sort(delays);
+        long median = delays[delays.length / 2];
+        long p99 = delays[delays.length * 99 / 100];
+        assertTrue("median " + median, median > 180 && median < 220);
+        assertTrue("p99 " + p99, p99 > 1700 && p99 < 2300);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void uniformLatency_rejectsInvertedRange() {
+        LatencyModel.uniform(200, 100);
+    }
+    
+    private MockWeatherApi newApi(long seed, LatencyModel latency, FailureModel failures) {
+        return new MockWeatherApi(Runnable::run, timer, seed, latency, failures);
+    }
+    
+    private MockWeatherApi newApi(long seed, LatencyModel latency, FailureModel failures, LongSupplier clock) {
+        return new MockWeatherApi(Runnable::run, timer, seed, latency, failures, clock);
+    }
+    
+    private static boolean[] outcomes(MockWeatherApi api, int calls) {
+        List<CompletableFuture<WeatherModel>> responses = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++) {
+            responses.add(api.getCurrentWeather("New York"));
+        }
+        boolean[] failed = new boolean[calls];
+        for (int i = 0; i < calls; i++) {
+            failed[i] = responses.get(i).handle((weather, throwable) -> throwable != null).join();
+        }
+        return failed;
+    }
+    
+    private static List<String> describeResponses(MockWeatherApi api, int calls) {
+        List<CompletableFuture<WeatherModel>> responses = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++) {
+            responses.add(api.getCurrentWeather("City " + (i % 10)));
+        }
+        List<String> described = new ArrayList<>(calls);
+        for (CompletableFuture<WeatherModel> response : responses) {
+            described.add(response.handle((weather, throwable) -> throwable != null ? "failed"
+                : weather.getCity() + " " + weather.getTemperature() + " " + weather.getHumidity()
+                    + " " + weather.getCondition()).join());
+        }
+        return described;
+    }
+}
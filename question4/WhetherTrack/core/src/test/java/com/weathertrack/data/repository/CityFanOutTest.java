@@ -0,0 +1,78 @@
+package com.weathertrack.data.repository;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class CityFanOutTest {
+    
+    private final Map<String, CompletableFuture<String>> inFlight = new HashMap<>();
+    private final List<String> started = new ArrayList<>();
+    
+    private CompletableFuture<String> fetch(String city) {
+        started.add(city);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        inFlight.put(city, future);
+        return future;
+    }
+    
+    @Test
+    public void run_keepsAtMostMaxConcurrencyInFlight() {
+        CompletableFuture<CityFanOut> done = CityFanOut.run(
+            Arrays.asList("New York", "London", "Tokyo", "Paris"), 2, this::fetch);
+        
+        assertEquals(Arrays.asList("New York", "London"), started);
+        
+        inFlight.get("London").complete("55.0");
+        assertEquals(Arrays.asList("New York", "London", "Tokyo"), started);
+        
+        inFlight.get("New York").complete("72.5");
+        inFlight.get("Tokyo").complete("68.0");
+        assertFalse(done.isDone());
+        
+        inFlight.get("Paris").complete("60.0");
+        assertTrue(done.isDone());
+        assertEquals(Arrays.asList("London", "New York", "Tokyo", "Paris"), done.join().getSucceeded());
+        assertTrue(done.join().getFailed().isEmpty());
+    }
+    
+    @Test
+    public void failedAndEmptyFetches_areReportedAndDoNotStopTheRest() {
+        CompletableFuture<CityFanOut> done = CityFanOut.run(
+            Arrays.asList("New York", "London", "Tokyo", "Paris"), 1, city -> {
+                switch (city) {
+                    case "New York":
+                        return CompletableFuture.completedFuture(null);
+                    case "London":
+                        CompletableFuture<String> failed = new CompletableFuture<>();
+                        failed.completeExceptionally(new IllegalStateException("timeout"));
+                        return failed;
+                    case "Tokyo":
+                        throw new IllegalStateException("bad city");
+                    default:
+                        return CompletableFuture.completedFuture("60.0");
+                }
+            });
+        
+        assertTrue(done.isDone());
+        assertEquals(Collections.singletonList("Paris"), done.join().getSucceeded());
+        assertEquals(Arrays.asList("New York", "London", "Tokyo"), done.join().getFailed());
+    }
+    
+    @Test
+    public void noCities_completesImmediately() {
+        CompletableFuture<CityFanOut> done = CityFanOut.run(Collections.<String>emptyList(), 4, this::fetch);
+        
+        assertTrue(done.isDone());
+        assertTrue(started.isEmpty());
+        assertTrue(done.join().getSucceeded().isEmpty());
+    }
+}
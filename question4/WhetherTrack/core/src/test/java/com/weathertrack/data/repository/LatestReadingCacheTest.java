@@ -0,0 +1,96 @@
+package com.weathertrack.data.repository;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class LatestReadingCacheTest {
+    
+    private long now = 1_000_000L;
+    
+    @Test
+    public void getFresh_hitsWithinTtlAndMissesAfter() {
+        LatestReadingCache<String, Double> cache = new LatestReadingCache<>(4, 60_000, () -> now);
+        cache.put("New York", 72.5);
+        
+        now += 59_999;
+        assertEquals(Double.valueOf(72.5), cache.getFresh("New York"));
+        
+        now += 1;
+        assertNull(cache.getFresh("New York"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+    
+    @Test
+    public void peek_returnsStaleValueWithoutTouchingStats() {
+        LatestReadingCache<String, Double> cache = new LatestReadingCache<>(4, 60_000, () -> now);
+        cache.put("New York", 72.5);
+        now += 120_000;
+        
+        assertEquals(Double.valueOf(72.5), cache.peek("New York"));
+        assertNull(cache.peek("London"));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+    
+    @Test
+    public void capacity_evictsLeastRecentlyUsed() {
+        LatestReadingCache<String, Double> cache = new LatestReadingCache<>(2, 60_000, () -> now);
+        cache.put("New York", 72.5);
+        cache.put("London", 55.0);
+        cache.getFresh("New York");
+        cache.put("Tokyo", 80.1);
+        
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.peek("London"));
+        assertNotNull(cache.peek("New York"));
+        assertNotNull(cache.peek("Tokyo"));
+    }
+    
+    @Test
+    public void setTtlMillis_appliesToExistingEntries() {
+        LatestReadingCache<String, Double> cache = new LatestReadingCache<>(4, 60_000, () -> now);
+        cache.put("New York", 72.5);
+        now += 10_000;
+        
+        cache.setTtlMillis(5_000);
+        assertNull(cache.getFresh("New York"));
+    }
+    
+    @Test
+    public void restoredEntries_ageFromTheirOwnTime() {
+        LatestReadingCache<String, Double> cache = new LatestReadingCache<>(4, 60_000, () -> now);
+        cache.put("New York", 72.5, now - 50_000);
+        cache.put("London", 55.0, now - 70_000);
+        
+        assertEquals(Double.valueOf(72.5), cache.getFresh("New York"));
+        assertNull(cache.getFresh("London"));
+        assertEquals(Double.valueOf(55.0), cache.peek("London"));
+    }
+    
+    @Test
+    public void putIfAbsent_keepsReadingCachedSinceStartup() {
+        LatestReadingCache<String, Double> cache = new LatestReadingCache<>(4, 60_000, () -> now);
+        cache.put("New York", 74.0);
+        
+        cache.putIfAbsent("New York", 72.5, now - 50_000);
+        cache.putIfAbsent("London", 55.0, now - 50_000);
+        
+        assertEquals(Double.valueOf(74.0), cache.peek("New York"));
+        assertEquals(Double.valueOf(55.0), cache.getFresh("London"));
+    }
+    
+    @Test
+    public void values_listsLeastRecentlyUsedFirst() {
+        LatestReadingCache<String, Double> cache = new LatestReadingCache<>(4, 60_000, () -> now);
+        cache.put("New York", 72.5);
+        cache.put("London", 55.0);
+        cache.peek("New York");
+        
+        assertEquals(Arrays.asList(55.0, 72.5), cache.values());
+    }
+}
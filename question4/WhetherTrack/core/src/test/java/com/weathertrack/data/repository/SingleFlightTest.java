@@ -0,0 +1,94 @@
+package com.weathertrack.data.repository;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+    
+    @Test
+    public void concurrentCallsForSameKey_shareOneFlight() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CompletableFuture<Integer> remote = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+        
+        CompletableFuture<Integer> first = singleFlight.execute("New York", () -> {
+            started.incrementAndGet();
+            return remote;
+        });
+        CompletableFuture<Integer> second = singleFlight.execute("New York", () -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture(-1);
+        });
+        
+        assertEquals(1, started.get());
+        assertEquals(1, singleFlight.getInFlightCount());
+        
+        remote.complete(72);
+        assertEquals(Integer.valueOf(72), first.get());
+        assertEquals(Integer.valueOf(72), second.get());
+        assertEquals(2, singleFlight.getCallCount());
+        assertEquals(1, singleFlight.getCoalescedCount());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+    
+    @Test
+    public void differentKeys_doNotCoalesce() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger started = new AtomicInteger();
+        
+        singleFlight.execute("New York", () -> {
+            started.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        singleFlight.execute("London", () -> {
+            started.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        
+        assertEquals(2, started.get());
+        assertEquals(0, singleFlight.getCoalescedCount());
+    }
+    
+    @Test
+    public void callAfterCompletion_startsNewFlight() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger started = new AtomicInteger();
+        
+        assertEquals(Integer.valueOf(1), singleFlight.execute("New York",
+            () -> CompletableFuture.completedFuture(started.incrementAndGet())).get());
+        assertEquals(Integer.valueOf(2), singleFlight.execute("New York",
+            () -> CompletableFuture.completedFuture(started.incrementAndGet())).get());
+        assertEquals(0, singleFlight.getCoalescedCount());
+    }
+    
+    @Test
+    public void failure_isSharedAndClearsFlight() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CompletableFuture<Integer> remote = new CompletableFuture<>();
+        
+        CompletableFuture<Integer> first = singleFlight.execute("New York", () -> remote);
+        CompletableFuture<Integer> second = singleFlight.execute("New York", () -> remote);
+        remote.completeExceptionally(new IllegalStateException("Service unavailable"));
+        
+        assertFailed(first);
+        assertFailed(second);
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+    
+    private static void assertFailed(CompletableFuture<Integer> future) {
+        try {
+            future.get();
+            fail("Expected failure");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof IllegalStateException ? e.getCause() : e.getCause().getCause();
+            assertTrue(cause instanceof IllegalStateException);
+        } catch (InterruptedException e) {
+            fail("Interrupted");
+        }
+    }
+}
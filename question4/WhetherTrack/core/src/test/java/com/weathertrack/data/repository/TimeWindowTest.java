@@ -0,0 +1,97 @@
+package com.weathertrack.data.repository;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TimeWindowTest {
+    
+    private static final long WINDOW = 100;
+    
+    private final TimeWindow<Long> window = new TimeWindow<>(WINDOW, Long::longValue);
+    
+    @Test
+    public void reset_keepsOnlyRowsInsideTheWindow() {
+        WindowDelta<Long> delta = window.reset(Arrays.asList(10L, 150L, 200L), 200);
+        
+        assertTrue(delta.isReset());
+        assertEquals(Arrays.asList(150L, 200L), delta.getAppended());
+        assertEquals(2, window.size());
+    }
+    
+    @Test
+    public void append_reportsAppendedAndEvictedRows() {
+        window.reset(Arrays.asList(110L, 150L, 190L), 200);
+        
+        WindowDelta<Long> delta = window.append(Arrays.asList(220L, 260L), 260);
+        
+        assertFalse(delta.isReset());
+        assertEquals(Arrays.asList(220L, 260L), delta.getAppended());
+        assertEquals(Arrays.asList(110L, 150L), delta.getEvicted());
+        assertEquals(Arrays.asList(190L, 220L, 260L), window.snapshot());
+    }
+    
+    @Test
+    public void append_dropsRowsAlreadyOutsideTheWindow() {
+        window.reset(Collections.singletonList(190L), 200);
+        
+        WindowDelta<Long> delta = window.append(Arrays.asList(50L, 195L), 200);
+        
+        assertEquals(Collections.singletonList(195L), delta.getAppended());
+        assertTrue(delta.getEvicted().isEmpty());
+    }
+    
+    @Test
+    public void append_olderThanNewest_reportsGapAndLeavesWindowUnchanged() {
+        window.reset(Arrays.asList(150L, 190L), 200);
+        
+        assertNull(window.append(Arrays.asList(195L, 170L), 200));
+        assertEquals(Arrays.asList(150L, 190L), window.snapshot());
+    }
+    
+    @Test
+    public void emptyAppend_isEmptyDelta() {
+        window.reset(Collections.singletonList(190L), 200);
+        
+        WindowDelta<Long> delta = window.append(Collections.<Long>emptyList(), 200);
+        
+        assertTrue(delta.isEmpty());
+    }
+    
+    @Test
+    public void evict_dropsExpiredRowsWithoutAppending() {
+        window.reset(Arrays.asList(150L, 190L), 200);
+        assertEquals(250, window.nextExpiry());
+        
+        assertTrue(window.evict(249).isEmpty());
+        WindowDelta<Long> delta = window.evict(260);
+        
+        assertEquals(Collections.singletonList(150L), delta.getEvicted());
+        assertTrue(delta.getAppended().isEmpty());
+        assertEquals(Collections.singletonList(190L), window.snapshot());
+        assertEquals(290, window.nextExpiry());
+        
+        window.evict(300);
+        assertEquals(0, window.size());
+        assertEquals(Long.MAX_VALUE, window.nextExpiry());
+    }
+    
+    @Test
+    public void slidingAppends_keepWindowBounded() {
+        window.reset(Collections.<Long>emptyList(), 0);
+        long evicted = 0;
+        for (long t = 1; t <= 100_000; t++) {
+            List<Long> row = Collections.singletonList(t);
+            WindowDelta<Long> delta = window.append(row, t);
+            assertEquals(1, delta.getAppended().size());
+            evicted += delta.getEvicted().size();
+        }
+        
+        assertEquals(WINDOW + 1, window.size());
+        assertEquals(100_000 - WINDOW - 1, evicted);
+    }
+}
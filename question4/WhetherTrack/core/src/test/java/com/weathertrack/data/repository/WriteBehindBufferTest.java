@@ -0,0 +1,148 @@
+package com.weathertrack.data.repository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WriteBehindBufferTest {
+    
+    private ScheduledExecutorService scheduler;
+    private List<List<Integer>> batches;
+    
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        batches = Collections.synchronizedList(new ArrayList<>());
+    }
+    
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+    
+    @Test
+    public void flush_writesPendingItemsAsOneBatch() {
+        WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>(
+            batch -> batches.add(new ArrayList<>(batch)), scheduler, TimeUnit.HOURS.toMillis(1), 100);
+        
+        for (int i = 0; i < 10; i++) {
+            buffer.enqueue(i);
+        }
+        
+        assertEquals(10, buffer.getPendingCount());
+        assertEquals(10, buffer.flush());
+        assertEquals(1, batches.size());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), batches.get(0));
+        assertEquals(0, buffer.flush());
+    }
+    
+    @Test
+    public void flush_splitsBacklogIntoMaxSizedBatches() {
+        WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>(
+            batch -> batches.add(new ArrayList<>(batch)), scheduler, TimeUnit.HOURS.toMillis(1), 4);
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(i);
+        }
+        
+        buffer.enqueueAll(items);
+        buffer.flush();
+        
+        // The size-triggered flush may have taken some of them first
+        List<Integer> written = new ArrayList<>();
+        synchronized (batches) {
+            for (List<Integer> batch : batches) {
+                assertTrue(batch.size() <= 4);
+                written.addAll(batch);
+            }
+        }
+        assertEquals(items, written);
+        assertEquals(0, buffer.getPendingCount());
+    }
+    
+    @Test
+    public void flushWindow_coalescesWritesWithinWindow() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>(batch -> {
+            batches.add(new ArrayList<>(batch));
+            written.countDown();
+        }, scheduler, 200, 100);
+        
+        buffer.enqueue(1);
+        buffer.enqueue(2);
+        buffer.enqueueAll(Arrays.asList(3, 4));
+        
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(1, batches.size());
+        assertEquals(Arrays.asList(1, 2, 3, 4), batches.get(0));
+    }
+    
+    @Test
+    public void maxBatchSize_triggersImmediateFlush() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>(batch -> {
+            batches.add(new ArrayList<>(batch));
+            written.countDown();
+        }, scheduler, TimeUnit.HOURS.toMillis(1), 3);
+        
+        buffer.enqueue(1);
+        buffer.enqueue(2);
+        buffer.enqueue(3);
+        
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 2, 3), batches.get(0));
+    }
+    
+    @Test
+    public void failedWrite_keepsBatchForNextFlush() {
+        boolean[] fail = {true};
+        WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>(batch -> {
+            if (fail[0]) {
+                throw new IllegalStateException("disk full");
+            }
+            batches.add(new ArrayList<>(batch));
+        }, scheduler, TimeUnit.HOURS.toMillis(1), 100);
+        
+        buffer.enqueue(1);
+        buffer.enqueue(2);
+        try {
+            buffer.flush();
+            fail("Expected the writer failure to propagate");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        assertEquals(2, buffer.getPendingCount());
+        
+        fail[0] = false;
+        buffer.enqueue(3);
+        assertEquals(3, buffer.flush());
+        assertEquals(Arrays.asList(1, 2, 3), batches.get(0));
+    }
+    
+    @Test
+    public void drainAndRequeue_keepEnqueueOrder() {
+        WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>(
+            batch -> batches.add(new ArrayList<>(batch)), scheduler, TimeUnit.HOURS.toMillis(1), 100);
+        
+        buffer.enqueueAll(Arrays.asList(1, 2));
+        List<Integer> drained = buffer.drain();
+        assertEquals(Arrays.asList(1, 2), drained);
+        assertEquals(0, buffer.getPendingCount());
+        
+        buffer.enqueue(3);
+        buffer.requeue(drained);
+        assertEquals(3, buffer.flush());
+        assertEquals(Arrays.asList(1, 2, 3), batches.get(0));
+    }
+}
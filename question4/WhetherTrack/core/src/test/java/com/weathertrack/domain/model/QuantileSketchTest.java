@@ -0,0 +1,128 @@
+package com.weathertrack.domain.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class QuantileSketchTest {
+
+    private static final double[] QS = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99};
+
+    @Test
+    public void quantile_isWithinHalfABinOfExactRank() {
+        Random random = new Random(5);
+        double[] values = new double[20000];
+        QuantileSketch sketch = QuantileSketch.forTemperature();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 55 + random.nextGaussian() * 15;
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : QS) {
+            double exact = values[(int) Math.ceil(q * values.length) - 1];
+            assertEquals("q=" + q, exact, sketch.quantile(q), QuantileSketch.TEMPERATURE_RESOLUTION / 2);
+        }
+    }
+
+    @Test
+    public void merge_equalsSketchOfCombinedSamples() {
+        Random random = new Random(8);
+        QuantileSketch whole = QuantileSketch.forTemperature();
+        QuantileSketch merged = QuantileSketch.forTemperature();
+        for (int day = 0; day < 30; day++) {
+            QuantileSketch daily = QuantileSketch.forTemperature();
+            for (int i = 0; i < 500; i++) {
+                double value = 40 + day + random.nextGaussian() * 6;
+                whole.add(value);
+                daily.add(value);
+            }
+            merged.merge(daily);
+        }
+
+        assertEquals(whole.getCount(), merged.getCount());
+        assertEquals(whole.getMin(), merged.getMin(), 0);
+        assertEquals(whole.getMax(), merged.getMax(), 0);
+        for (double q : QS) {
+            assertEquals(whole.quantile(q), merged.quantile(q), 0);
+        }
+    }
+
+    @Test
+    public void encode_roundTripsAndMergesFromBytes() {
+        QuantileSketch sketch = QuantileSketch.forTemperature();
+        for (int i = 0; i < 1440; i++) {
+            sketch.add(60 + 10 * Math.sin(i / 229.0));
+        }
+        byte[] encoded = sketch.encode();
+        // A day's readings touch a small part of the grid, so the blob stays small
+        assertTrue(encoded.length < 300);
+
+        QuantileSketch decoded = QuantileSketch.decode(encoded);
+        QuantileSketch merged = QuantileSketch.forTemperature();
+        merged.merge(encoded);
+        merged.merge(encoded);
+
+        assertEquals(sketch.getCount(), decoded.getCount());
+        assertEquals(2 * sketch.getCount(), merged.getCount());
+        for (double q : QS) {
+            assertEquals(sketch.quantile(q), decoded.quantile(q), 0);
+            assertEquals(sketch.quantile(q), merged.quantile(q), 0);
+        }
+    }
+
+    @Test
+    public void humidity_isExact() {
+        QuantileSketch sketch = QuantileSketch.forHumidity();
+        for (int humidity = 30; humidity < 100; humidity++) {
+            sketch.add(humidity);
+        }
+
+        assertEquals(36, sketch.quantile(0.1), 0);
+        assertEquals(64, sketch.quantile(0.5), 0);
+        assertEquals(92, sketch.quantile(0.9), 0);
+        assertEquals(30, sketch.quantile(0), 0);
+        assertEquals(99, sketch.quantile(1), 0);
+    }
+
+    @Test
+    public void valuesOffTheGrid_reportExactExtremes() {
+        QuantileSketch sketch = QuantileSketch.forTemperature();
+        sketch.add(-120);
+        sketch.add(50);
+        sketch.add(200);
+
+        assertEquals(-120, sketch.quantile(0.1), 0);
+        assertEquals(50, sketch.quantile(0.5), 0);
+        assertEquals(200, sketch.quantile(0.9), 0);
+    }
+
+    @Test
+    public void empty_answersNaN() {
+        QuantileSketch sketch = QuantileSketch.forHumidity();
+
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        assertEquals(0, QuantileSketch.decode(sketch.encode()).getCount());
+    }
+
+    @Test
+    public void clear_resetsForReuse() {
+        QuantileSketch sketch = QuantileSketch.forHumidity();
+        sketch.add(90);
+        sketch.clear();
+        sketch.add(20);
+
+        assertEquals(1, sketch.getCount());
+        assertEquals(20, sketch.quantile(0.9), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void merge_rejectsDifferentGrid() {
+        QuantileSketch humidity = QuantileSketch.forHumidity();
+        humidity.add(50);
+        QuantileSketch.forTemperature().merge(humidity.encode());
+    }
+}
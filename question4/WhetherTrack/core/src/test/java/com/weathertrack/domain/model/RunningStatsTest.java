@@ -0,0 +1,112 @@
+package com.weathertrack.domain.model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RunningStatsTest {
+    
+    @Test
+    public void add_matchesTwoPassStatistics() {
+        double[] values = new double[4000];
+        Random random = new Random(3);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 60 + random.nextGaussian() * 8;
+        }
+        
+        RunningStats stats = new RunningStats();
+        for (double value : values) {
+            stats.add(value);
+        }
+        
+        double mean = 0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (double value : values) {
+            mean += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        mean /= values.length;
+        double squares = 0;
+        for (double value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+        
+        assertEquals(4000, stats.getCount());
+        assertEquals(mean, stats.getMean(), 1e-9);
+        assertEquals(squares / (values.length - 1), stats.getVariance(), 1e-9);
+        assertEquals(min, stats.getMin(), 0);
+        assertEquals(max, stats.getMax(), 0);
+    }
+    
+    @Test
+    public void merge_equalsAddingEverythingToOne() {
+        RunningStats all = new RunningStats();
+        RunningStats first = new RunningStats();
+        RunningStats second = new RunningStats();
+        for (int i = 0; i < 100; i++) {
+            double value = Math.sin(i) * 20 + i * 0.1;
+            all.add(value);
+            (i < 30 ? first : second).add(value);
+        }
+        
+        first.merge(second);
+        
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.getMean(), first.getMean(), 1e-9);
+        assertEquals(all.getVariance(), first.getVariance(), 1e-9);
+        assertEquals(all.getMin(), first.getMin(), 0);
+        assertEquals(all.getMax(), first.getMax(), 0);
+    }
+    
+    @Test
+    public void largeOffset_keepsVariancePrecise() {
+        // Sum-of-squares loses every digit here; Welford does not
+        RunningStats stats = new RunningStats();
+        for (int i = 0; i < 1000; i++) {
+            stats.add(1e9 + (i % 2 == 0 ? 1 : -1));
+        }
+        
+        assertEquals(1000.0 / 999, stats.getVariance(), 1e-6);
+    }
+    
+    @Test
+    public void emptyAndSingleSample_haveNoVariance() {
+        RunningStats stats = new RunningStats();
+        assertTrue(Double.isNaN(stats.getMean()));
+        
+        stats.add(70);
+        assertEquals(70, stats.getMean(), 0);
+        assertTrue(Double.isNaN(stats.getStdDev()));
+    }
+    
+    @Test
+    public void unknownSpread_propagatesThroughMerge() {
+        RunningStats known = RunningStats.of(10, 60, 90, 50, 70);
+        known.merge(RunningStats.of(5, 65, Double.NaN, 55, 80));
+        
+        assertEquals(15, known.getCount());
+        assertEquals(61.6667, known.getMean(), 1e-4);
+        assertEquals(80, known.getMax(), 0);
+        assertTrue(Double.isNaN(known.getStdDev()));
+    }
+    
+    @Test
+    public void summary_isFilledFromStats() {
+        RunningStats stats = new RunningStats();
+        stats.add(60);
+        stats.add(70);
+        DailyWeatherSummary summary = new DailyWeatherSummary();
+        
+        summary.setTemperatureStats(stats);
+        
+        assertEquals(65, summary.getAvgTemperature(), 0);
+        assertEquals(60, summary.getMinTemperature(), 0);
+        assertEquals(70, summary.getMaxTemperature(), 0);
+        assertEquals(Math.sqrt(50), summary.getTemperatureStdDev(), 1e-12);
+        assertEquals(2, summary.getRecordCount());
+    }
+}
@@ -0,0 +1,44 @@
+package com.weathertrack.domain.model;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class WeatherConditionTest {
+    
+    private static final String[] API_CONDITIONS = {
+        "Sunny", "Cloudy", "Rainy", "Partly Cloudy", "Overcast", "Light Rain", "Heavy Rain"
+    };
+    
+    @Test
+    public void fromLabel_coversEveryMockApiCondition() {
+        for (String label : API_CONDITIONS) {
+            assertEquals(label, WeatherCondition.fromLabel(label).getLabel());
+        }
+    }
+    
+    @Test
+    public void fromLabel_ignoresCaseAndSurroundingSpace() {
+        assertEquals(WeatherCondition.PARTLY_CLOUDY, WeatherCondition.fromLabel("  partly CLOUDY "));
+    }
+    
+    @Test
+    public void unknownLabelsAndCodesMapToUnknown() {
+        assertEquals(WeatherCondition.UNKNOWN, WeatherCondition.fromLabel("Hail"));
+        assertEquals(WeatherCondition.UNKNOWN, WeatherCondition.fromLabel(null));
+        assertEquals(WeatherCondition.UNKNOWN, WeatherCondition.fromCode(-1));
+        assertEquals(WeatherCondition.UNKNOWN, WeatherCondition.fromCode(1000));
+    }
+    
+    @Test
+    public void codesAreUniqueAndRoundTrip() {
+        Set<Integer> codes = new HashSet<>();
+        for (WeatherCondition condition : WeatherCondition.values()) {
+            assertTrue("duplicate code " + condition.getCode(), codes.add(condition.getCode()));
+            assertEquals(condition, WeatherCondition.fromCode(condition.getCode()));
+        }
+    }
+}
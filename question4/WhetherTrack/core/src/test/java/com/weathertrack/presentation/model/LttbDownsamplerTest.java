@@ -0,0 +1,65 @@
+package com.weathertrack.presentation.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LttbDownsamplerTest {
+    
+    private static double[] ramp(int count) {
+        double[] x = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = i;
+        }
+        return x;
+    }
+    
+    @Test
+    public void select_keepsEverythingWhenUnderThreshold() {
+        double[] x = ramp(5);
+        
+        assertArrayEquals(new int[] { 0, 1, 2, 3, 4 }, LttbDownsampler.select(x, x, 5, 10));
+    }
+    
+    @Test
+    public void select_returnsThresholdPointsIncludingEnds() {
+        int count = 10_000;
+        double[] x = ramp(count);
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            y[i] = Math.sin(i / 100.0) * 20 + 60;
+        }
+        
+        int[] kept = LttbDownsampler.select(x, y, count, 400);
+        
+        assertEquals(400, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(count - 1, kept[kept.length - 1]);
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1]);
+        }
+    }
+    
+    @Test
+    public void select_keepsIsolatedPeaks() {
+        int count = 5_000;
+        double[] x = ramp(count);
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            y[i] = 60;
+        }
+        y[1234] = 110;
+        y[3210] = 5;
+        
+        int[] kept = LttbDownsampler.select(x, y, count, 100);
+        
+        boolean hasPeak = false;
+        boolean hasTrough = false;
+        for (int index : kept) {
+            hasPeak |= index == 1234;
+            hasTrough |= index == 3210;
+        }
+        assertTrue(hasPeak);
+        assertTrue(hasTrough);
+    }
+}
@@ -0,0 +1,91 @@
+package com.weathertrack.presentation.model;
+
+import com.weathertrack.domain.model.QuantileSketch;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PercentileBandAggregatorTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long START = 20000 * DAY;
+
+    @Test
+    public void build_mergesCitiesPerDayAndDaysForTheRange() {
+        PercentileBandAggregator aggregator = new PercentileBandAggregator();
+        // Day 0: two cities, 0..49 and 50..99; day 2: one city, 100..149
+        aggregator.add(START, temperatures(0, 50), humidities(0, 50));
+        aggregator.add(START, temperatures(50, 100), humidities(50, 100));
+        aggregator.add(START + 2 * DAY, temperatures(100, 150), null);
+
+        PercentileBands bands = aggregator.build();
+
+        ChartSeries median = bands.getTemperature(1);
+        assertEquals(2, median.getPointCount());
+        assertEquals(0f, median.getX()[0], 0f);
+        assertEquals(2f, median.getX()[1], 0f);
+        assertEquals(49f, median.getY()[0], 0f);
+        assertEquals(124f, median.getY()[1], 0f);
+        assertEquals(9f, bands.getTemperature(0).getY()[0], 0f);
+        assertEquals(89f, bands.getTemperature(2).getY()[0], 0f);
+        assertEquals(START + 2 * DAY + DAY / 2, median.timeAt(2f));
+
+        assertEquals(150, bands.getSampleCount());
+        assertEquals(74, bands.getRangeTemperature(1), 0);
+        assertEquals(134, bands.getRangeTemperature(2), 0);
+        assertEquals(49, bands.getRangeHumidity(1), 0);
+        assertTrue(Double.isNaN(bands.getHumidity(1).getY()[1]));
+    }
+
+    @Test
+    public void daysWithoutSketches_areSkipped() {
+        PercentileBandAggregator aggregator = new PercentileBandAggregator();
+        aggregator.add(START, null, null);
+        aggregator.add(START + DAY, temperatures(10, 20), humidities(10, 20));
+
+        PercentileBands bands = aggregator.build();
+
+        assertEquals(1, bands.getTemperature(0).getPointCount());
+        assertEquals(START + DAY + DAY / 2, bands.getTemperature(0).timeAt(0f));
+    }
+
+    @Test
+    public void manyDays_growTheSeries() {
+        PercentileBandAggregator aggregator = new PercentileBandAggregator();
+        for (int day = 0; day < 400; day++) {
+            aggregator.add(START + day * DAY, temperatures(day % 50, day % 50 + 1), humidities(50, 51));
+        }
+
+        PercentileBands bands = aggregator.build();
+
+        assertEquals(400, bands.getTemperature(2).getPointCount());
+        assertEquals(49f, bands.getTemperature(2).getY()[349], 0f);
+        assertEquals(400, bands.getSampleCount());
+    }
+
+    @Test
+    public void empty_buildsEmptyBands() {
+        PercentileBands bands = new PercentileBandAggregator().build();
+
+        assertTrue(bands.isEmpty());
+        assertTrue(bands.getTemperature(1).isEmpty());
+        assertTrue(Double.isNaN(bands.getRangeTemperature(1)));
+    }
+
+    private static byte[] temperatures(int from, int to) {
+        QuantileSketch sketch = QuantileSketch.forTemperature();
+        for (int value = from; value < to; value++) {
+            sketch.add(value);
+        }
+        return sketch.encode();
+    }
+
+    private static byte[] humidities(int from, int to) {
+        QuantileSketch sketch = QuantileSketch.forHumidity();
+        for (int value = from; value < to; value++) {
+            sketch.add(value);
+        }
+        return sketch.encode();
+    }
+}
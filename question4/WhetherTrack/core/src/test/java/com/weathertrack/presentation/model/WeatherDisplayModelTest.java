@@ -0,0 +1,72 @@
+package com.weathertrack.presentation.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WeatherDisplayModelTest {
+    
+    private static WeatherDisplayModel model(int id, String temperature) {
+        return new WeatherDisplayModel(id, 1_700_000_000_000L, temperature, "65%",
+            "Sunny", "New York", "Nov 14, 22:13", 1, 2);
+    }
+    
+    @Test
+    public void bindTo_assignsPreformattedFields() {
+        RecordingRow row = new RecordingRow();
+        model(7, "72.5°F").bindTo(row);
+        
+        assertEquals("72.5°F", row.temperature);
+        assertEquals("65%", row.humidity);
+        assertEquals("Sunny", row.condition);
+        assertEquals("New York", row.city);
+        assertEquals("Nov 14, 22:13", row.dateTime);
+        assertEquals(1, row.icon);
+    }
+    
+    @Test
+    public void equals_comparesDisplayedContent() {
+        assertEquals(model(1, "72.5°F"), model(1, "72.5°F"));
+        assertFalse(model(1, "72.5°F").equals(model(1, "73.0°F")));
+        assertFalse(model(1, "72.5°F").equals(model(2, "72.5°F")));
+    }
+    
+    private static class RecordingRow implements WeatherRowView {
+        CharSequence temperature;
+        CharSequence humidity;
+        CharSequence condition;
+        CharSequence city;
+        CharSequence dateTime;
+        int icon;
+        
+        @Override
+        public void showTemperature(CharSequence text) {
+            temperature = text;
+        }
+        
+        @Override
+        public void showHumidity(CharSequence text) {
+            humidity = text;
+        }
+        
+        @Override
+        public void showCondition(CharSequence text) {
+            condition = text;
+        }
+        
+        @Override
+        public void showCity(CharSequence text) {
+            city = text;
+        }
+        
+        @Override
+        public void showDateTime(CharSequence text) {
+            dateTime = text;
+        }
+        
+        @Override
+        public void showIcon(int iconRes) {
+            icon = iconRes;
+        }
+    }
+}
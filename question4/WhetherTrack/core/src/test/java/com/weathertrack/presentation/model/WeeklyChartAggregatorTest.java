@@ -0,0 +1,102 @@
+package com.weathertrack.presentation.model;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class WeeklyChartAggregatorTest {
+    
+    private static final long HOUR = 60L * 60 * 1000;
+    private static final long DAY = 24 * HOUR;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    // 2023-11-14 18:00 UTC
+    private static final long NOW = 1_699_984_800_000L;
+    
+    @Test
+    public void build_averagesPerDayAndSkipsEmptyDays() {
+        WeeklyChartAggregator aggregator = new WeeklyChartAggregator(7, NOW, UTC, Locale.US);
+        aggregator.add(NOW, 70.0);
+        aggregator.add(NOW - HOUR, 74.0);
+        aggregator.add(NOW - 2 * DAY, 60.0);
+        
+        ChartSeries series = aggregator.build();
+        
+        assertArrayEquals(new float[] { 4f, 6f }, series.getX(), 0f);
+        assertArrayEquals(new float[] { 60f, 72f }, series.getY(), 0.0001f);
+        assertEquals(7, series.getLabels().length);
+        assertEquals("Nov 08", series.getLabels()[0]);
+        assertEquals("Nov 14", series.getLabels()[6]);
+    }
+    
+    @Test
+    public void add_ignoresReadingsOutsideTheWindow() {
+        WeeklyChartAggregator aggregator = new WeeklyChartAggregator(7, NOW, UTC, Locale.US);
+        aggregator.add(NOW - 7 * DAY, 50.0);
+        aggregator.add(NOW + DAY, 90.0);
+        
+        assertTrue(aggregator.build().isEmpty());
+    }
+    
+    @Test
+    public void add_bucketsByLocalDay() {
+        TimeZone newYork = TimeZone.getTimeZone("America/New_York");
+        WeeklyChartAggregator aggregator = new WeeklyChartAggregator(7, NOW, newYork, Locale.US);
+        // 2023-11-14 03:00 UTC is still Nov 13 in New York
+        aggregator.add(NOW - 15 * HOUR, 40.0);
+        
+        ChartSeries series = aggregator.build();
+        
+        assertArrayEquals(new float[] { 5f }, series.getX(), 0f);
+        assertEquals("Nov 13", series.getLabels()[5]);
+    }
+    
+    @Test
+    public void aggregate_tenThousandRecordsIsFast() {
+        int count = 10_000;
+        long[] timestamps = new long[count];
+        double[] temperatures = new double[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = NOW - (i % (7 * 24)) * HOUR;
+            temperatures[i] = 60 + (i % 20);
+        }
+        
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 20; run++) {
+            long start = System.nanoTime();
+            WeeklyChartAggregator aggregator = new WeeklyChartAggregator(7, NOW, UTC, Locale.US);
+            aggregator.add(timestamps, temperatures, count);
+            assertEquals(7, aggregator.build().getPointCount());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        
+        assertTrue("best run took " + best / 1_000_000.0 + " ms", best < 50_000_000L);
+    }
+    
+    @Test
+    public void remove_undoesAdd() {
+        WeeklyChartAggregator aggregator = new WeeklyChartAggregator(7, NOW, UTC, Locale.US);
+        aggregator.add(NOW, 70.0);
+        aggregator.add(NOW - 2 * DAY, 60.0);
+        aggregator.add(NOW - 2 * DAY + HOUR, 64.0);
+        
+        aggregator.remove(NOW - 2 * DAY, 60.0);
+        aggregator.remove(NOW, 70.0);
+        // Never added: must not drive a bucket negative
+        aggregator.remove(NOW - DAY, 50.0);
+        
+        ChartSeries series = aggregator.build();
+        assertArrayEquals(new float[] { 4f }, series.getX(), 0f);
+        assertArrayEquals(new float[] { 64f }, series.getY(), 0.0001f);
+    }
+    
+    @Test
+    public void coversDayOf_turnsFalseAtNextLocalMidnight() {
+        WeeklyChartAggregator aggregator = new WeeklyChartAggregator(7, NOW, UTC, Locale.US);
+        
+        assertTrue(aggregator.coversDayOf(NOW + 5 * HOUR));
+        assertFalse(aggregator.coversDayOf(NOW + 6 * HOUR));
+    }
+}
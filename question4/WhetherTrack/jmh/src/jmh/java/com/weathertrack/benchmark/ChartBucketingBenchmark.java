@@ -0,0 +1,44 @@
+package com.weathertrack.benchmark;
+
+import com.weathertrack.presentation.model.LttbDownsampler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// LTTB reduction to the chart's point budget, with x in hours as the view model uses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChartBucketingBenchmark {
+    
+    private static final int CHART_POINTS = 400;
+    
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int samples;
+    
+    private double[] hours;
+    private double[] temperatures;
+    
+    @Setup
+    public void setUp() {
+        SyntheticReadings readings = new SyntheticReadings(samples, 42);
+        hours = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            hours[i] = (readings.timestamps[i] - readings.timestamps[0]) / 3_600_000.0;
+        }
+        temperatures = readings.temperatures;
+    }
+
+    @Benchmark
+    public int[] downsample() {
+        return LttbDownsampler.select(hours, temperatures, samples, CHART_POINTS);
+    }
+}
@@ -0,0 +1,44 @@
+package com.weathertrack.benchmark;
+
+import com.weathertrack.presentation.model.ChartSeries;
+import com.weathertrack.presentation.model.WeeklyChartAggregator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+// Per-day averages over the whole series, as the stats screen computes for its window
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DailyAggregationBenchmark {
+    
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int samples;
+    
+    private SyntheticReadings readings;
+    private TimeZone zone;
+    
+    @Setup
+    public void setUp() {
+        readings = new SyntheticReadings(samples, 42);
+        zone = TimeZone.getTimeZone("America/New_York");
+    }
+
+    @Benchmark
+    public ChartSeries aggregateByLocalDay() {
+        WeeklyChartAggregator aggregator = new WeeklyChartAggregator(
+            readings.spanDays(), SyntheticReadings.END_TIME, zone, Locale.US);
+        aggregator.add(readings.timestamps, readings.temperatures, readings.size());
+        return aggregator.build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.weathertrack.benchmark;
+
+import com.weathertrack.data.local.journal.IngestJournal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Appends the series to a journal of the repository's capacity, draining a
+// batch whenever it fills, so the cost measured is the mapped-file append
+// path plus reading records back for a checkpoint (no database behind it)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IngestJournalBenchmark {
+    
+    private static final int CAPACITY = 4096;
+    private static final int BATCH_SIZE = 100;
+    
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int samples;
+    
+    private SyntheticReadings readings;
+    private File file;
+    private IngestJournal journal;
+    
+    @Setup
+    public void setUp() throws IOException {
+        readings = new SyntheticReadings(samples, 42);
+        file = File.createTempFile("ingest", ".journal");
+        file.delete();
+        journal = IngestJournal.open(file, CAPACITY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public long appendAndDrain() {
+        long drained = 0;
+        for (int i = 0; i < samples; i++) {
+            while (!journal.append(readings.timestamps[i], 1 + i % SyntheticReadings.CITIES.length,
+                    readings.temperatures[i], readings.humidities[i], 1)) {
+                drained += drain();
+            }
+        }
+        while (journal.getPendingCount() > 0) {
+            drained += drain();
+        }
+        return drained;
+    }
+
+    private int drain() {
+        int count = journal.readPending(BATCH_SIZE).size();
+        journal.checkpoint(journal.getCheckpoint() + count);
+        return count;
+    }
+}
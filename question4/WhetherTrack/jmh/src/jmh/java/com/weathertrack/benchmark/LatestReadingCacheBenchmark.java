@@ -0,0 +1,61 @@
+package com.weathertrack.benchmark;
+
+import com.weathertrack.data.repository.LatestReadingCache;
+import com.weathertrack.domain.model.WeatherModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Replays the series as fetches across 64 cities into a 32-entry cache (the
+// repository's size), so the run mixes hits, misses, expiries and evictions
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LatestReadingCacheBenchmark {
+    
+    private static final int CAPACITY = 32;
+    private static final long TTL_MILLIS = 5 * 60 * 1000;
+    
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int samples;
+    
+    private SyntheticReadings readings;
+    private WeatherModel[] models;
+    private long clock;
+    
+    @Setup
+    public void setUp() {
+        readings = new SyntheticReadings(samples, 42);
+        // Models are shared across readings of a city; the cache only stores references
+        models = new WeatherModel[SyntheticReadings.CITIES.length];
+        for (int i = 0; i < models.length; i++) {
+            models[i] = new WeatherModel(60, 50, "Sunny", SyntheticReadings.END_TIME, SyntheticReadings.CITIES[i]);
+        }
+    }
+
+    @Benchmark
+    public void getFreshOrPut(Blackhole blackhole) {
+        LatestReadingCache<String, WeatherModel> cache =
+            new LatestReadingCache<>(CAPACITY, TTL_MILLIS, () -> clock);
+        String[] cities = SyntheticReadings.CITIES;
+        for (int i = 0; i < readings.size(); i++) {
+            // One city per reading, round-robin with a skew towards the first few
+            int city = (i * 7 + (i >>> 3)) % cities.length;
+            clock = readings.timestamps[i];
+            WeatherModel fresh = cache.getFresh(cities[city]);
+            if (fresh == null) {
+                cache.put(cities[city], models[city]);
+            }
+            blackhole.consume(fresh);
+        }
+    }
+}
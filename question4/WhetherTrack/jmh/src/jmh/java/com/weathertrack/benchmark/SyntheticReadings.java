@@ -0,0 +1,46 @@
+package com.weathertrack.benchmark;
+
+import java.util.Random;
+
+// Seeded one-reading-per-minute series ending at a fixed instant: a daily
+// sine cycle plus noise, so every run of a benchmark sees the same data.
+final class SyntheticReadings {
+    
+    static final long END_TIME = 1_767_225_600_000L; // 2026-01-01T00:00:00Z
+    static final long INTERVAL_MILLIS = 60_000L;
+    static final String[] CITIES = new String[64];
+    
+    static {
+        for (int i = 0; i < CITIES.length; i++) {
+            CITIES[i] = "City " + i;
+        }
+    }
+    
+    final long[] timestamps;
+    final double[] temperatures;
+    final int[] humidities;
+    
+    SyntheticReadings(int samples, long seed) {
+        Random random = new Random(seed);
+        timestamps = new long[samples];
+        temperatures = new double[samples];
+        humidities = new int[samples];
+        long start = END_TIME - (samples - 1) * INTERVAL_MILLIS;
+        for (int i = 0; i < samples; i++) {
+            long timestamp = start + i * INTERVAL_MILLIS;
+            double dayPhase = (timestamp % 86_400_000L) / 86_400_000.0 * 2 * Math.PI;
+            timestamps[i] = timestamp;
+            temperatures[i] = 60 + 15 * Math.sin(dayPhase) + random.nextGaussian() * 2;
+            humidities[i] = 40 + random.nextInt(40);
+        }
+    }
+
+    int size() {
+        return timestamps.length;
+    }
+
+    // Days spanned by the series, rounded up, for windowed aggregators
+    int spanDays() {
+        return (int) ((timestamps[size() - 1] - timestamps[0]) / 86_400_000L) + 2;
+    }
+}
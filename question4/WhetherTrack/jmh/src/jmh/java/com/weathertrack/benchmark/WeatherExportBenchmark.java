@@ -0,0 +1,109 @@
+package com.weathertrack.benchmark;
+
+import com.weathertrack.data.export.ExportFormat;
+import com.weathertrack.data.export.ExportSource;
+import com.weathertrack.data.export.WeatherExporter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+// Encodes the series into a stream that only counts bytes, so the cost
+// measured is formatting and buffering alone (no cursor, no file)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WeatherExportBenchmark {
+    
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int samples;
+    
+    @Param({"CSV", "BINARY"})
+    public ExportFormat format;
+    
+    private SyntheticReadings readings;
+    private WeatherExporter exporter;
+    
+    @Setup
+    public void setUp() {
+        readings = new SyntheticReadings(samples, 42);
+        exporter = new WeatherExporter(id -> SyntheticReadings.CITIES[id % SyntheticReadings.CITIES.length]);
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        CountingStream out = new CountingStream();
+        exporter.export(Collections.singletonList(new ReadingsSource(readings, samples)), samples, format,
+            out, null, null);
+        return out.count;
+    }
+
+    private static final class ReadingsSource implements ExportSource {
+        private final SyntheticReadings readings;
+        private final int count;
+        private int index = -1;
+
+        ReadingsSource(SyntheticReadings readings, int count) {
+            this.readings = readings;
+            this.count = count;
+        }
+
+        @Override
+        public boolean moveToNext() {
+            return ++index < count;
+        }
+
+        @Override
+        public long getTimestamp() {
+            return readings.timestamps[index];
+        }
+
+        @Override
+        public int getCityId() {
+            return index % SyntheticReadings.CITIES.length;
+        }
+
+        @Override
+        public double getTemperature() {
+            return readings.temperatures[index];
+        }
+
+        @Override
+        public int getHumidity() {
+            return readings.humidities[index];
+        }
+
+        @Override
+        public int getConditionCode() {
+            return 1 + index % 8;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class CountingStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
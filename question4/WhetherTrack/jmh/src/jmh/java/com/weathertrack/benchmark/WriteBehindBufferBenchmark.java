@@ -0,0 +1,72 @@
+package com.weathertrack.benchmark;
+
+import com.weathertrack.data.repository.WriteBehindBuffer;
+import com.weathertrack.domain.model.WeatherModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Single-reading enqueues through the buffer with the repository's batch size,
+// against a writer that only counts, so the cost measured is the batching itself
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WriteBehindBufferBenchmark {
+    
+    private static final long FLUSH_WINDOW_MS = 250;
+    private static final int MAX_BATCH_SIZE = 100;
+    
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int samples;
+    
+    private WeatherModel[] models;
+    private ScheduledExecutorService scheduler;
+    
+    @Setup
+    public void setUp() {
+        SyntheticReadings readings = new SyntheticReadings(samples, 42);
+        models = new WeatherModel[samples];
+        String[] cities = SyntheticReadings.CITIES;
+        for (int i = 0; i < samples; i++) {
+            models[i] = new WeatherModel(readings.temperatures[i], readings.humidities[i], "Sunny",
+                readings.timestamps[i], cities[i % cities.length]);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public long enqueueAndDrain() {
+        AtomicLong written = new AtomicLong();
+        WriteBehindBuffer<WeatherModel> buffer = new WriteBehindBuffer<>(
+            (List<WeatherModel> batch) -> written.addAndGet(batch.size()),
+            scheduler, FLUSH_WINDOW_MS, MAX_BATCH_SIZE);
+        for (WeatherModel model : models) {
+            buffer.enqueue(model);
+        }
+        // Waits for any in-flight scheduled batch, then writes the remainder
+        buffer.flush();
+        if (written.get() != samples) {
+            throw new IllegalStateException("wrote " + written.get() + " of " + samples);
+        }
+        return written.get();
+    }
+}